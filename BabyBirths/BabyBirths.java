@@ -1,6 +1,28 @@
 import edu.duke.*;
 import org.apache.commons.csv.*;
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 
 /**
  * Given a large amount of data on babies born in the USA 1880-2014,
@@ -79,15 +101,10 @@ public class BabyBirths {
         else                             return "don't recognize gender '" + gender + "'";
     }
 
-    // We will need to build a filename from a year code.
-    private String byYearFilename (int year) { return "us_babynames_by_year/yob" + year + ".csv"; }
-
-    private String byDecadeFilename (int year) { return "us_babynames_by_decade/yob" + year + "s.csv"; }
-
-    private String byTestFilename (int year) { return "us_babynames_test/yob" + year + "short.csv"; }
-
     private String EXAMPLE_FILENAME = "us_babynames_test/example-small.csv";
 
+    private String SNAPSHOT_FILENAME = "babynames.snapshot";
+
     //////////////////////////////////////////////////////////////////////////////////
     //// Primary implementation.                                                  ////
     //////////////////////////////////////////////////////////////////////////////////
@@ -122,15 +139,135 @@ public class BabyBirths {
         System.out.println(countBoys + " names for total boys = " + totalBoys);
     }
 
+    // The same totals as totalBirths(FileResource), kept while NameFileScanner reads rows.
+    private static class BirthCounts implements NameFileScanner.Rows {
+        long totalBirths = 0;
+        long totalBoys = 0;
+        long totalGirls = 0;
+        int countBoys = 0;
+        int countGirls = 0;
+        int countAll = 0;
+
+        public void row (ByteBuffer file, int nameStart, int nameLength, byte gender, int count) {
+            totalBirths += count;
+            countAll += 1;
+            if (gender == 'M') {
+                totalBoys += count;
+                countBoys += 1;
+            }
+            if (gender == 'F') {
+                totalGirls += count;
+                countGirls += 1;
+            }
+        }
+
+        void print () {
+            System.out.println(countAll + " names for total births = " + totalBirths);
+            System.out.println(countGirls + " names for total girls = " + totalGirls);
+            System.out.println(countBoys + " names for total boys = " + totalBoys);
+        }
+    }
+
+    /** Same as totalBirths(FileResource), but reads data file `filename` directly with
+     *  a NameFileScanner instead of a CSV parser, making no objects per row.
+     *  
+     *  @param filename     The data file to examine.
+     *  @throws exception if the file can't be read.
+     */
+    public void totalBirths (String filename) {
+        BirthCounts counts = new BirthCounts();
+        NameFileScanner.scan(filename, counts);
+        counts.print();
+    }
+
+    /** Same as totalBirths(filename), but for every year from `firstYear` through
+     *  `lastYear` of data set `data` together.
+     *  
+     *  @param data     The data set to use, such as DataSet.YEAR.
+     *  @param firstYear    The first year to include
+     *  @param lastYear     The last year to include
+     *  @throws exception if any year in the range does not have a data file.
+     */
+    public void totalBirths (DataSet data, int firstYear, int lastYear) {
+        BirthCounts counts = new BirthCounts();
+        for (int year = firstYear; year <= lastYear; year++) {
+            NameFileScanner.scan(data.filename(year), counts);
+        }
+        counts.print();
+    }
+
     /** Test driver for totalBirths(), from the course video. */
     void testTotalBirths () {
         FileResource fr = new FileResource(EXAMPLE_FILENAME);
         System.out.println("Expect 1700 total births, 1500 females, 200 males");
         totalBirths(fr);
+        totalBirths(EXAMPLE_FILENAME);
 
-        fr = new FileResource(byYearFilename(2014));
+        fr = new FileResource(DataSet.YEAR.filename(2014));
         System.out.println("Expect 3670151 total births, 1768775 females, 1901376 males");
         totalBirths(fr);
+        totalBirths(DataSet.YEAR.filename(2014));
+
+        System.out.println("Expect 1825433 names for 337135426 total births over 1880-2014, 167070477 females, 170064949 males");
+        totalBirths(DataSet.YEAR, 1880, 2014);
+
+        // Line ends, a count that isn't a number, and no newline at the end.
+        ByteBuffer file = ByteBuffer.wrap("Ann,F,5\r\n\r\nBob,M,x\nCy,M,70".getBytes());
+        StringBuilder rows = new StringBuilder();
+        NameFileScanner.scan(file, "test", (buf, start, length, gender, count) -> {
+            byte[] name = new byte[length];
+            for (int i = 0; i < length; i++) {
+                name[i] = buf.get(start + i);
+            }
+            rows.append(new String(name)).append(",").append((char) gender).append(",").append(count).append(" ");
+        });
+        System.out.println("Expect Ann,F,5 Bob,M,-1 Cy,M,70, got "+rows);
+        try {
+            NameFileScanner.scan(ByteBuffer.wrap("Ann,F,5\nBob,MM,6\n".getBytes()), "test", (buf, start, length, gender, count) -> {});
+            System.out.println("Expect an error for a two letter gender, got none");
+        } catch (ResourceException e) {
+            System.out.println("Expect an error for line 2, got "+e.getMessage());
+        }
+    }
+
+    /** Gather statistics over every year from `firstYear` through `lastYear` in one
+     *  parallel pass:  births and names per year for each gender, how many different
+     *  names there are, and the names given to both genders.  See CorpusStats.
+     *  
+     *  @param data     The data set to use, such as DataSet.YEAR.
+     *  @param firstYear    The first year to include
+     *  @param lastYear     The last year to include
+     *  @return the statistics.
+     *  @throws exception if any year in the range does not have a data file.
+     */
+    public CorpusStats getCorpusStats (DataSet data, int firstYear, int lastYear) {
+        return new CorpusStats(data, firstYear, lastYear);
+    }
+
+    /** Print getCorpusStats(data, firstYear, lastYear) as a table, listing the top
+     *  `sharedNames` names given to both genders.
+     */
+    public void printCorpusStats (DataSet data, int firstYear, int lastYear, int sharedNames) {
+        System.out.print(getCorpusStats(data, firstYear, lastYear).toTable(sharedNames));
+    }
+
+    /** Test driver for getCorpusStats(). */
+    void testCorpusStats () {
+        CorpusStats stats = getCorpusStats(DataSet.TEST, 2012, 2014);
+        System.out.println("Expect 29 boys' births in 2014, got "+stats.births(2014, MALE));
+        System.out.println("Expect 5 girls' names in 2012, got "+stats.names(2012, FEMALE));
+        System.out.println("Expect 11 different names, 5 + 6, got "+stats.distinctNames()+", "+
+            stats.distinctNames(FEMALE)+" + "+stats.distinctNames(MALE));
+        System.out.println("Expect no names for both, got "+stats.distinctNamesForBoth()+" and "+stats.sharedNames(5));
+
+        stats = getCorpusStats(DataSet.YEAR, 1880, 2014);
+        System.out.println("Expect 1768775 girls and 1901376 boys in 2014, got "+stats.births(2014, FEMALE)+" and "+stats.births(2014, MALE));
+        System.out.println("Expect 167070477 girls and 170064949 boys over 1880-2014, got "+stats.births(FEMALE)+" and "+stats.births(MALE));
+        System.out.println("Expect 93889 names, 64911 girls', 39199 boys', 10221 both, got "+stats.distinctNames()+", "+
+            stats.distinctNames(FEMALE)+", "+stats.distinctNames(MALE)+", "+stats.distinctNamesForBoth());
+        System.out.println("Expect 2039 names for both in 1990, got "+stats.namesForBoth(1990));
+        System.out.println("Expect [Willie,F,146129,M,447759, Jordan,F,126910,M,352524], got "+stats.sharedNames(2));
+        System.out.println(stats.toTable(10));
     }
 
     /** Given a FileResource and a `gender`, create a StorageResource that
@@ -148,33 +285,348 @@ public class BabyBirths {
      *  @throws exception if `fr` does not represent CSV data.
      */
     public StorageResource filterByGender (FileResource fr, String gender) {
-        StorageResource sr = new StorageResource();
-        for (CSVRecord record : fr.getCSVParser(false)) {
-            if (isGender(record, gender)) {
-                sr.add(getBabyName(record)+","+getGender(record)+","+getCount(record));
-            }
+        // Typed storage keeps the counts as ints and hashes rows for contains().  The
+        // values go straight into its columns, so no row is formatted and parsed again.
+        TypedStorageResource sr = new TypedStorageResource("SSI");
+        for (BabyName baby : namesOfGender(fr, gender)) {
+            sr.addValues(baby.getName(), baby.getGender(), baby.getCount());
         }
         return sr;
     }
 
-    // Control whether we use the simplified test data or the real data for a year.
-    // The decade data doesn't have simplified data, so no need to do this for decade stuff.
-    // Unit tests should start by calling useTestData() and finish by calling useYearData().
-    private char useData = 'y';
-    private void useTestData() { useData = 't'; }
+    /** Given a FileResource and a `gender`, return the rows matching `gender` as
+     *  `BabyName`s, straight from a single parse of `fr`.
+     *  
+     *  Unlike `filterByGender()` nothing is copied:  rows are converted one at a time
+     *  as the caller asks for them.  Because data files are presorted by gender, all
+     *  the rows of one gender are together.  So once a row of another gender follows
+     *  the block of `gender` rows, there can't be any more and the rest of the file
+     *  is never looked at.  For females, that skips every male row.
+     *  
+     *  @param fr       The FileResource we are filtering.
+     *  @param gender   The gender we are filtering for.
+     *  @return the rows of `gender`, in the order they occur in `fr`.  The position of
+     *  a row in the result is its rank.
+     *  @throws exception if `fr` isn't valid.
+     *  @throws exception if `fr` does not represent CSV data.
+     */
+    public Iterable<BabyName> namesOfGender (FileResource fr, String gender) {
+        return () -> new Iterator<BabyName>() {
+            private Iterator<CSVRecord> records = fr.getCSVParser(false).iterator();
+            private BabyName next = null;
+            private boolean inBlock = false;    // have we reached the rows of `gender` yet?
+            private boolean done = false;
 
-    private void useDecadeData() { useData = 'd'; }
+            public boolean hasNext () {
+                while (next == null && ! done && records.hasNext()) {
+                    CSVRecord record = records.next();
+                    if (isGender(record, gender)) {
+                        inBlock = true;
+                        next = new BabyName(getBabyName(record), getGender(record), getCount(record));
+                    } else if (inBlock) {
+                        done = true;    // past the end of the block, so we are finished
+                    }
+                }
+                return next != null;
+            }
+
+            public BabyName next () {
+                if (! hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                BabyName result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    // Sum the count column of filtered rows without parsing any text.
+    private int totalCount (TypedStorageResource sr) {
+        int total = 0;
+        for (int row = 0; row < sr.size(); row++) {
+            total = total + sr.getInt(row, COUNT);
+        }
+        return total;
+    }
+
+    /** Test driver for namesOfGender(). */
+    void testNamesOfGender () {
+        FileResource fr = new FileResource(DataSet.TEST.filename(2012));
+        System.out.println("Expect Sophia,F,10 Emma,F,9 Isabella,F,8 Olivia,F,7 Ava,F,6");
+        for (BabyName baby : namesOfGender(fr, FEMALE)) System.out.print(baby + " ");
+        System.out.println();
+        System.out.println("Expect Jacob,M,8 Mason,M,7 Ethan,M,7 Noah,M,6 William,M,5");
+        for (BabyName baby : namesOfGender(fr, MALE)) System.out.print(baby + " ");
+        System.out.println();
+        System.out.println("Expect nothing for gender 'q'");
+        for (BabyName baby : namesOfGender(fr, "q")) System.out.print(baby + " ");
+        System.out.println();
+        StorageResource sr = filterByGender(fr, MALE);
+        System.out.println("Expect 5 rows from filterByGender(), got " + sr.size());
+        System.out.println("Expect true for Noah,M,6, got " + sr.contains("Noah,M,6"));
+        System.out.println("Expect false for Noah,M,7, got " + sr.contains("Noah,M,7"));
+        System.out.println("Expect 33 total boys, got " + totalCount((TypedStorageResource) sr));
+        System.out.print("Expect Jacob Mason Ethan Noah William from its CSV parser, got");
+        for (CSVRecord rec : sr.getCSVParser(false)) System.out.print(" " + getBabyName(rec));
+        System.out.println();
+        System.out.println("Expect 5 rows in a copy, got " + new StorageResource(sr).size());
+        TypedStorageResource typed = new TypedStorageResource("SSI");
+        typed.add("name,gender,count");
+        typed.add("Emma,F,09");
+        System.out.print("Expect name,gender,count Emma,F,09 kept as added, got");
+        for (String row : typed.data()) System.out.print(" " + row);
+        System.out.println();
+        System.out.println("Expect true false for Emma,F,09 and Emma,F,9, got "
+                           + typed.contains("Emma,F,09") + " " + typed.contains("Emma,F,9"));
+        System.out.println("Expect false 9 for the header's and Emma's values, got "
+                           + typed.hasValues(0) + " " + typed.getInt(1, COUNT));
+    }
+
+    // The data set used by questions that don't name one.  Only the test drivers change
+    // it:  they start by calling useTestData() and finish by calling useYearData().
+    // Everything else passes a DataSet with the question, so one BabyBirths can serve
+    // questions about different data sets from several threads at once.  Methods that
+    // use this read it only once, so a whole question uses the same data set.
+    private volatile DataSet dataSet = DataSet.YEAR;
+
+    private void useTestData() { dataSet = DataSet.TEST; }
+
+    private void useYearData() { dataSet = DataSet.YEAR; }
+
+    String getFilename(int year) {
+        return dataSet.filename(year);
+    }
+
+    // Each data file is parsed into a RankIndex the first time it is needed, and kept
+    // in a bounded cache so later rank questions about it are answered from memory.
+    // Keyed by filename, so test, year and decade data never get mixed up.
+    // Multi-year questions load files from several threads at once;  the cache is
+    // safe for that and loads each file only once even when asked for it together.
+    private RankIndexCache rankIndexes = new RankIndexCache();
+
+    RankIndex getRankIndex (String filename) {
+        return rankIndexes.get(filename, f -> {
+            if (snapshot != null && snapshot.contains(f)) {
+                return snapshot.getRankIndex(f);
+            } else {
+                return loadRankIndex(f);
+            }
+        });
+    }
+
+    /** Limit how much parsed data is kept in memory between questions.  Once either
+     *  limit is reached, the least recently used file is dropped and is read again if
+     *  it is needed later.  The defaults hold every by-year and by-decade file.
+     *
+     *  @param maxFiles     the most data files to hold at once
+     *  @param maxRows      the most rows to hold at once, over all files.  Each row
+     *  takes about 20 bytes.
+     *  @throws IllegalArgumentException if either limit is less than 1.
+     */
+    public void setCacheLimits (int maxFiles, long maxRows) {
+        rankIndexes.setLimits(maxFiles, maxRows);
+    }
+
+    /** @return a one line summary of the parsed data cache:  its size, limits, hits and misses. */
+    public String cacheStatistics () {
+        return rankIndexes.toString();
+    }
+
+    // When true, rank questions are answered by reading just the needed part of the data
+    // file, found through its BlockIndex, instead of holding the whole file in memory
+    // as a RankIndex.  Slower per question, but only a few KB per file stay in memory.
+    private volatile boolean useDiskLookups = false;
+    private ConcurrentHashMap<String, BlockIndex> blockIndexes = new ConcurrentHashMap<String, BlockIndex>();
+
+    /** Choose between answering rank questions from memory (the default) or from disk.
+     *  
+     *  @param onDisk   true to read only the needed rows of each data file per question,
+     *  which suits one-off questions or a small memory;  false to load each data file
+     *  into memory once and answer every later question from there.
+     */
+    public void useDiskLookups (boolean onDisk) { useDiskLookups = onDisk; }
+
+    private BlockIndex getBlockIndex (String filename) {
+        return blockIndexes.computeIfAbsent(filename, f -> BlockIndex.forFile(f));
+    }
+
+    private int rankInFile (String filename, String name, String gender) {
+        if (useDiskLookups) return getBlockIndex(filename).getRank(name, gender);
+        else                return getRankIndex(filename).getRank(name, gender);
+    }
+
+    private String nameInFile (String filename, int rank, String gender) {
+        if (useDiskLookups) return getBlockIndex(filename).getName(rank, gender);
+        else                return getRankIndex(filename).getName(rank, gender);
+    }
+
+    private int birthsRankedHigherInFile (String filename, int rank, String gender) {
+        if (useDiskLookups) return getBlockIndex(filename).getBirthsRankedHigher(rank, gender);
+        else                return getRankIndex(filename).getBirthsRankedHigher(rank, gender);
+    }
+
+    private List<BabyName> rangeInFile (String filename, int fromRank, int toRank, String gender) {
+        if (useDiskLookups) return getBlockIndex(filename).getRange(fromRank, toRank, gender);
+        else                return getRankIndex(filename).getRange(fromRank, toRank, gender);
+    }
+
+    // Parse a data file into a new RankIndex.
+    private RankIndex loadRankIndex (String filename) {
+        RankIndex index = new RankIndex();
+        for (CSVRecord rec : new FileResource(filename).getCSVParser(false)) {
+            index.add(getBabyName(rec), getGender(rec), getCount(rec));
+        }
+        index.trimToSize();
+        return index;
+    }
 
-    private void useYearData() { useData = 'y'; }
+    // When not null, data files are read from this snapshot instead of their CSV files.
+    // Files the snapshot doesn't hold still come from CSV.
+    private volatile NameSnapshot snapshot = null;
 
-    private String getFilename(int year) {
-        if (useData == 't') {
-            return byTestFilename(year);
-        } else if (useData == 'd') {
-            return byDecadeFilename(year);
-        } else {
-            return byYearFilename(year);
+    /** Read data files from the snapshot `snapshotFilename` (made by `writeSnapshot()`)
+     *  instead of parsing their CSV files.
+     *
+     *  @param snapshotFilename     the snapshot to use
+     *  @throws ResourceException if the snapshot can't be opened.
+     */
+    public void useSnapshot (String snapshotFilename) {
+        try {
+            snapshot = new NameSnapshot(snapshotFilename);
+        } catch (IOException e) {
+            throw new ResourceException("BabyBirths: cannot open snapshot " + snapshotFilename + ": " + e.getMessage());
         }
+        rankIndexes.clear();
+    }
+
+    /** Compile every CSV data file in `directories` into one binary snapshot that
+     *  `useSnapshot()` can load in a fraction of the time parsing takes.
+     *
+     *  @param snapshotFilename     where to write the snapshot
+     *  @param directories  the data directories to include, like "us_babynames_by_year"
+     *  @throws ResourceException if a data file can't be read or the snapshot can't be written.
+     */
+    public void writeSnapshot (String snapshotFilename, String... directories) {
+        try (NameSnapshot.Writer writer = new NameSnapshot.Writer(snapshotFilename)) {
+            for (String directory : directories) {
+                String[] filenames = new File(directory).list();
+                if (filenames == null) {
+                    throw new ResourceException("BabyBirths: cannot list directory " + directory);
+                }
+                Arrays.sort(filenames);
+                for (String f : filenames) {
+                    if (f.endsWith(".csv")) {
+                        String filename = directory + "/" + f;
+                        writer.add(filename, loadRankIndex(filename));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new ResourceException("BabyBirths: cannot write snapshot " + snapshotFilename + ": " + e.getMessage());
+        }
+    }
+
+    /** Compile all the by-year and by-decade data into the default snapshot file. */
+    public void writeSnapshot () {
+        writeSnapshot(SNAPSHOT_FILENAME, "us_babynames_by_year", "us_babynames_by_decade");
+    }
+
+    /** Test driver for writeSnapshot() and useSnapshot(). */
+    void testSnapshot () {
+        String testSnapshot = "test.snapshot";
+        writeSnapshot(testSnapshot, "us_babynames_test");
+        useSnapshot(testSnapshot);
+        useTestData();
+        System.out.println("Expect 4 for Olivia, got "+getRank(2012, "Olivia", FEMALE));
+        System.out.println("Expect 3 for Ethan, got "+getRank(2012, "Ethan", MALE));
+        System.out.println("Expect Sophia for #1 female, got "+getName(2012, 1, FEMALE));
+        System.out.println("Expect NO NAME for #6 male, got "+getName(2012, 6, MALE));
+        System.out.println("Expect 15, got "+getTotalBirthsRankedHigher(2012, "Ethan", MALE));
+        System.out.println("Expect:  Mason born in 2012 would be Liam if he was born in 2014.");
+        whatIsNameInYear("Mason", 2012, 2014, MALE);
+        useYearData();
+        snapshot = null;
+        rankIndexes.clear();
+        new File(testSnapshot).delete();
+    }
+
+    /** Take in a newly published data file, like next year's yobNNNN.csv, without
+     *  rebuilding anything made from the years before it.  Put the file where `data`
+     *  keeps its files, then call this.  Only the new file is read, and
+     *  <ul>
+     *  <li>it goes straight into the parsed data cache</li>
+     *  <li>if a snapshot is in use, it is appended to the snapshot file</li>
+     *  <li>every trajectory index that ends the year before is extended to cover it,
+     *      along with the average ranks and best years kept in it</li>
+     *  <li>for DataSet.YEAR, the decade rollups that would total it are deleted, to be
+     *      made again when next needed</li>
+     *  </ul>
+     *  So it costs about what the new file's rows cost, however many years came before.
+     *  
+     *  @param data     The data set the new file belongs to, such as DataSet.YEAR.
+     *  @param year     The year of the new file.
+     *  @throws ResourceException if the file can't be read or the snapshot can't be written.
+     */
+    public synchronized void addYear (DataSet data, int year) {
+        String filename = data.filename(year);
+        RankIndex index = loadRankIndex(filename);
+        rankIndexes.put(filename, index);
+        blockIndexes.remove(filename);
+        if (data == DataSet.YEAR) {
+            dropDecadeRollups(year);
+        }
+
+        NameSnapshot snap = snapshot;
+        if (snap != null) {
+            try {
+                snap.append(filename, index);
+            } catch (IOException e) {
+                throw new ResourceException("BabyBirths: cannot add " + filename + " to the snapshot: " + e.getMessage());
+            }
+        }
+
+        // "YEAR 1880-2014" becomes "YEAR 1880-2015".  The old range will be rebuilt if
+        // anyone asks for it again.
+        String prefix = data + " ";
+        String suffix = "-" + (year - 1);
+        for (String key : trajectoryIndexes.keySet()) {
+            if (key.startsWith(prefix) && key.endsWith(suffix)) {
+                TrajectoryIndex trajectories = trajectoryIndexes.remove(key);
+                if (trajectories != null) {
+                    trajectories.addYear(year, index);
+                    int firstYear = Integer.parseInt(key.substring(prefix.length(), key.length() - suffix.length()));
+                    trajectoryIndexes.put(trajectoryKey(data, firstYear, year), trajectories);
+                }
+            }
+        }
+    }
+
+    /** Test driver for addYear(). */
+    void testAddYear () throws IOException {
+        String testSnapshot = "test.snapshot";
+        try (NameSnapshot.Writer writer = new NameSnapshot.Writer(testSnapshot)) {
+            writer.add(DataSet.TEST.filename(2012), loadRankIndex(DataSet.TEST.filename(2012)));
+            writer.add(DataSet.TEST.filename(2013), loadRankIndex(DataSet.TEST.filename(2013)));
+        }
+        BabyBirths b = new BabyBirths();
+        b.useSnapshot(testSnapshot);
+        System.out.println("Expect ranks [4, 1], got "+Arrays.toString(b.getTrajectory(DataSet.TEST, "Noah", MALE, 2012, 2013).getRanks()));
+        System.out.println("Expect 2.5, got "+b.getAverageRank(DataSet.TEST, "Noah", MALE, 2012, 2013));
+
+        b.addYear(DataSet.TEST, 2014);
+        System.out.println("Expect ranks [4, 1, 1], got "+Arrays.toString(b.getTrajectoryIndex(DataSet.TEST, 2012, 2014).trajectory("Noah", MALE).getRanks()));
+        System.out.println("Expect the 2012-2014 index to be the extended one, got "+
+            (b.trajectoryIndexes.get(b.trajectoryKey(DataSet.TEST, 2012, 2013)) == null ? "it is" : "it isn't"));
+        System.out.println("Expect 2.0, got "+b.getAverageRank(DataSet.TEST, "Noah", MALE, 2012, 2014));
+        System.out.println("Expect 2013, got "+b.yearOfHighestRank(DataSet.TEST, "Noah", MALE, 2012, 2014));
+        System.out.println("Expect 2013 for Liam, rank 2 in 2013 and 2014, got "+b.yearOfHighestRank(DataSet.TEST, "Liam", MALE, 2012, 2014));
+        System.out.println("Expect 2.666... for Jacob, got "+b.getAverageRank(DataSet.TEST, "Jacob", MALE, 2012, 2014));
+
+        NameSnapshot reopened = new NameSnapshot(testSnapshot);
+        System.out.println("Expect the snapshot to hold 2014 now, got "+reopened.contains(DataSet.TEST.filename(2014)));
+        System.out.println("Expect 2 for Liam in 2014 from the snapshot, got "+reopened.getRankIndex(DataSet.TEST.filename(2014)).getRank("Liam", MALE));
+        new File(testSnapshot).delete();
     }
 
     // Return true if a string is actually present:  not null and not empty.
@@ -190,19 +642,22 @@ public class BabyBirths {
      *  @throws exception if `year` does not have a data file.
      */
     public int getRank (int year, String name, String gender) {
+        return getRank(dataSet, year, name, gender);
+    }
+
+    /** Same as getRank(year, name, gender), but for `year` in data set `data`.
+     *
+     *  @param data     The data set to use, such as DataSet.DECADE.
+     *  @param year     The year to examine.
+     *  @param name     The baby name to find in `year`
+     *  @param gender   The gender to use in the search
+     *  @return the rank of `name` in `year`.  If `name` isn't found, return -1.
+     *  @throws exception if `year` does not have a data file.
+     */
+    public int getRank (DataSet data, int year, String name, String gender) {
         // Only bother searching if name and gender are actually present.
         if (hasValue(name) && hasValue(gender)) {
-            FileResource fr = new FileResource(getFilename(year));
-            CSVParser parser = filterByGender(fr, gender).getCSVParser(false);
-
-            // Thanks to filtering, I don't need to count the records seen.
-            // The parser keeps track of that for me, and starts with 1.
-            // Perfect.
-            for (CSVRecord rec : parser) {
-                if (getBabyName(rec).equals(name)) {
-                    return (int) parser.getRecordNumber();
-                }
-            }
+            return rankInFile(data.filename(year), name, gender);
         }
 
         // Didn't find name.
@@ -236,20 +691,25 @@ public class BabyBirths {
      *  @throws exception if `year` does not have a data file.
      */
     public String getName (int year, int rank, String gender) {
-        FileResource fr = new FileResource(getFilename(year));
-        CSVParser parser = filterByGender(fr, gender).getCSVParser(false);
+        return getName(dataSet, year, rank, gender);
+    }
 
+    /** Same as getName(year, rank, gender), but for `year` in data set `data`.
+     *
+     *  @param data     The data set to use, such as DataSet.DECADE.
+     *  @param year     The year to examine.
+     *  @param rank     The nth name to find.
+     *  @param gender   The gender to use in the search
+     *  @return the baby name at `rank` in `year` for `gender`.  If no such rank
+     *  exists, return "NO NAME".
+     *  @throws exception if `year` does not have a data file.
+     */
+    public String getName (DataSet data, int year, int rank, String gender) {
         // If rank is not at least 1, don't bother searching.
         if (rank >= 1) {
-            // Thanks to filtering, I simply have to count down the
-            // rank number (a parser cannot return a specific record 
-            // directly, itself).  When it reaches 1, return the name 
-            // from the current record.
-            for (CSVRecord rec : parser) {
-                if (rank == 1) {
-                    return getBabyName(rec);
-                }
-                rank = rank - 1;
+            String name = nameInFile(data.filename(year), rank, gender);
+            if (name != null) {
+                return name;
             }
         }
 
@@ -272,6 +732,67 @@ public class BabyBirths {
         useYearData();
     }
 
+    /** Test driver for NameDictionary. */
+    void testNameDictionary () {
+        NameDictionary d = new NameDictionary();
+        System.out.println("Expect 0 for the first name, got "+d.intern("Sophia"));
+        System.out.println("Expect 1 for the second name, got "+d.intern("Emma"));
+        System.out.println("Expect 0 for the first name again, got "+d.intern("Sophia"));
+        System.out.println("Expect 1 for idOf Emma, got "+d.idOf("Emma"));
+        System.out.println("Expect -1 for idOf a name never added, got "+d.idOf("Zzyzx"));
+        System.out.println("Expect -1 for idOf a prefix of a name, got "+d.idOf("Emm"));
+        System.out.println("Expect Emma for name(1), got "+d.name(1));
+        int zoe = d.intern("Zo\u00eb");
+        System.out.println("Expect Zo\u00eb back for a non-ASCII name, got "+d.name(zoe)+" and id "+d.idOf("Zo\u00eb")+" == "+zoe);
+        for (int i = 0; i < 10000; i++) {
+            d.intern("Name" + i);
+        }
+        System.out.println("Expect 10003 names after growing, got "+d.size());
+        System.out.println("Expect Name9999 to survive growing, got "+d.name(d.idOf("Name9999")));
+        System.out.println("Expect 0 for Sophia after growing, got "+d.idOf("Sophia"));
+
+        // Every year shares one dictionary, so a name has the same id in all of them.
+        RankIndex y2012 = getRankIndex(DataSet.TEST.filename(2012));
+        RankIndex y2013 = getRankIndex(DataSet.TEST.filename(2013));
+        System.out.println("Expect the same id for Sophia in 2012 and 2013, got "+
+            y2012.getNameId(1, "F")+" and "+y2013.getNameId(y2013.getRank("Sophia", "F"), "F"));
+        System.out.println("Expect -1 for the id of a rank that doesn't exist, got "+y2012.getNameId(6, "F"));
+    }
+
+    /** Test driver for useDiskLookups(). */
+    void testDiskLookups () {
+        useDiskLookups(true);
+        testGetRank();
+        testGetName();
+        testGetTotalBirthsRankedHigher();
+        System.out.println("Expect 251 for Emily in 1960, got "+getRank(1960, "Emily", FEMALE));
+        System.out.println("Expect 17 for Jennifer in 1994, got "+getRank(1994, "Jennifer", FEMALE));
+        System.out.println("Expect Forrest for #450 male in 1982, got "+getName(1982, 450, MALE));
+        System.out.println("Expect Ella for #17 female in 2014, got "+getName(2014, 17, FEMALE));
+        System.out.println("Expect 1498074 above Drew in 1990, got "+getTotalBirthsRankedHigher(1990, "Drew", MALE));
+        System.out.println("Expect 323200 above Emily in 1990, got "+getTotalBirthsRankedHigher(1990, "Emily", FEMALE));
+        useDiskLookups(false);
+    }
+
+    /** Test driver for the parsed data cache and its limits. */
+    void testCache () {
+        BabyBirths b = new BabyBirths();
+        b.useTestData();
+        b.setCacheLimits(2, 1000);
+        b.getRank(2012, "Olivia", FEMALE);
+        b.getRank(2012, "Ethan", MALE);
+        b.getRank(2013, "Olivia", FEMALE);
+        System.out.println("Expect 2 misses and 1 hit:  "+b.cacheStatistics());
+        b.getRank(2014, "Olivia", FEMALE);
+        System.out.println("Expect 2 files held and 1 eviction:  "+b.cacheStatistics());
+        System.out.println("Expect 4 for Olivia in 2012 after being evicted, got "+b.getRank(2012, "Olivia", FEMALE));
+        System.out.println("Expect 4 misses:  "+b.cacheStatistics());
+        b.setCacheLimits(1, 1000);
+        System.out.println("Expect 1 file held after lowering the limit:  "+b.cacheStatistics());
+        b.whatIsNameInYear("Mason", 2012, 2014, MALE);
+        System.out.println("Expect every question still right with 1 file held:  "+b.cacheStatistics());
+    }
+
     /** Given a `name` in a `year` and a `gender`, look up that same name and gender in 
      *  `newYear` and print `name` born in `year` would be `newName` if she/he was born in `newYear`.
      *  
@@ -286,8 +807,9 @@ public class BabyBirths {
 
         // Only bother searching if name and gender are actually present.
         if (hasValue(name) && hasValue(gender)) {
-            int rank = getRank(year, name, gender);
-            newName = getName(newYear, rank, gender);
+            DataSet data = dataSet;
+            int rank = getRank(data, year, name, gender);
+            newName = getName(data, newYear, rank, gender);
         }
 
         System.out.println(name + " born in " + year + " would be " + newName + 
@@ -318,18 +840,24 @@ public class BabyBirths {
      *  @param year     The year to search for `name` to get its rank
      *  @param decade  The other year to search for that same rank
      *  @param gender   The gender to use in the search
-     *  @throws exception if `year` or `decade` do not have data files.
+     *  @throws exception if `year` or `decade` do not have data files.  Every decade is
+     *  ranked from the DataSet.DECADE_ROLLUP files, so ties are ranked by the same rules
+     *  as getRank().  If they haven't been made yet, or were made from other by-year
+     *  files than there are now, they are made first.  If they can't be saved, say on
+     *  a read-only disk, they are kept in memory instead.
      */
     public void whatIsNameInDecade (String name, int year, int decade, String gender) {
         String newName = "NO NAME";
 
         // Only bother searching if name and gender are actually present.
         if (hasValue(name) && hasValue(gender)) {
-            useYearData();
-            int rank = getRank(year, name, gender);
-            useDecadeData();
-            newName = getName(decade, rank, gender);
-            useYearData();
+            int rank = getRank(DataSet.YEAR, year, name, gender);
+            RankIndex unsaved = makeDecadeRollup(decade);
+            if (unsaved == null) {
+                newName = getName(DataSet.DECADE_ROLLUP, decade, rank, gender);
+            } else if (rank >= 1 && unsaved.getName(rank, gender) != null) {
+                newName = unsaved.getName(rank, gender);
+            }
         }
 
         System.out.println(name + " born in " + year + " would be " + newName + 
@@ -354,14 +882,66 @@ public class BabyBirths {
         whatIsNameInDecade("Jennifer", 1994, 1900, FEMALE);
         System.out.println("1890 is Ruth");
         whatIsNameInDecade("Jennifer", 1994, 1890, FEMALE);
+        System.out.println("2010 is Anna, from a rollup made the first time any is needed");
+        whatIsNameInDecade("Jennifer", 1994, 2010, FEMALE);
         // The 1994 data file shows 44 boys named Jennifer, so must use another name.
         System.out.println("NO NAME");
         whatIsNameInDecade("Supergirl", 1994, 2000, FEMALE);
     }
 
+    /** Stress test for sharing one BabyBirths between threads.  Every question is
+     *  answered once on this thread to get the right answers, then all of them many
+     *  times over on a thread pool, on one shared object with a cache too small to
+     *  hold everything, while the default data set is flipped back and forth.
+     *  Questions that name their data set must not notice any of that.
+     */
+    void testConcurrentQueries () throws Exception {
+        BabyBirths shared = new BabyBirths();
+        List<Callable<String>> questions = new ArrayList<Callable<String>>();
+        questions.add(() -> "" + shared.getRank(DataSet.TEST, 2012, "Olivia", FEMALE));
+        questions.add(() -> shared.getName(DataSet.TEST, 2014, 2, MALE));
+        questions.add(() -> "" + shared.getTotalBirthsRankedHigher(DataSet.TEST, 2012, "Ethan", MALE));
+        questions.add(() -> "" + shared.getRank(DataSet.YEAR, 1960, "Emily", FEMALE));
+        questions.add(() -> shared.getName(DataSet.YEAR, 1982, 450, MALE));
+        questions.add(() -> "" + shared.getTotalBirthsRankedHigher(DataSet.YEAR, 1990, "Drew", MALE));
+        questions.add(() -> shared.getName(DataSet.DECADE, 2000, shared.getRank(DataSet.YEAR, 1994, "Jennifer", FEMALE), FEMALE));
+        questions.add(() -> "" + shared.getAverageRank(DataSet.TEST, "Jacob", MALE, 2012, 2014));
+        questions.add(() -> "" + shared.yearOfHighestRank(DataSet.YEAR, "Genevieve", FEMALE, 1910, 1920));
+
+        String[] expected = new String[questions.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = questions.get(i).call();
+        }
+
+        shared.setCacheLimits(12, 500000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<String>> answers = new ArrayList<Future<String>>();
+        List<Integer> asked = new ArrayList<Integer>();
+        Random random = new Random(42);
+        for (int n = 0; n < 1000; n++) {
+            if (n % 100 == 0) {
+                pool.submit(() -> shared.useTestData());
+            } else if (n % 100 == 50) {
+                pool.submit(() -> shared.useYearData());
+            }
+            int i = random.nextInt(questions.size());
+            asked.add(i);
+            answers.add(pool.submit(questions.get(i)));
+        }
+        int wrong = 0;
+        for (int n = 0; n < answers.size(); n++) {
+            if (! answers.get(n).get().equals(expected[asked.get(n)])) {
+                wrong = wrong + 1;
+            }
+        }
+        pool.shutdown();
+        System.out.println("Expect 0 wrong answers out of " + answers.size() + ", got " + wrong);
+        System.out.println(shared.cacheStatistics());
+    }
+
     // Extract the year from the filename of a File.
     // The year is the 4 characters after the right-most "yob" in the file name.
-    private int fileYear (File f) {
+    int fileYear (File f) {
         int year = -1;
         String filename = f.getName().toLowerCase();
         int yobPosition = filename.lastIndexOf("yob");
@@ -373,6 +953,73 @@ public class BabyBirths {
         return year;
     }
 
+    // The data files the user picks, as year -> filename in the order picked.  Files
+    // whose names don't hold a year are skipped.
+    private LinkedHashMap<Integer, String> selectedYearFiles () {
+        LinkedHashMap<Integer, String> yearFiles = new LinkedHashMap<Integer, String>();
+        DataSet data = dataSet;
+        DirectoryResource dr = new DirectoryResource();
+        for (File f : dr.selectedFiles()) {
+            int year = fileYear(f);
+            if (year != -1) {
+                yearFiles.put(year, data.filename(year));
+            }
+        }
+        return yearFiles;
+    }
+
+    // Every year from `firstYear` through `lastYear` in data set `data`, in order, as
+    // year -> filename.
+    private LinkedHashMap<Integer, String> yearRangeFiles (DataSet data, int firstYear, int lastYear) {
+        LinkedHashMap<Integer, String> yearFiles = new LinkedHashMap<Integer, String>();
+        for (int year = firstYear; year <= lastYear; year++) {
+            yearFiles.put(year, data.filename(year));
+        }
+        return yearFiles;
+    }
+
+    /** Find the data files matching a path glob such as "us_babynames_by_year/yob19*.csv",
+     *  so a set of files can be chosen without the `DirectoryResource` dialog.
+     *
+     *  @param fileGlob     the glob to match.  Only the last path segment may hold wildcards.
+     *  @return year -&gt; filename for every matching CSV file whose name holds a year, in
+     *  filename order.
+     *  @throws ResourceException if the directory can't be listed.
+     */
+    LinkedHashMap<Integer, String> yearFilesMatching (String fileGlob) {
+        LinkedHashMap<Integer, String> yearFiles = new LinkedHashMap<Integer, String>();
+        int slash = fileGlob.lastIndexOf('/');
+        String directory = (slash < 0) ? "." : fileGlob.substring(0, slash);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + fileGlob.substring(slash + 1));
+        String[] filenames = new File(directory).list();
+        if (filenames == null) {
+            throw new ResourceException("BabyBirths: cannot list directory " + directory);
+        }
+        Arrays.sort(filenames);
+        for (String f : filenames) {
+            int year = fileYear(new File(f));
+            // Only data files count, never things like BlockIndex sidecars.
+            if (year != -1 && f.endsWith(".csv") && matcher.matches(Paths.get(f))) {
+                yearFiles.put(year, (slash < 0) ? f : directory + "/" + f);
+            }
+        }
+        return yearFiles;
+    }
+
+    // Look up the rank of `name` in each of `yearFiles`.  The files are independent of each
+    // other, so they are looked up in parallel on the common fork-join pool.  Each
+    // thread writes only its own slot of the result, which is in the same order as
+    // `yearFiles` no matter which thread finishes first.  That keeps the callers' reductions
+    // (which run in order, on this thread) deterministic.
+    private int[] ranksInYears (LinkedHashMap<Integer, String> yearFiles, String name, String gender) {
+        String[] filenames = yearFiles.values().toArray(new String[0]);
+        int[] ranks = new int[filenames.length];
+        IntStream.range(0, ranks.length).parallel().forEach(i -> {
+            ranks[i] = rankInFile(filenames[i], name, gender);
+        });
+        return ranks;
+    }
+
     /** Given a set of data files selected by the user, determine when `name` and `gender`
      *  had the highest rank.
      *  
@@ -382,28 +1029,84 @@ public class BabyBirths {
      *  isn't found, return -1.
      */
     public int yearOfHighestRank (String name, String gender) {
-        int bestRank = -1;      // tracks the best rank seen so far.
-        int bestRankYear = -1;  // what year did bestRank happen in?
+        // Only bother searching if name and gender are actually present.
+        if (hasValue(name) && hasValue(gender)) {
+            return yearOfHighestRank(name, gender, selectedYearFiles());
+        }
+        return -1;
+    }
+
+    /** Determine when `name` and `gender` had the highest rank between `firstYear`
+     *  and `lastYear`, without asking the user to pick files.
+     *  
+     *  @param name     The baby name to search for
+     *  @param gender   The gender to use in the search
+     *  @param firstYear    The first year to search
+     *  @param lastYear     The last year to search, inclusive
+     *  @return the year where `name` & `gender` are the most frequent.  If `name`
+     *  isn't found, return -1.  Ties go to the earliest year.
+     *  @throws exception if any year in the range does not have a data file.
+     */
+    public int yearOfHighestRank (String name, String gender, int firstYear, int lastYear) {
+        return yearOfHighestRank(dataSet, name, gender, firstYear, lastYear);
+    }
 
+    /** Same as yearOfHighestRank(name, gender, firstYear, lastYear), but searching data set `data`.
+     *  
+     *  @param data     The data set to use, such as DataSet.DECADE.
+     *  @param name     The baby name to search for
+     *  @param gender   The gender to use in the search
+     *  @param firstYear    The first year to search
+     *  @param lastYear     The last year to search, inclusive
+     *  @return the year where `name` & `gender` are the most frequent.  If `name`
+     *  isn't found, return -1.  Ties go to the earliest year.
+     *  @throws exception if any year in the range does not have a data file.
+     */
+    public int yearOfHighestRank (DataSet data, String name, String gender, int firstYear, int lastYear) {
         // Only bother searching if name and gender are actually present.
         if (hasValue(name) && hasValue(gender)) {
-            DirectoryResource dr = new DirectoryResource();
-            for (File f : dr.selectedFiles()) {
-                int year = fileYear(f);
-                if (year != -1) {
-                    // Get the current rank and compare it to bestRank.  Remember that
-                    // on the first file bestRank won't be valid.  And we might have
-                    // an unranked name, so check for that as well.
-                    int currentRank = getRank(year, name, gender);
-                    if (currentRank != -1) {
-                        if (bestRank == -1) {
-                            bestRank = currentRank;
-                            bestRankYear = year;
-                        } else if (currentRank < bestRank) {  // remember, better means lower rank
-                            bestRank = currentRank;
-                            bestRankYear = year;
-                        }
-                    }
+            // A trajectory index over exactly these years already knows the answer.
+            TrajectoryIndex trajectories = trajectoryIndexes.get(trajectoryKey(data, firstYear, lastYear));
+            if (trajectories != null) {
+                return trajectories.bestYear(name, gender);
+            }
+            return yearOfHighestRank(name, gender, yearRangeFiles(data, firstYear, lastYear));
+        }
+        return -1;
+    }
+
+    /** Determine when `name` and `gender` had the highest rank among the data files
+     *  matching `fileGlob`, without asking the user to pick files.
+     *  
+     *  @param name     The baby name to search for
+     *  @param gender   The gender to use in the search
+     *  @param fileGlob     Which files to search, like "us_babynames_by_year/yob19*.csv"
+     *  @return the year where `name` & `gender` are the most frequent.  If `name`
+     *  isn't found, return -1.  Ties go to the earliest year.
+     */
+    public int yearOfHighestRank (String name, String gender, String fileGlob) {
+        // Only bother searching if name and gender are actually present.
+        if (hasValue(name) && hasValue(gender)) {
+            return yearOfHighestRank(name, gender, yearFilesMatching(fileGlob));
+        }
+        return -1;
+    }
+
+    private int yearOfHighestRank (String name, String gender, LinkedHashMap<Integer, String> yearFiles) {
+        int bestRank = -1;      // tracks the best rank seen so far.
+        int bestRankYear = -1;  // what year did bestRank happen in?
+
+        Integer[] years = yearFiles.keySet().toArray(new Integer[0]);
+        int[] ranks = ranksInYears(yearFiles, name, gender);
+        for (int i = 0; i < ranks.length; i++) {
+            // Compare the current rank to bestRank.  Remember that on the first
+            // ranked year bestRank won't be valid.  And we might have an unranked
+            // name, so check for that as well.
+            int currentRank = ranks[i];
+            if (currentRank != -1) {
+                if (bestRank == -1 || currentRank < bestRank) {  // remember, better means lower rank
+                    bestRank = currentRank;
+                    bestRankYear = years[i];
                 }
             }
         }
@@ -433,21 +1136,77 @@ public class BabyBirths {
      *  If `name` isn't ranked in any of the files, return -1.0.
      */
     public double getAverageRank (String name, String gender) {
-        int totalRank = 0;
-        int ranks = 0;
-        
         // Only bother computing if name and gender are actually present.
         if (hasValue(name) && hasValue(gender)) {
-            DirectoryResource dr = new DirectoryResource();
-            for (File f : dr.selectedFiles()) {
-                int year = fileYear(f);
-                if (year != -1) {
-                    int currentRank = getRank(year, name, gender);
-                    if (currentRank != -1) {
-                        totalRank = totalRank + currentRank;
-                        ranks = ranks + 1;
-                    }
-                }
+            return getAverageRank(name, gender, selectedYearFiles());
+        }
+        return -1.0;
+    }
+
+    /** Determine the average rank held by `name` and `gender` between `firstYear`
+     *  and `lastYear`, without asking the user to pick files.
+     *  
+     *  @param name     The baby name to search for
+     *  @param gender   The gender to use in the search
+     *  @param firstYear    The first year to include
+     *  @param lastYear     The last year to include
+     *  @return the average rank that `name` has within those years.
+     *  If `name` isn't ranked in any of them, return -1.0.
+     *  @throws exception if any year in the range does not have a data file.
+     */
+    public double getAverageRank (String name, String gender, int firstYear, int lastYear) {
+        return getAverageRank(dataSet, name, gender, firstYear, lastYear);
+    }
+
+    /** Same as getAverageRank(name, gender, firstYear, lastYear), but searching data set `data`.
+     *  
+     *  @param data     The data set to use, such as DataSet.DECADE.
+     *  @param name     The baby name to search for
+     *  @param gender   The gender to use in the search
+     *  @param firstYear    The first year to include
+     *  @param lastYear     The last year to include
+     *  @return the average rank that `name` has within those years.
+     *  If `name` isn't ranked in any of them, return -1.0.
+     *  @throws exception if any year in the range does not have a data file.
+     */
+    public double getAverageRank (DataSet data, String name, String gender, int firstYear, int lastYear) {
+        // Only bother computing if name and gender are actually present.
+        if (hasValue(name) && hasValue(gender)) {
+            // A trajectory index over exactly these years already knows the answer.
+            TrajectoryIndex trajectories = trajectoryIndexes.get(trajectoryKey(data, firstYear, lastYear));
+            if (trajectories != null) {
+                return trajectories.averageRank(name, gender);
+            }
+            return getAverageRank(name, gender, yearRangeFiles(data, firstYear, lastYear));
+        }
+        return -1.0;
+    }
+
+    /** Determine the average rank held by `name` and `gender` among the data files
+     *  matching `fileGlob`, without asking the user to pick files.
+     *  
+     *  @param name     The baby name to search for
+     *  @param gender   The gender to use in the search
+     *  @param fileGlob     Which files to include, like "us_babynames_by_year/yob19*.csv"
+     *  @return the average rank that `name` has within those files.
+     *  If `name` isn't ranked in any of them, return -1.0.
+     */
+    public double getAverageRank (String name, String gender, String fileGlob) {
+        // Only bother computing if name and gender are actually present.
+        if (hasValue(name) && hasValue(gender)) {
+            return getAverageRank(name, gender, yearFilesMatching(fileGlob));
+        }
+        return -1.0;
+    }
+
+    private double getAverageRank (String name, String gender, LinkedHashMap<Integer, String> yearFiles) {
+        int totalRank = 0;
+        int ranks = 0;
+
+        for (int currentRank : ranksInYears(yearFiles, name, gender)) {
+            if (currentRank != -1) {
+                totalRank = totalRank + currentRank;
+                ranks = ranks + 1;
             }
         }
 
@@ -466,6 +1225,513 @@ public class BabyBirths {
         useYearData();
     }
 
+    /** Test driver for the year range versions of yearOfHighestRank() and getAverageRank(). */
+    void testYearRanges () {
+        useTestData();
+        System.out.println("Expected year is 2012, got "+yearOfHighestRank("Mason", MALE, 2012, 2014));
+        System.out.println("Expected year is 2013, got "+yearOfHighestRank("Noah", MALE, 2012, 2014));
+        System.out.println("Expected year is 2014, got "+yearOfHighestRank("Noah", MALE, 2014, 2014));
+        System.out.println("Expected year is -1, got "+yearOfHighestRank("Charlie", MALE, 2012, 2014));
+        System.out.println("Expected year is -1, got "+yearOfHighestRank("Mason", MALE, 2014, 2012));
+        System.out.println("Expected year is -1, got "+yearOfHighestRank(null, MALE, 2012, 2014));
+        System.out.println("Expect 3.0, got "+getAverageRank("Mason", MALE, 2012, 2014));
+        System.out.println("Expect 2.666..., got "+getAverageRank("Jacob", MALE, 2012, 2014));
+        System.out.println("Expect 2.0, got "+getAverageRank("Mason", MALE, 2012, 2012));
+        System.out.println("Expect -1.0, got "+getAverageRank("Mason", "", 2012, 2014));
+        System.out.println("Expected year is 2013, got "+yearOfHighestRank("Noah", MALE, "us_babynames_test/yob201*short.csv"));
+        System.out.println("Expect 2.666..., got "+getAverageRank("Jacob", MALE, "us_babynames_test/*.csv"));
+        System.out.println("Expect 4.0, got "+getAverageRank("Jacob", MALE, "us_babynames_test/yob2014*"));
+        useYearData();
+    }
+
+    // Trajectory indexes, built the first time a run of years is charted.  Keyed by data
+    // set and year range, like "YEAR 1880-2014".  Once one exists, average rank and best
+    // year questions over exactly its years are answered from it too.
+    private ConcurrentHashMap<String, TrajectoryIndex> trajectoryIndexes = new ConcurrentHashMap<String, TrajectoryIndex>();
+
+    private String trajectoryKey (DataSet data, int firstYear, int lastYear) {
+        return data + " " + firstYear + "-" + lastYear;
+    }
+
+    // Load `firstYear` through `lastYear` of data set `data`, in parallel, into an array
+    // in year order.
+    private RankIndex[] rankIndexesInYears (DataSet data, int firstYear, int lastYear) {
+        RankIndex[] indexes = new RankIndex[Math.max(0, lastYear - firstYear + 1)];
+        IntStream.range(0, indexes.length).parallel().forEach(i -> {
+            indexes[i] = getRankIndex(data.filename(firstYear + i));
+        });
+        return indexes;
+    }
+
+    // Get the trajectory index for `firstYear` through `lastYear` of data set `data`,
+    // building it if needed.  The year files are loaded in parallel and then indexed in
+    // order, since a TrajectoryIndex takes its years in order.
+    TrajectoryIndex getTrajectoryIndex (DataSet data, int firstYear, int lastYear) {
+        return trajectoryIndexes.computeIfAbsent(trajectoryKey(data, firstYear, lastYear), k -> {
+            RankIndex[] indexes = rankIndexesInYears(data, firstYear, lastYear);
+            TrajectoryIndex trajectories = new TrajectoryIndex();
+            for (int i = 0; i < indexes.length; i++) {
+                trajectories.addYear(firstYear + i, indexes[i]);
+            }
+            return trajectories;
+        });
+    }
+
+    /** Chart `name` and `gender` from `firstYear` through `lastYear`:  its rank, births
+     *  and share of births in every year.  The first question about a range of years
+     *  indexes all of them by name;  after that every name is a single lookup.
+     *  
+     *  @param data     The data set to use, such as DataSet.YEAR.
+     *  @param name     The baby name to chart
+     *  @param gender   The gender to use
+     *  @param firstYear    The first year to chart
+     *  @param lastYear     The last year to chart, inclusive
+     *  @return the trajectory of `name`, with rank -1 in the years it isn't ranked.
+     *  @throws exception if any year in the range does not have a data file.
+     */
+    public NameTrajectory getTrajectory (DataSet data, String name, String gender, int firstYear, int lastYear) {
+        return getTrajectoryIndex(data, firstYear, lastYear).trajectory(name, gender);
+    }
+
+    /** Same as getTrajectory(data, name, gender, firstYear, lastYear), for the default data set. */
+    public NameTrajectory getTrajectory (String name, String gender, int firstYear, int lastYear) {
+        return getTrajectory(dataSet, name, gender, firstYear, lastYear);
+    }
+
+    /** Test driver for getTrajectory(). */
+    void testGetTrajectory () {
+        NameTrajectory t = getTrajectory(DataSet.TEST, "Noah", MALE, 2012, 2014);
+        System.out.println("Expect ranks [4, 1, 1], got "+Arrays.toString(t.getRanks()));
+        System.out.println("Expect counts [6, 12, 7], got "+Arrays.toString(t.getCounts()));
+        System.out.println("Expect share 0.2413... (7 of 29) in 2014, got "+t.getShares()[2]);
+        System.out.println("Expect rank 1 in 2013, got "+t.getRank(2013));
+        t = getTrajectory(DataSet.TEST, "Isabella", FEMALE, 2012, 2014);
+        System.out.println("Expect ranks [3, 4, 4], got "+Arrays.toString(t.getRanks()));
+        t = getTrajectory(DataSet.TEST, "Charlie", MALE, 2012, 2014);
+        System.out.println("Expect ranks [-1, -1, -1], got "+Arrays.toString(t.getRanks()));
+        t = getTrajectory("Jennifer", FEMALE, 1880, 2014);
+        System.out.println("Expect rank 17 in 1994, got "+t.getRank(1994));
+        System.out.println("Expect "+getRank(DataSet.YEAR, 1960, "Jennifer", FEMALE)+" in 1960, got "+t.getRank(1960));
+        System.out.println("Expect 135 years, got "+t.size());
+    }
+
+    /** List the names ranked `fromRank` through `toRank` for `gender` in `year`,
+     *  like "the boys' names ranked 100 to 200 in 1982".
+     *  
+     *  @param data     The data set to use, such as DataSet.YEAR.
+     *  @param year     The year to examine.
+     *  @param gender   The gender to use
+     *  @param fromRank     The first rank wanted, starting at 1
+     *  @param toRank       The last rank wanted, inclusive
+     *  @return name, gender and births for each rank in the range, best first.  Ranks
+     *  that don't exist are left out, so the list may be short or empty.
+     *  @throws exception if `year` does not have a data file.
+     */
+    public List<BabyName> getNamesRanked (DataSet data, int year, String gender, int fromRank, int toRank) {
+        if (hasValue(gender)) {
+            return rangeInFile(data.filename(year), fromRank, toRank, gender);
+        }
+        return new ArrayList<BabyName>();
+    }
+
+    /** Same as getNamesRanked(data, year, gender, fromRank, toRank), for the default data set. */
+    public List<BabyName> getNamesRanked (int year, String gender, int fromRank, int toRank) {
+        return getNamesRanked(dataSet, year, gender, fromRank, toRank);
+    }
+
+    /** List the `k` most popular names for `gender` in `year`, best first. */
+    public List<BabyName> getTopNames (DataSet data, int year, String gender, int k) {
+        return getNamesRanked(data, year, gender, 1, k);
+    }
+
+    /** Same as getTopNames(data, year, gender, k), for the default data set. */
+    public List<BabyName> getTopNames (int year, String gender, int k) {
+        return getTopNames(dataSet, year, gender, k);
+    }
+
+    /** List the `k` most popular names for `gender` from `firstYear` through `lastYear`,
+     *  by births summed over those years, like "the top 50 girls' names of the 1990s".
+     *  Only as much of each year as it takes to be sure of the answer is looked at;  see
+     *  TopNames.  Always answered from memory, even with useDiskLookups(true).
+     *  
+     *  @param data     The data set to use, such as DataSet.YEAR.
+     *  @param gender   The gender to use
+     *  @param k        How many names to return
+     *  @param firstYear    The first year to include
+     *  @param lastYear     The last year to include
+     *  @return up to `k` names, best first, each with its births summed over the years.
+     *  Ties are broken alphabetically.
+     *  @throws exception if any year in the range does not have a data file.
+     */
+    public List<BabyName> getTopNames (DataSet data, String gender, int k, int firstYear, int lastYear) {
+        if (hasValue(gender)) {
+            return TopNames.inYears(rankIndexesInYears(data, firstYear, lastYear), gender, k);
+        }
+        return new ArrayList<BabyName>();
+    }
+
+    /** Same as getTopNames(data, gender, k, firstYear, lastYear), for the default data set. */
+    public List<BabyName> getTopNames (String gender, int k, int firstYear, int lastYear) {
+        return getTopNames(dataSet, gender, k, firstYear, lastYear);
+    }
+
+    /** Add up `firstYear` through `lastYear` of data set `data` into one data file, ranked
+     *  the same way as a by-year file, and save it as `filename`.  The years are read and
+     *  totalled in parallel.  See Rollup.
+     *  
+     *  @param data     The data set to total, such as DataSet.YEAR.
+     *  @param firstYear    The first year to include
+     *  @param lastYear     The last year to include
+     *  @param filename     Where to save the result.  Its directory is created if needed.
+     *  @throws exception if any year in the range does not have a data file, or if
+     *  `filename` can't be written.
+     */
+    public void writeRollup (DataSet data, int firstYear, int lastYear, String filename) {
+        saveRollup(Rollup.combine(rankIndexesInYears(data, firstYear, lastYear)), filename);
+    }
+
+    private void saveRollup (RankIndex rollup, String filename) {
+        Rollup.write(rollup, filename);
+        // It's already parsed, so save reading it back.
+        rankIndexes.put(filename, rollup);
+        blockIndexes.remove(filename);
+    }
+
+    /** Make a DataSet.DECADE_ROLLUP file for every decade the by-year files reach.  Like
+     *  the by-decade files, each one totals every year from the first by-year file
+     *  through the end of its decade, so the 2010s file covers 1880-2014 when the data
+     *  ends in 2014.  Each year is only read and totalled once.  Each file is saved
+     *  with the list of by-year files it totals (see Rollup), so it can be told later
+     *  whether it is still current.
+     *  
+     *  @throws ResourceException if a file can't be read or written.
+     */
+    public synchronized void writeDecadeRollups () {
+        makeDecadeRollups(Integer.MAX_VALUE, true);
+    }
+
+    // Decade rollups that couldn't be saved (say the directory is read-only), by decade,
+    // with the Rollup.sources() of the by-year files each was totalled from.
+    private HashMap<Integer, RankIndex> unsavedRollups = new HashMap<Integer, RankIndex>();
+    private HashMap<Integer, String> unsavedRollupSources = new HashMap<Integer, String>();
+
+    // Total the DECADE_ROLLUP for every decade the by-year files reach, up to `lastDecade`,
+    // in one pass over the years, and save each.  If one can't be saved it is kept in
+    // memory instead, unless `mustSave`, when the ResourceException is thrown.
+    private void makeDecadeRollups (int lastDecade, boolean mustSave) {
+        LinkedHashMap<Integer, String> yearFiles = yearFilesMatching(DataSet.YEAR.glob());
+        if (yearFiles.isEmpty()) {
+            return;
+        }
+        int firstYear = Collections.min(yearFiles.keySet());
+        int lastYear = Collections.max(yearFiles.keySet());
+        Rollup runningTotal = new Rollup();
+        for (int decade = firstYear - firstYear % 10; decade <= Math.min(lastYear, lastDecade); decade = decade + 10) {
+            runningTotal.addYears(rankIndexesInYears(DataSet.YEAR, Math.max(decade, firstYear), Math.min(decade + 9, lastYear)));
+            RankIndex rollup = runningTotal.toRankIndex();
+            String filename = DataSet.DECADE_ROLLUP.filename(decade);
+            String sources = decadeRollupSources(yearFiles, decade);
+            try {
+                // Without its sources the file is never trusted, so a failure part way
+                // through leaves it to be made again.
+                Rollup.delete(filename);
+                saveRollup(rollup, filename);
+                Rollup.writeSources(filename, sources);
+                unsavedRollups.remove(decade);
+                unsavedRollupSources.remove(decade);
+            } catch (ResourceException e) {
+                if (mustSave) {
+                    throw e;
+                }
+                unsavedRollups.put(decade, rollup);
+                unsavedRollupSources.put(decade, sources);
+            }
+        }
+    }
+
+    // The Rollup.sources() of the by-year files the DECADE_ROLLUP for `decade` totals.
+    private String decadeRollupSources (LinkedHashMap<Integer, String> yearFiles, int decade) {
+        List<String> filenames = new ArrayList<String>();
+        for (Integer year : yearFiles.keySet()) {
+            if (year <= decade + 9) {
+                filenames.add(yearFiles.get(year));
+            }
+        }
+        return Rollup.sources(filenames);
+    }
+
+    // Make sure the DECADE_ROLLUP for `decade` totals the by-year files as they are now,
+    // if the by-year files reach that decade.  If its file was made from other files, or
+    // other versions of them, all the rollups through `decade` are made again, since
+    // that reads each year just once.  Returns null if the file is current, or the
+    // rollup itself if it could only be kept in memory.  Synchronized so threads asking
+    // together don't each make them.
+    private synchronized RankIndex makeDecadeRollup (int decade) {
+        LinkedHashMap<Integer, String> yearFiles = yearFilesMatching(DataSet.YEAR.glob());
+        Set<Integer> years = yearFiles.keySet();
+        if (decade % 10 != 0 || years.isEmpty() || decade + 9 < Collections.min(years) || decade > Collections.max(years)) {
+            return null;
+        }
+        String sources = decadeRollupSources(yearFiles, decade);
+        String filename = DataSet.DECADE_ROLLUP.filename(decade);
+        if (sources.equals(unsavedRollupSources.get(decade))) {
+            return unsavedRollups.get(decade);
+        }
+        if (! sources.equals(Rollup.readSources(filename))) {
+            makeDecadeRollups(decade, false);
+        }
+        return unsavedRollups.get(decade);
+    }
+
+    // Throw away the DECADE_ROLLUPs that total `year`, which are those for its decade
+    // and every later one, so they are made again when next needed.
+    private void dropDecadeRollups (int year) {
+        unsavedRollups.keySet().removeIf(decade -> decade + 9 >= year);
+        unsavedRollupSources.keySet().removeIf(decade -> decade + 9 >= year);
+        if (! new File(DataSet.DECADE_ROLLUP.filename(year)).getAbsoluteFile().getParentFile().isDirectory()) {
+            return;
+        }
+        LinkedHashMap<Integer, String> rollups = yearFilesMatching(DataSet.DECADE_ROLLUP.glob());
+        for (Integer decade : rollups.keySet()) {
+            if (decade + 9 >= year) {
+                Rollup.delete(rollups.get(decade));
+            }
+        }
+    }
+
+    /** Test driver for writeRollup() and writeDecadeRollups(). */
+    void testRollups () {
+        String testRollup = "us_babynames_test/yob2012-2014short.csv";
+        writeRollup(DataSet.TEST, 2012, 2014, testRollup);
+        RankIndex fromFile = loadRankIndex(testRollup);
+        System.out.println("Expect [Noah,M,25, Jacob,M,21, Mason,M,21] (tie in name order), got "+fromFile.getRange(1, 3, MALE));
+        System.out.println("Expect the same order as getTopNames(), got "+getTopNames(DataSet.TEST, MALE, 5, 2012, 2014));
+        System.out.println("Expect 29+44+33 = 106 boys, got "+fromFile.totalBirths(MALE));
+        new File(testRollup).delete();
+
+        RankIndex one = Rollup.combine(new RankIndex[] { getRankIndex(DataSet.YEAR.filename(2014)) });
+        int same = 0;
+        for (String gender : one.genders()) {
+            for (BabyName b : one.getRange(1, one.size(gender), gender)) {
+                if (getRank(DataSet.YEAR, 2014, b.getName(), gender) == one.getRank(b.getName(), gender)) same = same + 1;
+            }
+        }
+        System.out.println("Expect all 33044 ranks of 2014 unchanged by a one year rollup, got "+same);
+
+        writeDecadeRollups();
+        RankIndex byDecade = getRankIndex(DataSet.DECADE.filename(1990));
+        RankIndex rollup = getRankIndex(DataSet.DECADE_ROLLUP.filename(1990));
+        List<BabyName> girls = byDecade.getRange(1, byDecade.size(FEMALE), FEMALE);
+        int sameCount = 0;
+        int untied = 0;
+        int sameRank = 0;
+        for (int i = 0; i < girls.size(); i++) {
+            BabyName b = girls.get(i);
+            int rank = rollup.getRank(b.getName(), FEMALE);
+            if (rank != -1 && rollup.getCount(rank, FEMALE) == b.getCount()) sameCount = sameCount + 1;
+            // Ties are ordered differently, but a count no one else has must get the same rank.
+            boolean tied = (i > 0 && girls.get(i - 1).getCount() == b.getCount()) ||
+                (i + 1 < girls.size() && girls.get(i + 1).getCount() == b.getCount());
+            if (! tied) {
+                untied = untied + 1;
+                if (rank == i + 1) sameRank = sameRank + 1;
+            }
+        }
+        System.out.println("Expect all "+girls.size()+" girls' counts in the 1990s by-decade file to match the rollup, got "+sameCount);
+        System.out.println("Expect all "+untied+" untied girls' ranks to match, got "+sameRank);
+        System.out.println("Expect:  Jennifer born in 1994 would be Sandra if she was born in the 2000s.");
+        whatIsNameInDecade("Jennifer", 1994, 2000, FEMALE);
+        System.out.println("Expect "+getName(DataSet.DECADE_ROLLUP, 2000, 17, FEMALE)+" from the 2000s rollup, which has no ties that high.");
+        System.out.println("Expect the 2010s, which have no by-decade file, to work:");
+        whatIsNameInDecade("Jennifer", 1994, 2010, FEMALE);
+
+        // A rollup whose saved sources don't match the by-year files is made again.
+        String rollup2010s = DataSet.DECADE_ROLLUP.filename(2010);
+        String sources = Rollup.readSources(rollup2010s);
+        Rollup.writeSources(rollup2010s, "stale\n");
+        makeDecadeRollup(2010);
+        System.out.println("Expect the 2010s rollup to be made again from stale sources, got "+
+            (sources.equals(Rollup.readSources(rollup2010s)) ? "it was" : "it wasn't"));
+
+        // Adding 2015 (a copy of 2014) drops the 2010s rollup, and the next one made totals it.
+        File copy2015 = new File(DataSet.YEAR.filename(2015));
+        try {
+            Files.copy(new File(DataSet.YEAR.filename(2014)).toPath(), copy2015.toPath());
+        } catch (IOException e) {
+            throw new ResourceException("BabyBirths: cannot copy 2014 to 2015: " + e.getMessage());
+        }
+        int girlsBefore = getRankIndex(rollup2010s).totalBirths(FEMALE);
+        addYear(DataSet.YEAR, 2015);
+        System.out.println("Expect the 2010s rollup gone after adding 2015, got "+(new File(rollup2010s).exists() ? "it's there" : "it's gone"));
+        System.out.println("Expect the 2000s rollup kept, got "+(new File(DataSet.DECADE_ROLLUP.filename(2000)).exists() ? "it's there" : "it's gone"));
+        makeDecadeRollup(2010);
+        System.out.println("Expect "+(girlsBefore + getRankIndex(DataSet.YEAR.filename(2014)).totalBirths(FEMALE))+
+            " girls in the 2010s with 2015, got "+getRankIndex(rollup2010s).totalBirths(FEMALE));
+        copy2015.delete();
+        new File(copy2015.getPath() + ".idx").delete();
+
+        // A rollup that can't be saved, here because a directory is in its way, is kept in memory.
+        Rollup.delete(rollup2010s);
+        File blocker = new File(rollup2010s, "blocker");
+        blocker.mkdirs();
+        BabyBirths readOnly = new BabyBirths();
+        System.out.println("Expect Jennifer born in 1994 would be Anna in the 2010s without saving the rollup:");
+        readOnly.whatIsNameInDecade("Jennifer", 1994, 2010, FEMALE);
+        System.out.println("Expect the 2010s rollup kept in memory, got "+readOnly.unsavedRollups.keySet());
+        blocker.delete();
+        blocker.getParentFile().delete();
+        makeDecadeRollup(2010);
+    }
+
+    /** Test driver for getNamesRanked() and both kinds of getTopNames(). */
+    void testTopNames () {
+        useTestData();
+        System.out.println("Expect [Mason,M,6, Jacob,M,5], got "+getNamesRanked(2014, MALE, 3, 4));
+        System.out.println("Expect [Ava,F,2], got "+getNamesRanked(2014, FEMALE, 5, 9));
+        System.out.println("Expect [], got "+getNamesRanked(2014, FEMALE, 6, 9));
+        System.out.println("Expect [Emma,F,5, Olivia,F,4], got "+getTopNames(2014, FEMALE, 2));
+        System.out.println("Expect "+bruteForceTopNames(DataSet.TEST, MALE, 3, 2012, 2014)+", got "+getTopNames(MALE, 3, 2012, 2014));
+        System.out.println("Expect [], got "+getTopNames(MALE, 0, 2012, 2014));
+        useYearData();
+        System.out.println("Expect "+getName(1982, 100, MALE)+" first, got "+getNamesRanked(1982, MALE, 100, 200).get(0));
+        System.out.println("Expect 101 names, got "+getNamesRanked(1982, MALE, 100, 200).size());
+        List<BabyName> top50 = getTopNames(FEMALE, 50, 1990, 1999);
+        System.out.println("Expect Jessica,F,303060 first in the 1990s, got "+top50.get(0));
+        System.out.println("Expect true for the 1990s top 50 matching a full count, got "+
+            top50.toString().equals(bruteForceTopNames(DataSet.YEAR, FEMALE, 50, 1990, 1999).toString()));
+        String fromMemory = getNamesRanked(1982, MALE, 100, 200).toString();
+        useDiskLookups(true);
+        System.out.println("Expect true for the same ranks from disk, got "+fromMemory.equals(getNamesRanked(1982, MALE, 100, 200).toString()));
+        useDiskLookups(false);
+    }
+
+    // Total every name in every year, then sort:  the slow, obviously right answer to
+    // check TopNames against.
+    private List<BabyName> bruteForceTopNames (DataSet data, String gender, int k, int firstYear, int lastYear) {
+        HashMap<String, Integer> totals = new HashMap<String, Integer>();
+        for (RankIndex year : rankIndexesInYears(data, firstYear, lastYear)) {
+            for (BabyName b : year.getRange(1, year.size(gender), gender)) {
+                totals.merge(b.getName(), b.getCount(), Integer::sum);
+            }
+        }
+        List<BabyName> all = new ArrayList<BabyName>();
+        for (String name : totals.keySet()) {
+            all.add(new BabyName(name, gender, totals.get(name)));
+        }
+        all.sort((a, b) -> (a.getCount() != b.getCount()) ? b.getCount() - a.getCount() : a.getName().compareTo(b.getName()));
+        return all.subList(0, Math.min(k, all.size()));
+    }
+
+    // Name search indexes, built the first time a run of years is searched.  Keyed the
+    // same way as the trajectory indexes.
+    private ConcurrentHashMap<String, NameSearch> nameSearches = new ConcurrentHashMap<String, NameSearch>();
+
+    // Get the name search index for `firstYear` through `lastYear` of data set `data`,
+    // building it if needed.
+    NameSearch getNameSearch (DataSet data, int firstYear, int lastYear) {
+        return nameSearches.computeIfAbsent(trajectoryKey(data, firstYear, lastYear),
+            k -> new NameSearch(rankIndexesInYears(data, firstYear, lastYear)));
+    }
+
+    /** Find the names starting with `prefix`, ignoring case, in `firstYear` through
+     *  `lastYear`, like "girls' names starting with Jen since 1950".  The first search
+     *  of a range of years indexes all its names;  after that a search is a couple of
+     *  binary searches.  See NameSearch.
+     *  
+     *  @param data     The data set to use, such as DataSet.YEAR.
+     *  @param prefix   The start of the name.  "" matches every name.
+     *  @param gender   The gender to use, or null or "" for every gender.
+     *  @param k        How many names to return
+     *  @param firstYear    The first year to include
+     *  @param lastYear     The last year to include
+     *  @return up to `k` names, most births first, each with its births summed over the
+     *  years.  Ties are broken alphabetically.
+     *  @throws exception if any year in the range does not have a data file.
+     */
+    public List<BabyName> findNamesStartingWith (DataSet data, String prefix, String gender, int k, int firstYear, int lastYear) {
+        return getNameSearch(data, firstYear, lastYear).startingWith(prefix, gender, k);
+    }
+
+    /** Same as findNamesStartingWith(data, prefix, gender, k, firstYear, lastYear), for the default data set. */
+    public List<BabyName> findNamesStartingWith (String prefix, String gender, int k, int firstYear, int lastYear) {
+        return findNamesStartingWith(dataSet, prefix, gender, k, firstYear, lastYear);
+    }
+
+    /** Find the names within `maxEdits` typing mistakes of `name`, ignoring case, in
+     *  `firstYear` through `lastYear`.  A mistake is one letter added, left out or
+     *  changed, so "Jenifer" is 1 from "Jennifer".  See NameSearch.
+     *  
+     *  @param data     The data set to use, such as DataSet.YEAR.
+     *  @param name     The name as typed
+     *  @param maxEdits     How many mistakes to allow.  1 or 2 is usually plenty.
+     *  @param gender   The gender to use, or null or "" for every gender.
+     *  @param k        How many names to return
+     *  @param firstYear    The first year to include
+     *  @param lastYear     The last year to include
+     *  @return up to `k` names, most births first, each with its births summed over the
+     *  years.  Ties are broken alphabetically.
+     *  @throws exception if any year in the range does not have a data file.
+     */
+    public List<BabyName> findNamesLike (DataSet data, String name, int maxEdits, String gender, int k, int firstYear, int lastYear) {
+        return getNameSearch(data, firstYear, lastYear).like(name, maxEdits, gender, k);
+    }
+
+    /** Same as findNamesLike(data, name, maxEdits, gender, k, firstYear, lastYear), for the default data set. */
+    public List<BabyName> findNamesLike (String name, int maxEdits, String gender, int k, int firstYear, int lastYear) {
+        return findNamesLike(dataSet, name, maxEdits, gender, k, firstYear, lastYear);
+    }
+
+    /** Test driver for findNamesStartingWith() and findNamesLike(). */
+    void testNameSearch () {
+        System.out.println("Expect [Jacob,M,21], got "+findNamesStartingWith(DataSet.TEST, "Ja", MALE, 5, 2012, 2014));
+        System.out.println("Expect the same for \"jA\", got "+findNamesStartingWith(DataSet.TEST, "jA", MALE, 5, 2012, 2014));
+        System.out.println("Expect "+getTopNames(DataSet.TEST, MALE, 3, 2012, 2014)+" for \"\", got "+
+            findNamesStartingWith(DataSet.TEST, "", MALE, 3, 2012, 2014));
+        System.out.println("Expect [], got "+findNamesStartingWith(DataSet.TEST, "Zz", null, 5, 2012, 2014));
+        System.out.println("Expect [], got "+findNamesStartingWith(DataSet.TEST, "Ja", "X", 5, 2012, 2014));
+        System.out.println("Expect [Jacob,M,21], got "+findNamesLike(DataSet.TEST, "Jakob", 1, null, 5, 2012, 2014));
+        System.out.println("Expect [], got "+findNamesLike(DataSet.TEST, "Noha", 1, MALE, 5, 2012, 2014));
+        System.out.println("Expect [Noah,M,25], got "+findNamesLike(DataSet.TEST, "Noha", 2, MALE, 5, 2012, 2014));
+
+        // Check the full corpus against looking at every name.
+        int firstYear = 1950;
+        int lastYear = 2014;
+        System.out.println("Expect Jennifer,F first, got "+findNamesStartingWith("jenn", FEMALE, 1, firstYear, lastYear));
+        System.out.println("Expect "+bruteForceSearch(DataSet.YEAR, "Mar", -1, FEMALE, 20, firstYear, lastYear)+
+            ",\n   got "+findNamesStartingWith("Mar", FEMALE, 20, firstYear, lastYear));
+        System.out.println("Expect "+bruteForceSearch(DataSet.YEAR, "Kristofer", 2, null, 20, firstYear, lastYear)+
+            ",\n   got "+findNamesLike("Kristofer", 2, null, 20, firstYear, lastYear));
+        System.out.println("Expect "+bruteForceSearch(DataSet.YEAR, "Aubree", 1, FEMALE, 1000, firstYear, lastYear).size()+
+            " names, got "+findNamesLike("Aubree", 1, FEMALE, 1000, firstYear, lastYear).size());
+    }
+
+    // Total every name in every year and try every one of them:  the slow, obviously right
+    // answer to check NameSearch against.  `maxEdits` -1 means a prefix search.
+    private List<BabyName> bruteForceSearch (DataSet data, String text, int maxEdits, String gender, int k, int firstYear, int lastYear) {
+        String lower = text.toLowerCase();
+        LinkedHashMap<String, Integer> totals = new LinkedHashMap<String, Integer>();
+        for (RankIndex year : rankIndexesInYears(data, firstYear, lastYear)) {
+            for (String g : year.genders()) {
+                if (gender == null || g.equals(gender)) {
+                    for (BabyName b : year.getRange(1, year.size(g), g)) {
+                        String name = b.getName().toLowerCase();
+                        if ((maxEdits < 0) ? name.startsWith(lower) : NameSearch.editDistance(name, lower) <= maxEdits) {
+                            totals.merge(b.getName() + "," + g, b.getCount(), Integer::sum);
+                        }
+                    }
+                }
+            }
+        }
+        List<BabyName> all = new ArrayList<BabyName>();
+        for (String key : totals.keySet()) {
+            String[] parts = key.split(",");
+            all.add(new BabyName(parts[0], parts[1], totals.get(key)));
+        }
+        all.sort((a, b) -> (a.getCount() != b.getCount()) ? b.getCount() - a.getCount()
+            : a.getName().toLowerCase().compareTo(b.getName().toLowerCase()));
+        return all.subList(0, Math.min(k, all.size()));
+    }
+
     /** Given a `name` and `gender` in some `year`, determine how many babies were
      *  born with a higher ranked name (meaning lower rank number) than `name`.
      *  
@@ -477,22 +1743,30 @@ public class BabyBirths {
      *  @throws exception if `year` does not have a data file.
      */
     public int getTotalBirthsRankedHigher (int year, String name, String gender) {
+        return getTotalBirthsRankedHigher(dataSet, year, name, gender);
+    }
+
+    /** Same as getTotalBirthsRankedHigher(year, name, gender), but for `year` in data set `data`.
+     *
+     *  @param data     The data set to use, such as DataSet.DECADE.
+     *  @param year     The year to search for `name` to get its rank
+     *  @param name     The baby name to search for
+     *  @param gender   The gender to use in the search
+     *  @return the total number of births of the same gender that have names
+     *  more popular than `name`.  If `name` not found, return -1.
+     *  @throws exception if `year` does not have a data file.
+     */
+    public int getTotalBirthsRankedHigher (DataSet data, int year, String name, String gender) {
         int total = -1;
         
         // Only bother searching if name and gender are actually present.
         if (hasValue(name) && hasValue(gender)) {
             // First we need to know what rank `name` has, and it must be valid.
-            int rank = getRank(year, name, gender);
+            int rank = getRank(data, year, name, gender);
             if (rank != -1) {
-                // We know we have at least 1 entry so total cannot be -1.
-                // Reset it, then go sum the births up to but not including `rank`.
-                total = 0;
-                FileResource fr = new FileResource(getFilename(year));
-                CSVParser parser = filterByGender(fr, gender).getCSVParser(false);
-                for (CSVRecord rec : parser) {
-                    if (parser.getRecordNumber() >= rank) break;
-                    total = total + getCount(rec);
-                }
+                // The index keeps a running total of the births above every rank,
+                // so there's no need to go back and sum them up.
+                total = birthsRankedHigherInFile(data.filename(year), rank, gender);
             }
         }
 
@@ -519,9 +1793,9 @@ public class BabyBirths {
     /** Output/results used to answer quiz questions. */
     void quiz () {
         System.out.println("question 1 number of girls NAMES, not births!, in 1900");
-        totalBirths(new FileResource(byYearFilename(1900)));
+        totalBirths(new FileResource(DataSet.YEAR.filename(1900)));
         System.out.println("question 2 number of boys NAMES, not births!, in 1905");
-        totalBirths(new FileResource(byYearFilename(1905)));
+        totalBirths(new FileResource(DataSet.YEAR.filename(1905)));
         System.out.println("question 3 Emily rank 1960: "+getRank(1960, "Emily", FEMALE));
         System.out.println("question 4 Frank rank 1971: "+getRank(1971, "Frank", MALE));
         System.out.println("question 5 #350 girls name 1980: "+getName(1980, 350, FEMALE));
@@ -530,10 +1804,10 @@ public class BabyBirths {
         whatIsNameInYear("Susan", 1972, 2014, FEMALE);
         System.out.println("question 8 Owen from 1974 is who in 2014");
         whatIsNameInYear("Owen", 1974, 2014, MALE);
-        System.out.println("question 9 highest rank for Genevieve 1880-2014: "+yearOfHighestRank("Genevieve", FEMALE));
-        System.out.println("question 10 highest rank for Mich 1880-2014: "+yearOfHighestRank("Mich", MALE));
-        System.out.println("question 11 avg rank Susan 1880-2014: "+getAverageRank("Susan", FEMALE));
-        System.out.println("question 12 avg rank Robert 1880-2014: "+getAverageRank("Robert", MALE));
+        System.out.println("question 9 highest rank for Genevieve 1880-2014: "+yearOfHighestRank("Genevieve", FEMALE, 1880, 2014));
+        System.out.println("question 10 highest rank for Mich 1880-2014: "+yearOfHighestRank("Mich", MALE, 1880, 2014));
+        System.out.println("question 11 avg rank Susan 1880-2014: "+getAverageRank("Susan", FEMALE, 1880, 2014));
+        System.out.println("question 12 avg rank Robert 1880-2014: "+getAverageRank("Robert", MALE, 1880, 2014));
         System.out.println("question 13 total births above Emily 1990: "+getTotalBirthsRankedHigher(1990, "Emily", FEMALE));
         System.out.println("question 14 total births above Drew 1990: "+getTotalBirthsRankedHigher(1990, "Drew", MALE));
     }
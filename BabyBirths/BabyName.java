@@ -0,0 +1,35 @@
+/**
+ * One row of a baby name data file, already converted to its proper types.
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class BabyName {
+    private String name;
+    private String gender;
+    private int count;
+
+    /** Create a row.
+     *
+     *  @param name     the baby name
+     *  @param gender   the gender, "M" or "F"
+     *  @param count    the number of babies born with `name`, or -1 if it wasn't a number
+     */
+    public BabyName (String name, String gender, int count) {
+        this.name = name;
+        this.gender = gender;
+        this.count = count;
+    }
+
+    public String getName () { return name; }
+
+    public String getGender () { return gender; }
+
+    public int getCount () { return count; }
+
+    /** @return the row the way it appears in a data file, "name,gender,count". */
+    public String toString () {
+        return name + "," + gender + "," + count;
+    }
+
+}  // BabyName
@@ -0,0 +1,247 @@
+import edu.duke.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Answer a whole file of baby name questions at once, with no dialogs, so the
+ * questions can be run in batch or on a machine without a display.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * The query file has one question per line:
+ * <pre>
+ *   name,gender,op
+ *   name,gender,op,year
+ * </pre>
+ * where op is one of
+ * <ul>
+ * <li>best:  the year `name` had its highest rank (like `yearOfHighestRank()`)</li>
+ * <li>average:  the average rank of `name` (like `getAverageRank()`)</li>
+ * <li>rank:  the rank of `name` in `year` (like `getRank()`)</li>
+ * <li>higher:  the births ranked higher than `name` in `year` (like `getTotalBirthsRankedHigher()`)</li>
+ * </ul>
+ * best and average cover every data file being scanned.  rank and higher look only
+ * at their own year, which is added to the scan if it isn't already in it.  By year
+ * range, that is the year's by-year file.  With a file glob, that year's file has to
+ * be in the same directory and named the same way as the files the glob matched,
+ * like yob2014short.csv next to yob2012short.csv.  Either way, if there is no such
+ * file the answer is NOT COVERED.  Blank lines and lines starting with # are
+ * ignored.
+ * <p>
+ * Every question is answered in the same pass:  each data file is looked at once
+ * and all the questions that need it are answered from it together.  Each answer
+ * is printed as the query line followed by ",answer".  Lines that can't be
+ * understood get ",BAD QUERY".
+ */
+public class BabyNameBatch {
+
+    // One parsed line of the query file.
+    private class Query {
+        String name;
+        String gender;
+        String op;
+        int year = -1;      // only used by rank and higher
+    }
+
+    private BabyBirths babyBirths = new BabyBirths();
+
+    /** Answer every question in `queryFilename` using the by-year data from
+     *  `firstYear` through `lastYear`.
+     *
+     *  @param queryFilename    the file of questions
+     *  @param firstYear    the first year to scan
+     *  @param lastYear     the last year to scan, inclusive
+     *  @return one answer line per query line, in the same order.
+     */
+    public List<String> run (String queryFilename, int firstYear, int lastYear) {
+        LinkedHashMap<Integer, String> yearFiles = new LinkedHashMap<Integer, String>();
+        for (int year = firstYear; year <= lastYear; year++) {
+            yearFiles.put(year, babyBirths.getFilename(year));
+        }
+        return run(queryFilename, yearFiles, year -> {
+            String filename = babyBirths.getFilename(year);
+            return new File(filename).isFile() ? filename : null;
+        });
+    }
+
+    /** Answer every question in `queryFilename` using the data files matching
+     *  `fileGlob`, such as "us_babynames_by_year/yob19*.csv".
+     *
+     *  @param queryFilename    the file of questions
+     *  @param fileGlob     the data files to scan
+     *  @return one answer line per query line, in the same order.
+     */
+    public List<String> run (String queryFilename, String fileGlob) {
+        LinkedHashMap<Integer, String> yearFiles = babyBirths.yearFilesMatching(fileGlob);
+        return run(queryFilename, yearFiles, year -> sameKindOfFile(yearFiles, year));
+    }
+
+    // The file for `year` next to the files in `yearFiles` and named like them, or null if
+    // there isn't one.  Names are alike apart from the year, like yob2012short.csv.
+    private String sameKindOfFile (LinkedHashMap<Integer, String> yearFiles, int year) {
+        for (Integer matched : yearFiles.keySet()) {
+            String filename = yearFiles.get(matched);
+            int slash = filename.lastIndexOf('/');
+            int at = filename.toLowerCase().lastIndexOf("yob" + matched);
+            if (at > slash) {
+                String candidate = filename.substring(0, at + 3) + year + filename.substring(at + 7);
+                return new File(candidate).isFile() ? candidate : null;
+            }
+        }
+        return null;
+    }
+
+    // `extraFile` finds the file for a year a rank or higher question needs that isn't
+    // in `yearFiles`, or returns null if no file covers it.
+    private List<String> run (String queryFilename, LinkedHashMap<Integer, String> yearFiles, IntFunction<String> extraFile) {
+        List<String> lines = new ArrayList<String>();
+        List<Query> queries = new ArrayList<Query>();
+        for (String line : new FileResource(queryFilename).lines()) {
+            line = line.trim();
+            if (! line.isEmpty() && ! line.startsWith("#")) {
+                lines.add(line);
+                queries.add(parse(line));
+            }
+        }
+
+        // Questions about one year need that year's file even if it isn't in the scan.
+        // Those extra files go after the scanned ones and don't count toward best or average.
+        int scanned = yearFiles.size();
+        LinkedHashMap<Integer, String> allFiles = new LinkedHashMap<Integer, String>(yearFiles);
+        for (Query q : queries) {
+            if (q != null && q.year != -1 && ! allFiles.containsKey(q.year)) {
+                String filename = extraFile.apply(q.year);
+                if (filename != null) {
+                    allFiles.put(q.year, filename);
+                }
+            }
+        }
+        Integer[] years = allFiles.keySet().toArray(new Integer[0]);
+        String[] filenames = allFiles.values().toArray(new String[0]);
+
+        // ranks[file][query] is the rank of the query's name in that file.  Files are
+        // independent so they are scanned in parallel, each filling in its own row.
+        int[][] ranks = new int[filenames.length][];
+        int[][] higher = new int[filenames.length][];
+        IntStream.range(0, filenames.length).parallel().forEach(f -> {
+            RankIndex index = babyBirths.getRankIndex(filenames[f]);
+            ranks[f] = new int[queries.size()];
+            higher[f] = new int[queries.size()];
+            for (int i = 0; i < queries.size(); i++) {
+                Query q = queries.get(i);
+                if (q != null && (q.year == -1 ? f < scanned : q.year == years[f])) {
+                    ranks[f][i] = index.getRank(q.name, q.gender);
+                    higher[f][i] = (ranks[f][i] == -1) ? -1 : index.getBirthsRankedHigher(ranks[f][i], q.gender);
+                }
+            }
+        });
+
+        // Now put each query's answer together from its files, in file order.
+        List<String> answers = new ArrayList<String>();
+        for (int i = 0; i < queries.size(); i++) {
+            Query q = queries.get(i);
+            answers.add(lines.get(i) + "," + ((q == null) ? "BAD QUERY" : answer(q, i, years, scanned, ranks, higher)));
+        }
+        return answers;
+    }
+
+    // Turn a query line into a Query, or null if it doesn't make sense.
+    private Query parse (String line) {
+        String[] fields = line.split(",");
+        if (fields.length < 3 || fields.length > 4) {
+            return null;
+        }
+        Query q = new Query();
+        q.name = fields[0].trim();
+        q.gender = fields[1].trim();
+        q.op = fields[2].trim();
+        boolean needsYear = q.op.equals("rank") || q.op.equals("higher");
+        boolean wholeScan = q.op.equals("best") || q.op.equals("average");
+        if (needsYear && fields.length == 4) {
+            try {
+                q.year = Integer.parseInt(fields[3].trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        } else if (! (wholeScan && fields.length == 3)) {
+            return null;
+        }
+        return q;
+    }
+
+    private String answer (Query q, int i, Integer[] years, int scanned, int[][] ranks, int[][] higher) {
+        if (q.op.equals("rank") || q.op.equals("higher")) {
+            for (int f = 0; f < years.length; f++) {
+                if (years[f] == q.year) {
+                    return String.valueOf(q.op.equals("rank") ? ranks[f][i] : higher[f][i]);
+                }
+            }
+            return "NOT COVERED";
+        }
+
+        int bestRank = -1;
+        int bestRankYear = -1;
+        int totalRank = 0;
+        int ranked = 0;
+        for (int f = 0; f < scanned; f++) {
+            int rank = ranks[f][i];
+            if (rank != -1) {
+                if (bestRank == -1 || rank < bestRank) {
+                    bestRank = rank;
+                    bestRankYear = years[f];
+                }
+                totalRank = totalRank + rank;
+                ranked = ranked + 1;
+            }
+        }
+        if (q.op.equals("best")) {
+            return String.valueOf(bestRankYear);
+        } else {
+            return String.valueOf((ranked == 0) ? -1.0 : ((double) totalRank) / ranked);
+        }
+    }
+
+    /** Run a query file from the command line and print the answers.
+     *
+     *  @param args     queryFilename firstYear lastYear, or queryFilename fileGlob
+     */
+    public static void main (String[] args) {
+        List<String> answers;
+        if (args.length == 3) {
+            answers = new BabyNameBatch().run(args[0], Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        } else if (args.length == 2) {
+            answers = new BabyNameBatch().run(args[0], args[1]);
+        } else {
+            System.err.println("usage: BabyNameBatch queryFile firstYear lastYear");
+            System.err.println("   or: BabyNameBatch queryFile fileGlob");
+            return;
+        }
+        for (String answer : answers) {
+            System.out.println(answer);
+        }
+    }
+
+    /** Test driver for run(). */
+    void testRun () {
+        System.out.println("Expect Mason,M,best,2012 / Noah,M,best,2013 / Jacob,M,average,2.666... / Mason,M,rank,2012,2");
+        System.out.println("  Ethan,M,higher,2012,15 / Charlie,F,best,-1 / Mason,M,sideways,BAD QUERY / Noah,M,rank,2014,1");
+        System.out.println("  Mason,M,rank,1999,NOT COVERED / Mason,M,rank,3000,NOT COVERED");
+        for (String answer : run("us_babynames_test/queries-short.txt", "us_babynames_test/yob201*short.csv")) {
+            System.out.println("  " + answer);
+        }
+        System.out.println("Expect the same but Jacob,M,average,2.0 over only 2012 and 2013, and Noah 2014 read from yob2014short.csv");
+        for (String answer : run("us_babynames_test/queries-short.txt", "us_babynames_test/yob201[23]short.csv")) {
+            System.out.println("  " + answer);
+        }
+        System.out.println("Expect Mason,M,rank,3000,NOT COVERED over 1990-1991 by year too, not an exception");
+        for (String answer : run("us_babynames_test/queries-short.txt", 1990, 1991)) {
+            if (answer.startsWith("Mason,M,rank,3000")) System.out.println("  " + answer);
+        }
+    }
+
+}  // BabyNameBatch
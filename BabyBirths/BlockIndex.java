@@ -0,0 +1,322 @@
+import edu.duke.*;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A small index of where things are inside one baby name data file, so a single
+ * lookup can read just the part of the file it needs instead of the whole thing.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Data files are presorted by gender and then by descending count, so each gender's
+ * rows form one block and a row's position in its block is its rank.  For each
+ * gender block the index remembers the byte offset where the block starts, how many
+ * rows it has, and a checkpoint every `CHECKPOINT_ROWS` rows:  the byte offset of
+ * that row and the total births of every row above it in the block.  With that,
+ * <ul>
+ * <li>the name at a rank is found by seeking to the nearest checkpoint at or before
+ *     it and reading at most `CHECKPOINT_ROWS` rows</li>
+ * <li>the births ranked higher than a rank come from the checkpoint total plus
+ *     those same few rows</li>
+ * <li>the rank of a name only reads that name's gender block, skipping the
+ *     others entirely</li>
+ * </ul>
+ * Building the index reads the file once.  It is then saved next to the data file
+ * as a sidecar, "yobNNNN.csv.idx", and reused as long as the data file hasn't
+ * changed since.  Only a few kilobytes per data file are kept in memory.
+ */
+public class BlockIndex {
+
+    private static final int MAGIC = 0x4242494e;    // "BBIN"
+    private static final int VERSION = 1;
+    private static final int CHECKPOINT_ROWS = 256;
+
+    // Where one gender's rows are in the file.
+    private static class Block {
+        long start;             // byte offset of the first row
+        int rows;               // number of rows in the block
+        long[] offsets;         // offsets[c] is the byte offset of row c*CHECKPOINT_ROWS
+        int[] birthsAbove;      // birthsAbove[c] is the total count of the rows before it
+    }
+
+    private String filename;
+    private long fileLength;
+    private long lastModified;
+    private LinkedHashMap<String, Block> blocks = new LinkedHashMap<String, Block>();
+
+    private BlockIndex (String filename) {
+        this.filename = filename;
+    }
+
+    /** Get the block index for data file `filename`, using its sidecar if that is up to
+     *  date and otherwise building it (and saving a new sidecar).
+     *
+     *  @param filename     the data file
+     *  @return the block index for `filename`.
+     *  @throws ResourceException if the data file can't be read.
+     */
+    public static BlockIndex forFile (String filename) {
+        File dataFile = new File(filename);
+        if (! dataFile.isFile()) {
+            throw new ResourceException("BlockIndex: cannot access " + filename);
+        }
+        BlockIndex index = new BlockIndex(filename);
+        File sidecar = new File(filename + ".idx");
+        if (index.readSidecar(sidecar, dataFile)) {
+            return index;
+        }
+
+        index = new BlockIndex(filename);
+        index.build(dataFile);
+        index.writeSidecar(sidecar);
+        return index;
+    }
+
+    // Read the whole data file once, noting where each gender block and checkpoint starts.
+    private void build (File dataFile) {
+        fileLength = dataFile.length();
+        lastModified = dataFile.lastModified();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(dataFile), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+            long offset = 0;        // offset of the byte about to be read
+            long lineStart = 0;
+            Block block = null;
+            String blockGender = null;
+            int birthsAbove = 0;
+            int b;
+            do {
+                b = in.read();
+                if (b == '\n' || (b == -1 && line.size() > 0)) {
+                    String[] fields = line.toString("UTF-8").trim().split(",");
+                    if (fields.length >= 3) {
+                        String gender = fields[1];
+                        if (! gender.equals(blockGender)) {
+                            block = new Block();
+                            block.start = lineStart;
+                            block.offsets = new long[16];
+                            block.birthsAbove = new int[16];
+                            blocks.put(gender, block);
+                            blockGender = gender;
+                            birthsAbove = 0;
+                        }
+                        if (block.rows % CHECKPOINT_ROWS == 0) {
+                            int c = block.rows / CHECKPOINT_ROWS;
+                            if (c == block.offsets.length) {
+                                block.offsets = Arrays.copyOf(block.offsets, c * 2);
+                                block.birthsAbove = Arrays.copyOf(block.birthsAbove, c * 2);
+                            }
+                            block.offsets[c] = lineStart;
+                            block.birthsAbove[c] = birthsAbove;
+                        }
+                        block.rows = block.rows + 1;
+                        birthsAbove = birthsAbove + parseCount(fields[2]);
+                    }
+                    line.reset();
+                    lineStart = offset + 1;
+                } else if (b != -1) {
+                    line.write(b);
+                }
+                offset = offset + 1;
+            } while (b != -1);
+        } catch (IOException e) {
+            throw new ResourceException("BlockIndex: cannot read " + filename + ": " + e.getMessage());
+        }
+    }
+
+    // Same rule as BabyBirths.getCount():  anything that isn't a number counts as -1.
+    private static int parseCount (String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Load a sidecar, but only if it was built from the data file as it is now.
+    private boolean readSidecar (File sidecar, File dataFile) {
+        if (! sidecar.isFile()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            fileLength = in.readLong();
+            lastModified = in.readLong();
+            if (fileLength != dataFile.length() || lastModified != dataFile.lastModified()) {
+                return false;
+            }
+            int genders = in.readInt();
+            for (int g = 0; g < genders; g++) {
+                String gender = in.readUTF();
+                Block block = new Block();
+                block.start = in.readLong();
+                block.rows = in.readInt();
+                int checkpoints = in.readInt();
+                block.offsets = new long[checkpoints];
+                block.birthsAbove = new int[checkpoints];
+                for (int c = 0; c < checkpoints; c++) {
+                    block.offsets[c] = in.readLong();
+                    block.birthsAbove[c] = in.readInt();
+                }
+                blocks.put(gender, block);
+            }
+            return true;
+        } catch (IOException e) {
+            // A damaged sidecar is no worse than a missing one:  it just gets rebuilt.
+            blocks.clear();
+            return false;
+        }
+    }
+
+    // Save the index next to the data file.  If that isn't possible (say the data
+    // directory is read-only) the index still works, it just gets rebuilt next time.
+    private void writeSidecar (File sidecar) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(sidecar)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileLength);
+            out.writeLong(lastModified);
+            out.writeInt(blocks.size());
+            for (String gender : blocks.keySet()) {
+                Block block = blocks.get(gender);
+                int checkpoints = (block.rows + CHECKPOINT_ROWS - 1) / CHECKPOINT_ROWS;
+                out.writeUTF(gender);
+                out.writeLong(block.start);
+                out.writeInt(block.rows);
+                out.writeInt(checkpoints);
+                for (int c = 0; c < checkpoints; c++) {
+                    out.writeLong(block.offsets[c]);
+                    out.writeInt(block.birthsAbove[c]);
+                }
+            }
+        } catch (IOException e) {
+            sidecar.delete();
+        }
+    }
+
+    // Open the data file positioned at `offset`.
+    private BufferedReader openAt (long offset) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(filename, "r");
+        file.getChannel().position(offset);
+        return new BufferedReader(new InputStreamReader(Channels.newInputStream(file.getChannel()), StandardCharsets.UTF_8));
+    }
+
+    /** Determine the rank of `name` for `gender`, reading only `gender`'s rows.
+     *
+     *  @param name     the baby name to look up
+     *  @param gender   the gender to look in
+     *  @return the rank of `name`, or -1 if `name` isn't present for `gender`.
+     */
+    public int getRank (String name, String gender) {
+        Block block = blocks.get(gender);
+        if (block == null) {
+            return -1;
+        }
+        try (BufferedReader in = openAt(block.start)) {
+            for (int rank = 1; rank <= block.rows; rank++) {
+                String line = in.readLine();
+                int comma = line.indexOf(',');
+                if (comma == name.length() && line.startsWith(name)) {
+                    return rank;
+                }
+            }
+        } catch (IOException e) {
+            throw new ResourceException("BlockIndex: cannot read " + filename + ": " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /** Look up the name at `rank` for `gender`, reading at most a checkpoint's worth of rows.
+     *
+     *  @param rank     the rank to look up, starting at 1
+     *  @param gender   the gender to look in
+     *  @return the name at `rank`, or null if there is no such rank.
+     */
+    public String getName (int rank, String gender) {
+        String row = rowAt(rank, gender, null);
+        return (row == null) ? null : row.substring(0, row.indexOf(','));
+    }
+
+    /** Total the births of every name ranked higher (meaning lower rank number) than
+     *  `rank` for `gender`, reading at most a checkpoint's worth of rows.
+     *
+     *  @param rank     the rank to total up to, but not including
+     *  @param gender   the gender to look in
+     *  @return the total births ranked higher than `rank`, or -1 if there is no such rank.
+     */
+    public int getBirthsRankedHigher (int rank, String gender) {
+        int[] total = new int[1];
+        return (rowAt(rank, gender, total) == null) ? -1 : total[0];
+    }
+
+    // Find the row at `rank` by seeking to the checkpoint before it.  If `birthsAbove`
+    // isn't null, its first slot is set to the total count of the rows above `rank`.
+    private String rowAt (int rank, String gender, int[] birthsAbove) {
+        Block block = blocks.get(gender);
+        if (block == null || rank < 1 || rank > block.rows) {
+            return null;
+        }
+        int c = (rank - 1) / CHECKPOINT_ROWS;
+        int total = block.birthsAbove[c];
+        try (BufferedReader in = openAt(block.offsets[c])) {
+            for (int skip = (rank - 1) % CHECKPOINT_ROWS; skip > 0; skip--) {
+                String line = in.readLine();
+                total = total + parseCount(line.substring(line.lastIndexOf(',') + 1));
+            }
+            if (birthsAbove != null) {
+                birthsAbove[0] = total;
+            }
+            return in.readLine();
+        } catch (IOException e) {
+            throw new ResourceException("BlockIndex: cannot read " + filename + ": " + e.getMessage());
+        }
+    }
+
+    /** List the names ranked `fromRank` through `toRank` for `gender`, best first,
+     *  reading from the checkpoint before `fromRank` to the end of the range.
+     *
+     *  @param fromRank     the first rank wanted, starting at 1
+     *  @param toRank       the last rank wanted, inclusive
+     *  @param gender       the gender to look in
+     *  @return name, gender and count for each rank in the range that exists.
+     */
+    public List<BabyName> getRange (int fromRank, int toRank, String gender) {
+        List<BabyName> range = new ArrayList<BabyName>();
+        Block block = blocks.get(gender);
+        if (block == null) {
+            return range;
+        }
+        fromRank = Math.max(fromRank, 1);
+        toRank = Math.min(toRank, block.rows);
+        if (fromRank > toRank) {
+            return range;
+        }
+        int c = (fromRank - 1) / CHECKPOINT_ROWS;
+        try (BufferedReader in = openAt(block.offsets[c])) {
+            for (int rank = c * CHECKPOINT_ROWS + 1; rank <= toRank; rank++) {
+                String line = in.readLine();
+                if (rank >= fromRank) {
+                    String[] fields = line.split(",");
+                    range.add(new BabyName(fields[0], gender, parseCount(fields[2])));
+                }
+            }
+        } catch (IOException e) {
+            throw new ResourceException("BlockIndex: cannot read " + filename + ": " + e.getMessage());
+        }
+        return range;
+    }
+
+    /** @return how many names are ranked for `gender`. */
+    public int size (String gender) {
+        Block block = blocks.get(gender);
+        return (block == null) ? 0 : block.rows;
+    }
+
+}  // BlockIndex
@@ -0,0 +1,292 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Statistics over a whole run of years of baby name data at once:  births and names
+ * per year for each gender, how many different names there are, and the names given
+ * to both girls and boys, with how their split between the two has moved over time.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Everything comes from one pass over the data files, read in parallel with a
+ * NameFileScanner, one file per task.  Each file becomes a Year:  its totals, plus
+ * the dictionary id and count of every row, girls and boys separately.  The Years are
+ * then put together in year order.  Only "F" and "M" rows are counted, the same as
+ * totalBirths().
+ * <p>
+ * A name given to both genders is ranked by its births for whichever gender had
+ * fewer, so a name needs many girls AND many boys to come out on top:  popular and
+ * really shared, not a popular boys' name that a few girls also got.
+ */
+public class CorpusStats {
+
+    /** A name given to both girls and boys. */
+    public static class SharedName {
+        private final String name;
+        private final int girls;
+        private final int boys;
+        private final int[] decades;
+        private final double[] girlShares;
+
+        SharedName (String name, int girls, int boys, int[] decades, double[] girlShares) {
+            this.name = name;
+            this.girls = girls;
+            this.boys = boys;
+            this.decades = decades;
+            this.girlShares = girlShares;
+        }
+
+        public String getName () { return name; }
+
+        /** @return girls given the name over every year. */
+        public int getGirls () { return girls; }
+
+        /** @return boys given the name over every year. */
+        public int getBoys () { return boys; }
+
+        /** @return the fraction of babies given the name who were girls, over every year. */
+        public double getGirlShare () { return (double) girls / (girls + boys); }
+
+        /** @return the first year of each decade the statistics cover, in order. */
+        public int[] getDecades () { return decades.clone(); }
+
+        /** @return for each decade in getDecades(), the fraction of babies given the name
+         *  who were girls, or -1.0 if no baby got it that decade. */
+        public double[] getGirlSharesByDecade () { return girlShares.clone(); }
+
+        public String toString () { return name + ",F," + girls + ",M," + boys; }
+    }
+
+    // One data file, scanned.
+    private static class Year implements NameFileScanner.Rows {
+        final NameDictionary dictionary;
+        int[] births = new int[2];      // [0] girls, [1] boys
+        int[][] ids = { new int[1024], new int[1024] };
+        int[][] counts = { new int[1024], new int[1024] };
+        int[] names = new int[2];       // rows of each gender so far
+        int both = 0;                   // names given to both genders
+
+        Year (NameDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        public void row (ByteBuffer file, int nameStart, int nameLength, byte gender, int count) {
+            int g = (gender == 'F') ? 0 : (gender == 'M') ? 1 : -1;
+            if (g == -1 || count < 0) {
+                return;
+            }
+            int n = names[g];
+            if (n == ids[g].length) {
+                ids[g] = Arrays.copyOf(ids[g], n * 2);
+                counts[g] = Arrays.copyOf(counts[g], n * 2);
+            }
+            ids[g][n] = dictionary.intern(file, nameStart, nameLength);
+            counts[g][n] = count;
+            names[g] = n + 1;
+            births[g] += count;
+        }
+
+        // Count the names this year gave to both genders.
+        void countBoth () {
+            BitSet girls = new BitSet();
+            for (int i = 0; i < names[0]; i++) {
+                girls.set(ids[0][i]);
+            }
+            for (int i = 0; i < names[1]; i++) {
+                if (girls.get(ids[1][i])) {
+                    both++;
+                }
+            }
+        }
+    }
+
+    private final NameDictionary dictionary;
+    private final int firstYear;
+    private final Year[] years;
+    private final int[][] totals;       // [gender][id] births over every year
+    private final int distinctNames;
+    private final int[] distinctByGender = new int[2];
+    private final int distinctBoth;
+
+    /** Scan `firstYear` through `lastYear` of data set `data` in parallel and total
+     *  everything up.
+     *
+     *  @param data     the data set to use, such as DataSet.YEAR
+     *  @param firstYear    the first year to include
+     *  @param lastYear     the last year to include
+     *  @throws ResourceException if any year in the range does not have a data file.
+     */
+    public CorpusStats (DataSet data, int firstYear, int lastYear) {
+        this.dictionary = NameDictionary.shared();
+        this.firstYear = firstYear;
+        years = new Year[Math.max(0, lastYear - firstYear + 1)];
+        IntStream.range(0, years.length).parallel().forEach(i -> {
+            Year year = new Year(dictionary);
+            NameFileScanner.scan(data.filename(firstYear + i), year);
+            year.countBoth();
+            years[i] = year;
+        });
+
+        int size = dictionary.size();
+        totals = new int[][] { new int[size], new int[size] };
+        for (Year year : years) {
+            for (int g = 0; g < 2; g++) {
+                for (int i = 0; i < year.names[g]; i++) {
+                    totals[g][year.ids[g][i]] += year.counts[g][i];
+                }
+            }
+        }
+        int distinct = 0;
+        int both = 0;
+        for (int id = 0; id < size; id++) {
+            boolean girl = totals[0][id] > 0;
+            boolean boy = totals[1][id] > 0;
+            distinct += (girl || boy) ? 1 : 0;
+            distinctByGender[0] += girl ? 1 : 0;
+            distinctByGender[1] += boy ? 1 : 0;
+            both += (girl && boy) ? 1 : 0;
+        }
+        distinctNames = distinct;
+        distinctBoth = both;
+    }
+
+    /** @return the years covered, in order. */
+    public int[] years () {
+        return IntStream.range(firstYear, firstYear + years.length).toArray();
+    }
+
+    // 0 for "F", 1 for "M".
+    private static int genderIndex (String gender) {
+        if ("F".equals(gender)) return 0;
+        if ("M".equals(gender)) return 1;
+        throw new IllegalArgumentException("CorpusStats: don't recognize gender '" + gender + "'");
+    }
+
+    private Year year (int year) {
+        if (year < firstYear || year >= firstYear + years.length) {
+            throw new IllegalArgumentException("CorpusStats: " + year + " isn't covered");
+        }
+        return years[year - firstYear];
+    }
+
+    /** @return the births of `gender` ("F" or "M") in `year`. */
+    public int births (int year, String gender) { return year(year).births[genderIndex(gender)]; }
+
+    /** @return the different names given to `gender` ("F" or "M") in `year`. */
+    public int names (int year, String gender) { return year(year).names[genderIndex(gender)]; }
+
+    /** @return the names given to both genders in `year`. */
+    public int namesForBoth (int year) { return year(year).both; }
+
+    /** @return the births of `gender` ("F" or "M") over every year. */
+    public long births (String gender) {
+        int g = genderIndex(gender);
+        long total = 0;
+        for (Year year : years) {
+            total = total + year.births[g];
+        }
+        return total;
+    }
+
+    /** @return how many different names were given in any year, to either gender. */
+    public int distinctNames () { return distinctNames; }
+
+    /** @return how many different names were given to `gender` ("F" or "M") in any year. */
+    public int distinctNames (String gender) { return distinctByGender[genderIndex(gender)]; }
+
+    /** @return how many different names were given to both genders, not necessarily in the same year. */
+    public int distinctNamesForBoth () { return distinctBoth; }
+
+    /** Find the `k` names given to both genders with the most births for the gender
+     *  that had fewer, along with their share of girls decade by decade.
+     *
+     *  @param k    how many names to return
+     *  @return up to `k` names, best first.  Ties are broken alphabetically.
+     */
+    public List<SharedName> sharedNames (int k) {
+        List<Integer> shared = new ArrayList<Integer>();
+        for (int id = 0; id < totals[0].length; id++) {
+            if (totals[0][id] > 0 && totals[1][id] > 0) {
+                shared.add(id);
+            }
+        }
+        shared.sort((a, b) -> {
+            int fewerA = Math.min(totals[0][a], totals[1][a]);
+            int fewerB = Math.min(totals[0][b], totals[1][b]);
+            return (fewerA != fewerB) ? Integer.compare(fewerB, fewerA) : dictionary.name(a).compareTo(dictionary.name(b));
+        });
+        shared = shared.subList(0, Math.max(0, Math.min(k, shared.size())));
+
+        // Births by decade for just these names:  slot[id] is where a name's are kept.
+        int[] decades = IntStream.rangeClosed(firstYear / 10, (firstYear + years.length - 1) / 10).map(d -> d * 10).toArray();
+        int[] slot = new int[totals[0].length];
+        Arrays.fill(slot, -1);
+        for (int s = 0; s < shared.size(); s++) {
+            slot[shared.get(s)] = s;
+        }
+        int[][][] byDecade = new int[2][shared.size()][decades.length];
+        for (int y = 0; y < years.length; y++) {
+            int d = (firstYear + y) / 10 - decades[0] / 10;
+            for (int g = 0; g < 2; g++) {
+                for (int i = 0; i < years[y].names[g]; i++) {
+                    int s = slot[years[y].ids[g][i]];
+                    if (s != -1) {
+                        byDecade[g][s][d] += years[y].counts[g][i];
+                    }
+                }
+            }
+        }
+
+        List<SharedName> found = new ArrayList<SharedName>();
+        for (int s = 0; s < shared.size(); s++) {
+            int id = shared.get(s);
+            double[] shares = new double[decades.length];
+            for (int d = 0; d < decades.length; d++) {
+                int all = byDecade[0][s][d] + byDecade[1][s][d];
+                shares[d] = (all == 0) ? -1.0 : (double) byDecade[0][s][d] / all;
+            }
+            found.add(new SharedName(dictionary.name(id), totals[0][id], totals[1][id], decades, shares));
+        }
+        return found;
+    }
+
+    /** Lay everything out as a table:  a line per year, the totals, and the top
+     *  `sharedNames` names given to both genders with their percentage of girls per
+     *  decade ("-" for a decade no baby got it).
+     *
+     *  @param sharedNames  how many shared names to list
+     *  @return the table, lines separated by "\n".
+     */
+    public String toTable (int sharedNames) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-6s %10s %10s %8s %8s %6s\n", "year", "girls", "boys", "f-names", "m-names", "both"));
+        for (int y = 0; y < years.length; y++) {
+            Year year = years[y];
+            table.append(String.format("%-6d %10d %10d %8d %8d %6d\n",
+                firstYear + y, year.births[0], year.births[1], year.names[0], year.names[1], year.both));
+        }
+        table.append(String.format("%-6s %10d %10d %8d %8d %6d\n",
+            "all", births("F"), births("M"), distinctNames("F"), distinctNames("M"), distinctNamesForBoth()));
+        table.append(distinctNames() + " different names in all\n");
+
+        List<SharedName> shared = sharedNames(sharedNames);
+        if (! shared.isEmpty()) {
+            table.append(String.format("\n%-12s %9s %9s %6s  %% girls by decade from %ds\n",
+                "shared name", "girls", "boys", "% girl", shared.get(0).getDecades()[0]));
+            for (SharedName s : shared) {
+                table.append(String.format("%-12s %9d %9d %6.1f ", s.getName(), s.getGirls(), s.getBoys(), 100 * s.getGirlShare()));
+                for (double share : s.getGirlSharesByDecade()) {
+                    table.append((share < 0) ? "   -" : String.format(" %3.0f", 100 * share));
+                }
+                table.append("\n");
+            }
+        }
+        return table.toString();
+    }
+
+}  // CorpusStats
@@ -0,0 +1,49 @@
+/**
+ * The sets of baby name data files, and how to find the file for a year in each.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Passing a DataSet with each question, instead of switching a BabyBirths object
+ * between data sets, lets one BabyBirths answer questions about different data sets
+ * from several threads at the same time.
+ */
+public enum DataSet {
+    /** One file per year, like "us_babynames_by_year/yob2014.csv". */
+    YEAR ("us_babynames_by_year/yob", ".csv"),
+
+    /** One file per decade, named for its first year, like "us_babynames_by_decade/yob1990s.csv".
+     *  Each covers every year from 1880 through the end of its decade, not just the decade. */
+    DECADE ("us_babynames_by_decade/yob", "s.csv"),
+
+    /** Small files for testing, like "us_babynames_test/yob2012short.csv". */
+    TEST ("us_babynames_test/yob", "short.csv"),
+
+    /** Made from the by-year files by `BabyBirths.writeDecadeRollups()`, or by
+     *  `whatIsNameInDecade()` when it needs one and the one saved doesn't total the
+     *  by-year files as they are now, to cover the same years as
+     *  DECADE, like "us_babynames_decade_rollups/yob2010s.csv".  Unlike DECADE,
+     *  there is one for every decade the by-year files reach, and ties are ranked by
+     *  the same rules as the by-year files. */
+    DECADE_ROLLUP ("us_babynames_decade_rollups/yob", "s.csv");
+
+    private final String prefix;
+    private final String suffix;
+
+    private DataSet (String prefix, String suffix) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    /** @return the data file for `year` in this data set.  It may not exist. */
+    public String filename (int year) {
+        return prefix + year + suffix;
+    }
+
+    /** @return a path glob matching the file of every year in this data set, like
+     *  "us_babynames_by_year/yob*.csv", for BabyBirths.yearFilesMatching(). */
+    public String glob () {
+        return prefix + "*" + suffix;
+    }
+
+}  // DataSet
@@ -0,0 +1,296 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Every distinct baby name, each stored once and given a small int id, so the data
+ * for each year can hold ids instead of its own copy of every name.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Ids are dense:  the first name added is 0, the next 1, and so on, and a name keeps
+ * its id for good.  That lets per-year data keep ids in plain int arrays, and two
+ * names are the same exactly when their ids are.
+ * <p>
+ * The names themselves are kept as UTF-8 bytes, one after another in a single byte
+ * array (the "arena"), with the start of each name in an int array indexed by id.
+ * There is no String or other object per name, so 100 thousand names take about a
+ * megabyte.  Finding a name's id is an open-addressing hash table of ids, probed
+ * linearly, compared against the arena without building a String.
+ * <p>
+ * One dictionary is shared by all the data parsed in a program, see `shared()`.  It is
+ * safe to use from several threads.  Adding names takes a lock;  looking names up
+ * usually doesn't, it reads optimistically and only retries under the lock if a name
+ * was added at the same moment.
+ */
+public class NameDictionary {
+
+    private static final NameDictionary SHARED = new NameDictionary();
+
+    /** @return the dictionary all baby name data shares. */
+    public static NameDictionary shared () { return SHARED; }
+
+    private byte[] arena = new byte[1 << 16];
+    private int arenaSize = 0;
+    private int[] starts = new int[1024];       // starts[id] is where name id begins in the arena;  starts[size] is where the next one will
+    private int[] hashes = new int[1024];       // hashes[id] is the hash of name id, kept so growing the table needn't rehash names
+    private int size = 0;
+    private int[] table = new int[2048];        // id + 1 of the name in each slot, 0 for empty.  Length is a power of 2.
+    private StampedLock lock = new StampedLock();
+
+    /** Get the id of `name`, adding it to the dictionary if it isn't there yet.
+     *
+     *  @param name     the name
+     *  @return the id of `name`.
+     */
+    public int intern (String name) {
+        int id = idOf(name);
+        if (id != -1) {
+            return id;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            int hash = hash(name);
+            int slot = findSlot(name, hash);
+            if (table[slot] != 0) {
+                return table[slot] - 1;     // added by someone else since we looked
+            }
+            id = add(name, hash);
+            table[slot] = id + 1;
+            if (size * 2 > table.length) {
+                growTable();
+            }
+            return id;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Get the id of the name in bytes `start` to `start+length-1` of `bytes`, adding it
+     *  to the dictionary if it isn't there yet.  For a name already in the dictionary
+     *  nothing is allocated, which is why NameFileScanner rows come this way.
+     *
+     *  @param bytes    holds the name, in UTF-8.  Its position isn't used or moved.
+     *  @param start    where the name starts
+     *  @param length   how many bytes the name is
+     *  @return the id of the name.
+     */
+    public int intern (ByteBuffer bytes, int start, int length) {
+        // An ASCII byte is the same number as its char, so this is hash() of the String.
+        int h = 0x811c9dc5;
+        for (int i = 0; i < length; i++) {
+            byte b = bytes.get(start + i);
+            if (b < 0) {
+                return intern(utf8(bytes, start, length));
+            }
+            h = (h ^ b) * 0x01000193;
+        }
+        int hash = h ^ (h >>> 16);
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int id = table[findSlot(bytes, start, length, hash)] - 1;
+                if (lock.validate(stamp) && id != -1) {
+                    return id;
+                }
+            } catch (RuntimeException e) {
+                // The arrays were being replaced under us.  Fall through and add it the slow way.
+            }
+        }
+        return intern(utf8(bytes, start, length));
+    }
+
+    private static String utf8 (ByteBuffer bytes, int start, int length) {
+        byte[] name = new byte[length];
+        for (int i = 0; i < length; i++) {
+            name[i] = bytes.get(start + i);
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /** Look up the id of `name` without adding it.
+     *
+     *  @param name     the name
+     *  @return the id of `name`, or -1 if it isn't in the dictionary.
+     */
+    public int idOf (String name) {
+        int hash = hash(name);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int slot = findSlot(name, hash);
+                int id = table[slot] - 1;
+                if (lock.validate(stamp)) {
+                    return id;
+                }
+            } catch (RuntimeException e) {
+                // The arrays were being replaced under us.  Fall through and look again.
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return table[findSlot(name, hash)] - 1;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Get the name with id `id`.  Each call builds a new String.
+     *
+     *  @param id   an id returned by `intern()`
+     *  @return the name.
+     *  @throws IndexOutOfBoundsException if no name has that id.
+     */
+    public String name (int id) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                String name = decode(id);
+                if (lock.validate(stamp)) {
+                    return name;
+                }
+            } catch (RuntimeException e) {
+                // Either a bad id or the arrays were being replaced.  Look again to see which.
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return decode(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private String decode (int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("NameDictionary: no name has id " + id);
+        }
+        return new String(arena, starts[id], starts[id + 1] - starts[id], StandardCharsets.UTF_8);
+    }
+
+    /** @return how many names are in the dictionary.  Ids run from 0 to size()-1. */
+    public int size () {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** @return roughly how many bytes the dictionary uses. */
+    public long bytesUsed () {
+        long stamp = lock.readLock();
+        try {
+            return arena.length + 4L * (starts.length + hashes.length + table.length);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Hash the characters of `name`.  Done on chars, not UTF-8 bytes, so looking a
+    // name up never has to encode it.
+    private static int hash (String name) {
+        int h = 0x811c9dc5;
+        for (int i = 0; i < name.length(); i++) {
+            h = (h ^ name.charAt(i)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    // Find the slot holding `name`, or the empty slot where it would go.
+    private int findSlot (String name, int hash) {
+        int[] table = this.table;
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0 && ! sameName(table[slot] - 1, name, hash)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Find the slot holding the ASCII name in `bytes`, or the empty slot where it would go.
+    private int findSlot (ByteBuffer bytes, int start, int length, int hash) {
+        int[] table = this.table;
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0 && ! sameName(table[slot] - 1, bytes, start, length, hash)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean sameName (int id, ByteBuffer bytes, int start, int length, int hash) {
+        if (hashes[id] != hash || starts[id + 1] - starts[id] != length) {
+            return false;
+        }
+        int from = starts[id];
+        for (int i = 0; i < length; i++) {
+            if (arena[from + i] != bytes.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Is name id `id` the same as `name`?  Plain ASCII, which is every name in the
+    // SSA data, is compared byte for char;  anything else is decoded and compared.
+    private boolean sameName (int id, String name, int hash) {
+        if (hashes[id] != hash) {
+            return false;
+        }
+        int start = starts[id];
+        int length = starts[id + 1] - start;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) {
+                return new String(arena, start, length, StandardCharsets.UTF_8).equals(name);
+            }
+            if (i >= length || arena[start + i] != c) {
+                return false;
+            }
+        }
+        return length == name.length();
+    }
+
+    // Append `name` to the arena and give it the next id.  Only call holding the write lock.
+    private int add (String name, int hash) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (arenaSize + bytes.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + bytes.length));
+        }
+        System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+        arenaSize = arenaSize + bytes.length;
+
+        int id = size;
+        if (id + 2 > starts.length) {
+            starts = Arrays.copyOf(starts, starts.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        hashes[id] = hash;
+        starts[id + 1] = arenaSize;
+        size = size + 1;
+        return id;
+    }
+
+    // Double the hash table, keeping it at most half full so probes stay short.
+    private void growTable () {
+        int[] bigger = new int[table.length * 2];
+        int mask = bigger.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (bigger[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            bigger[slot] = id + 1;
+        }
+        table = bigger;
+    }
+
+}  // NameDictionary
@@ -0,0 +1,298 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Find names over a run of years from part of a name:  every name starting with a
+ * prefix, or every name within a few typing mistakes of one.  Matching ignores case.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Every name ranked in any of the years is kept once, lowercased, in one sorted
+ * array, along with its births summed over the years for each gender.  Then
+ * <ul>
+ * <li>the names starting with a prefix are next to each other in the array, so
+ *     finding them is two binary searches</li>
+ * <li>the sorted array is walked like a trie for the fuzzy search:  names sharing a
+ *     prefix share the rows of the edit distance table for that prefix, and once
+ *     every entry of a row is over the limit, every name with that prefix is skipped
+ *     with one binary search</li>
+ * </ul>
+ * Either way only the best `k` matches by births are kept while looking, so even a
+ * one letter prefix with thousands of matches makes only `k` BabyNames.
+ * <p>
+ * A NameSearch doesn't change once built, so any number of threads can use it.
+ */
+public class NameSearch {
+
+    private final NameDictionary dictionary;
+    private final String[] keys;        // lowercased names, sorted
+    private final int[] ids;            // dictionary id of the name at each position of `keys`
+    private final int longestKey;
+    // gender -> births summed over the years for the name at each position of `keys`,
+    // 0 if it isn't ranked for that gender.  Genders in first-seen order.
+    private final LinkedHashMap<String, int[]> totals = new LinkedHashMap<String, int[]>();
+
+    /** Index every name in `years`.
+     *
+     *  @param years    the parsed data file of each year to include.  They must all
+     *                  keep their names in the same dictionary.
+     */
+    public NameSearch (RankIndex[] years) {
+        dictionary = (years.length == 0) ? NameDictionary.shared() : years[0].dictionary();
+        BitSet present = new BitSet();
+        for (RankIndex year : years) {
+            if (year.dictionary() != dictionary) {
+                throw new IllegalArgumentException("NameSearch: years must share a NameDictionary");
+            }
+            for (String gender : year.genders()) {
+                for (int rank = 1; rank <= year.size(gender); rank++) {
+                    present.set(year.getNameId(rank, gender));
+                }
+            }
+        }
+
+        // Sort the names present by their lowercased form.
+        int n = present.cardinality();
+        String[] unsorted = new String[n];
+        Integer[] order = new Integer[n];
+        int[] unsortedIds = new int[n];
+        int i = 0;
+        for (int id = present.nextSetBit(0); id >= 0; id = present.nextSetBit(id + 1)) {
+            unsorted[i] = lower(dictionary.name(id));
+            unsortedIds[i] = id;
+            order[i] = i;
+            i++;
+        }
+        Arrays.sort(order, (a, b) -> unsorted[a].compareTo(unsorted[b]));
+
+        keys = new String[n];
+        ids = new int[n];
+        int[] positionOf = new int[present.length()];
+        int longest = 0;
+        for (int p = 0; p < n; p++) {
+            keys[p] = unsorted[order[p]];
+            ids[p] = unsortedIds[order[p]];
+            positionOf[ids[p]] = p;
+            longest = Math.max(longest, keys[p].length());
+        }
+        longestKey = longest;
+
+        for (RankIndex year : years) {
+            for (String gender : year.genders()) {
+                int[] births = totals.get(gender);
+                if (births == null) {
+                    births = new int[n];
+                    totals.put(gender, births);
+                }
+                for (int rank = 1; rank <= year.size(gender); rank++) {
+                    births[positionOf[year.getNameId(rank, gender)]] += year.getCount(rank, gender);
+                }
+            }
+        }
+    }
+
+    /** Find the names starting with `prefix`, ignoring case.
+     *
+     *  @param prefix   the start of the name.  "" matches every name.
+     *  @param gender   the gender to look in, or null for every gender
+     *  @param k        how many names to return
+     *  @return up to `k` names, most births first, each with its births summed over the
+     *  years.  Ties are broken alphabetically.
+     */
+    public List<BabyName> startingWith (String prefix, String gender, int k) {
+        Best best = new Best(gender, k);
+        if (prefix != null && best.k > 0) {
+            String key = lower(prefix);
+            int from = firstAtLeast(key);
+            int to = endOfPrefix(from, key, key.length());
+            for (int p = from; p < to; p++) {
+                best.offer(p);
+            }
+        }
+        return best.toList();
+    }
+
+    /** Find the names within `maxEdits` single letter insertions, deletions or
+     *  changes of `name`, ignoring case.
+     *
+     *  @param name     the name as typed
+     *  @param maxEdits     how many mistakes to allow
+     *  @param gender   the gender to look in, or null for every gender
+     *  @param k        how many names to return
+     *  @return up to `k` names, most births first, each with its births summed over the
+     *  years.  Ties are broken alphabetically.
+     */
+    public List<BabyName> like (String name, int maxEdits, String gender, int k) {
+        Best best = new Best(gender, k);
+        if (name == null || maxEdits < 0 || best.k == 0) {
+            return best.toList();
+        }
+
+        String typed = lower(name);
+        int m = typed.length();
+        // rows[d] is the edit distance row for the first d letters of the current key.
+        int[][] rows = new int[longestKey + 1][m + 1];
+        for (int j = 0; j <= m; j++) {
+            rows[0][j] = j;
+        }
+
+        String previous = "";
+        int validRows = 0;      // rows[0..validRows] are right for `previous`
+        int p = 0;
+        while (p < keys.length) {
+            String key = keys[p];
+            int d = Math.min(commonPrefix(key, previous), validRows);
+            boolean skipped = false;
+            while (d < key.length()) {
+                d = d + 1;
+                if (fillRow(rows[d - 1], rows[d], key.charAt(d - 1), typed) > maxEdits) {
+                    // Nothing starting with these d letters can get back under the limit.
+                    p = endOfPrefix(p, key, d);
+                    skipped = true;
+                    break;
+                }
+            }
+            previous = key;
+            validRows = d;
+            if (! skipped) {
+                if (rows[d][m] <= maxEdits) {
+                    best.offer(p);
+                }
+                p = p + 1;
+            }
+        }
+        return best.toList();
+    }
+
+    /** @return how many different names are in the index. */
+    public int size () { return keys.length; }
+
+    /** The number of single letter insertions, deletions or changes it takes to turn
+     *  `a` into `b`, the slow simple way.  Case matters.  For checking `like()`. */
+    static int editDistance (String a, String b) {
+        int[] row = new int[b.length() + 1];
+        int[] next = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            fillRow(row, next, a.charAt(i - 1), b);
+            int[] t = row;  row = next;  next = t;
+        }
+        return row[b.length()];
+    }
+
+    // Fill in the edit distance row for one more letter `c`, from the row before it.
+    // Returns the smallest entry in the new row.
+    private static int fillRow (int[] above, int[] row, char c, String typed) {
+        row[0] = above[0] + 1;
+        int smallest = row[0];
+        for (int j = 1; j < row.length; j++) {
+            int change = above[j - 1] + ((typed.charAt(j - 1) == c) ? 0 : 1);
+            row[j] = Math.min(change, Math.min(above[j] + 1, row[j - 1] + 1));
+            smallest = Math.min(smallest, row[j]);
+        }
+        return smallest;
+    }
+
+    private static int commonPrefix (String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < n && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String lower (String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    // First position whose key is >= `key`.
+    private int firstAtLeast (String key) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) lo = mid + 1;
+            else                              hi = mid;
+        }
+        return lo;
+    }
+
+    // First position at or after `from` whose key doesn't start with the first `length`
+    // letters of `prefix`.  The keys starting with them must begin at `from`, so they
+    // run up to the answer.
+    private int endOfPrefix (int from, String prefix, int length) {
+        int lo = from;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].regionMatches(0, prefix, 0, length)) lo = mid + 1;
+            else                              hi = mid;
+        }
+        return lo;
+    }
+
+    // The best `k` matches seen so far, by births.  A match is kept as a long, births in
+    // the high half and its position and gender in the low half, so comparing longs
+    // compares births and then breaks ties alphabetically, without making an object
+    // per match.
+    private class Best {
+        final String[] genders;
+        final int[][] births;
+        final int k;
+        final PriorityQueue<Long> heap;   // worst at the head
+
+        Best (String gender, int k) {
+            if (gender == null || gender.isEmpty()) {
+                genders = totals.keySet().toArray(new String[0]);
+            } else {
+                genders = totals.containsKey(gender) ? new String[] { gender } : new String[0];
+            }
+            births = new int[genders.length][];
+            for (int g = 0; g < genders.length; g++) {
+                births[g] = totals.get(genders[g]);
+            }
+            this.k = (genders.length == 0) ? 0 : Math.max(k, 0);
+            heap = new PriorityQueue<Long>(this.k + 1);
+        }
+
+        void offer (int position) {
+            for (int g = 0; g < genders.length; g++) {
+                int count = births[g][position];
+                if (count > 0) {
+                    // Earlier positions must sort higher, so count them down from the top.
+                    long match = ((long) count << 32) | (0xFFFFFFFFL - ((long) position * genders.length + g));
+                    if (heap.size() < k) {
+                        heap.add(match);
+                    } else if (match > heap.peek()) {
+                        heap.poll();
+                        heap.add(match);
+                    }
+                }
+            }
+        }
+
+        List<BabyName> toList () {
+            List<Long> matches = new ArrayList<Long>(heap);
+            Collections.sort(matches, Collections.reverseOrder());
+            List<BabyName> found = new ArrayList<BabyName>();
+            for (long match : matches) {
+                long slot = 0xFFFFFFFFL - (match & 0xFFFFFFFFL);
+                int position = (int) (slot / genders.length);
+                int g = (int) (slot % genders.length);
+                found.add(new BabyName(dictionary.name(ids[position]), genders[g], (int) (match >>> 32)));
+            }
+            return found;
+        }
+    }
+
+}  // NameSearch
@@ -0,0 +1,313 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compact binary copy of many baby name data files in one file, so a program can
+ * start answering questions without parsing any CSV.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * The snapshot holds every data file's rows keyed by the same filename `BabyBirths`
+ * would open, like "us_babynames_by_year/yob1880.csv".  Names are stored once in a
+ * shared dictionary and rows refer to them by number, so the 2 million or so rows
+ * across all the files only need about 100 thousand distinct name strings.  Each
+ * file stores, per gender, its name numbers and counts as plain ints in file order,
+ * so rank is simply position just like in the CSV files.
+ * <p>
+ * Layout (all numbers big-endian, as `DataOutputStream` writes them):
+ * <pre>
+ *   int MAGIC, int VERSION
+ *   then any number of blocks until the end of the file:
+ *   'N' int n, n times (short length, length UTF-8 bytes)    names added to the dictionary
+ *   'F' UTF filename, int genders, genders times
+ *       (UTF gender, int n, n ints of name number, n ints of count)
+ * </pre>
+ * A name block always comes before the first file block that uses its names.
+ * Opening a snapshot memory-maps it and remembers where each file block starts.  Its
+ * names are interned into the shared `NameDictionary` straight from the mapped bytes,
+ * giving a table from each name number to its dictionary id.  A file block is only
+ * turned into a `RankIndex` when it is asked for, and then its rows go in by id:
+ * loading a file is reading ints, with no String or hash lookup per row.
+ * <p>
+ * Since blocks simply follow one another, a new data file can be added to the end of
+ * an open snapshot with `append()`, which writes only that file's blocks.  If the
+ * same filename is appended again, the later block wins.
+ */
+public class NameSnapshot {
+
+    private static final int MAGIC = 0x4242534e;    // "BBSN"
+    private static final int VERSION = 1;
+    private static final byte NAMES_BLOCK = 'N';
+    private static final byte FILE_BLOCK = 'F';
+
+    private String snapshotFilename;
+
+    // append() replaces these rather than changing them, so readers never see them
+    // part way through a change.  It sets them in this order, and getRankIndex() reads
+    // them in the opposite order, so a reader that finds a new file block also sees
+    // the buffer and name ids that go with it.
+    private volatile MappedByteBuffer buffer;
+    private volatile NameIds nameIds = new NameIds(new int[1024], 0);
+    private ConcurrentHashMap<String, Integer> fileBlocks = new ConcurrentHashMap<String, Integer>();   // filename -> block position
+
+    // name -> number, only built once something is appended
+    private HashMap<String, Integer> nameNumbers = null;
+
+    /** Open an existing snapshot file.
+     *
+     *  @param snapshotFilename     the snapshot to open
+     *  @throws IOException if the file can't be read or isn't a snapshot.
+     */
+    public NameSnapshot (String snapshotFilename) throws IOException {
+        this.snapshotFilename = snapshotFilename;
+        buffer = map(snapshotFilename);
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException(snapshotFilename + " is not a baby name snapshot");
+        }
+        readBlocks(buffer, nameIds, fileBlocks);
+    }
+
+    // The shared dictionary id of each name number in the snapshot:  ids[n] for name n.
+    private static class NameIds {
+        int[] ids;
+        int size;
+
+        NameIds (int[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+
+        void add (int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            size = size + 1;
+        }
+
+        NameIds copy () {
+            return new NameIds(Arrays.copyOf(ids, Math.max(size * 2, 1024)), size);
+        }
+    }
+
+    private static MappedByteBuffer map (String filename) throws IOException {
+        try (FileChannel channel = new RandomAccessFile(filename, "r").getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // Read every block from `buf`'s position to its end, adding the dictionary id of
+    // each name to `names` and noting where each file block starts in `blocks`.
+    private void readBlocks (ByteBuffer buf, NameIds names, Map<String, Integer> blocks) throws IOException {
+        while (buf.hasRemaining()) {
+            byte blockType = buf.get();
+            if (blockType == NAMES_BLOCK) {
+                readNames(buf, names);
+            } else if (blockType == FILE_BLOCK) {
+                blocks.put(readUTF(buf), buf.position());
+                skipFileBlock(buf);
+            } else {
+                throw new IOException(snapshotFilename + " has an unknown block type " + blockType);
+            }
+        }
+    }
+
+    // Intern each name of a name block right from the buffer, so a name already in the
+    // dictionary doesn't even become a String.
+    private static void readNames (ByteBuffer buf, NameIds names) {
+        NameDictionary dictionary = NameDictionary.shared();
+        int n = buf.getInt();
+        for (int i = 0; i < n; i++) {
+            int length = buf.getShort() & 0xffff;
+            int start = buf.position();
+            names.add(dictionary.intern(buf, start, length));
+            buf.position(start + length);
+        }
+    }
+
+    private static void skipFileBlock (ByteBuffer buf) {
+        int genders = buf.getInt();
+        for (int g = 0; g < genders; g++) {
+            readUTF(buf);
+            int n = buf.getInt();
+            buf.position(buf.position() + n * 8);
+        }
+    }
+
+    // Same encoding as DataOutputStream.writeUTF() for the plain text we store.
+    private static String readUTF (ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getShort() & 0xffff];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** @return true if this snapshot holds the data file `filename`. */
+    public boolean contains (String filename) {
+        return fileBlocks.containsKey(filename);
+    }
+
+    /** @return the filenames of every data file held in this snapshot. */
+    public Iterable<String> filenames () {
+        return fileBlocks.keySet();
+    }
+
+    /** @return how many distinct names are in the dictionary. */
+    public int dictionarySize () {
+        return nameIds.size;
+    }
+
+    /** Build the `RankIndex` for one data file held in this snapshot.
+     *
+     *  @param filename     the data file wanted, named like `BabyBirths` names it
+     *  @return a `RankIndex` holding the same rows the CSV file has, or null
+     *  if the snapshot doesn't contain `filename`.
+     */
+    public RankIndex getRankIndex (String filename) {
+        Integer position = fileBlocks.get(filename);
+        if (position == null) {
+            return null;
+        }
+
+        // Work on our own view so concurrent readers don't share a position.
+        ByteBuffer buf = buffer.duplicate();
+        int[] ids = nameIds.ids;
+        buf.position(position);
+        RankIndex index = new RankIndex();
+        int genders = buf.getInt();
+        for (int g = 0; g < genders; g++) {
+            String gender = readUTF(buf);
+            int n = buf.getInt();
+            int idStart = buf.position();
+            int countStart = idStart + n * 4;
+            for (int i = 0; i < n; i++) {
+                index.addId(ids[buf.getInt(idStart + i * 4)], gender, buf.getInt(countStart + i * 4));
+            }
+            buf.position(countStart + n * 4);
+        }
+        index.trimToSize();
+        return index;
+    }
+
+    /** Add one data file to the end of the snapshot file, and make it available
+     *  here straight away.  Only the new file's rows are written, plus any names
+     *  the dictionary doesn't have yet.
+     *
+     *  @param filename     the name `BabyBirths` uses for the data file
+     *  @param index        the rows of that data file
+     *  @throws IOException if the snapshot can't be written.
+     */
+    public synchronized void append (String filename, RankIndex index) throws IOException {
+        if (nameNumbers == null) {
+            NameIds names = nameIds;
+            nameNumbers = new HashMap<String, Integer>();
+            for (int n = 0; n < names.size; n++) {
+                nameNumbers.put(NameDictionary.shared().name(names.ids[n]), n);
+            }
+        }
+
+        long oldLength = new File(snapshotFilename).length();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(snapshotFilename, true)))) {
+            writeFile(out, nameNumbers, filename, index);
+        }
+
+        // Read back just what was written, into a copy of the name ids.
+        MappedByteBuffer newBuffer = map(snapshotFilename);
+        NameIds newNameIds = nameIds.copy();
+        HashMap<String, Integer> newBlocks = new HashMap<String, Integer>();
+        ByteBuffer tail = newBuffer.duplicate();
+        tail.position((int) oldLength);
+        readBlocks(tail, newNameIds, newBlocks);
+
+        nameIds = newNameIds;
+        buffer = newBuffer;
+        fileBlocks.putAll(newBlocks);
+    }
+
+    // Write one data file's blocks:  a name block for names `nameNumbers` doesn't have
+    // yet (which are added to it), then the file block.
+    private static void writeFile (DataOutputStream out, HashMap<String, Integer> nameNumbers, String filename, RankIndex index) throws IOException {
+        // Give any names we haven't seen before their numbers, and write them
+        // out ahead of the file block that needs them.
+        ArrayList<String> newNames = new ArrayList<String>();
+        for (String gender : index.genders()) {
+            for (int rank = 1; rank <= index.size(gender); rank++) {
+                String name = index.getName(rank, gender);
+                if (! nameNumbers.containsKey(name)) {
+                    nameNumbers.put(name, nameNumbers.size());
+                    newNames.add(name);
+                }
+            }
+        }
+        if (! newNames.isEmpty()) {
+            out.writeByte(NAMES_BLOCK);
+            out.writeInt(newNames.size());
+            for (String name : newNames) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        out.writeByte(FILE_BLOCK);
+        out.writeUTF(filename);
+        int genders = 0;
+        for (String gender : index.genders()) genders = genders + 1;
+        out.writeInt(genders);
+        for (String gender : index.genders()) {
+            int n = index.size(gender);
+            out.writeUTF(gender);
+            out.writeInt(n);
+            for (int rank = 1; rank <= n; rank++) {
+                out.writeInt(nameNumbers.get(index.getName(rank, gender)));
+            }
+            for (int rank = 1; rank <= n; rank++) {
+                out.writeInt(index.getCount(rank, gender));
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot file one data file at a time.  Create it, `add()` each data
+     * file, then `close()` it.
+     */
+    public static class Writer implements Closeable {
+        private DataOutputStream out;
+        private HashMap<String, Integer> nameNumbers = new HashMap<String, Integer>();
+
+        /** Start a new, empty snapshot, replacing any existing file.
+         *
+         *  @param snapshotFilename     where to write the snapshot
+         *  @throws IOException if the file can't be written.
+         */
+        public Writer (String snapshotFilename) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(snapshotFilename), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        /** Add one data file's rows to the snapshot.
+         *
+         *  @param filename     the name `BabyBirths` uses for the data file
+         *  @param index        the rows of that data file
+         *  @throws IOException if the snapshot can't be written.
+         */
+        public void add (String filename, RankIndex index) throws IOException {
+            writeFile(out, nameNumbers, filename, index);
+        }
+
+        /** Finish writing the snapshot. */
+        public void close () throws IOException {
+            out.close();
+        }
+    }
+
+}  // NameSnapshot
@@ -0,0 +1,92 @@
+import java.util.Arrays;
+
+/**
+ * How one name and gender fared over a run of years:  its rank, its number of births,
+ * and its share of all births of that gender, year by year.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * The arrays all line up with `getYears()`.  A year where the name isn't ranked has
+ * rank -1, count 0 and share 0.0.
+ */
+public class NameTrajectory {
+    private String name;
+    private String gender;
+    private int[] years;
+    private int[] ranks;
+    private int[] counts;
+    private double[] shares;
+
+    /** Create a trajectory.  The arrays are kept, not copied, and must all be the same length.
+     *
+     *  @param name     the baby name
+     *  @param gender   the gender
+     *  @param years    the years covered, in order
+     *  @param ranks    the rank in each year, or -1
+     *  @param counts   the births in each year, or 0
+     *  @param shares   the fraction of that year's births for `gender`, or 0.0
+     */
+    public NameTrajectory (String name, String gender, int[] years, int[] ranks, int[] counts, double[] shares) {
+        this.name = name;
+        this.gender = gender;
+        this.years = years;
+        this.ranks = ranks;
+        this.counts = counts;
+        this.shares = shares;
+    }
+
+    public String getName () { return name; }
+
+    public String getGender () { return gender; }
+
+    /** @return the years covered, in order. */
+    public int[] getYears () { return years.clone(); }
+
+    /** @return the rank in each year, or -1 where the name isn't ranked. */
+    public int[] getRanks () { return ranks.clone(); }
+
+    /** @return the births in each year, or 0 where the name isn't ranked. */
+    public int[] getCounts () { return counts.clone(); }
+
+    /** @return each year's births as a fraction of all births for the gender that year. */
+    public double[] getShares () { return shares.clone(); }
+
+    /** @return how many years are covered. */
+    public int size () { return years.length; }
+
+    /** @return the rank in `year`, or -1 if the name isn't ranked then or `year` isn't covered. */
+    public int getRank (int year) {
+        int i = indexOf(year);
+        return (i < 0) ? -1 : ranks[i];
+    }
+
+    /** @return the births in `year`, or 0 if the name isn't ranked then or `year` isn't covered. */
+    public int getCount (int year) {
+        int i = indexOf(year);
+        return (i < 0) ? 0 : counts[i];
+    }
+
+    // Years are in order and usually consecutive, so try the direct position first.
+    private int indexOf (int year) {
+        if (years.length == 0) {
+            return -1;
+        }
+        int guess = year - years[0];
+        if (guess >= 0 && guess < years.length && years[guess] == year) {
+            return guess;
+        }
+        int i = Arrays.binarySearch(years, year);
+        return (i < 0) ? -1 : i;
+    }
+
+    /** @return one line per year:  "year,rank,count,share". */
+    public String toString () {
+        StringBuilder sb = new StringBuilder(name + "," + gender);
+        for (int i = 0; i < years.length; i++) {
+            sb.append('\n').append(years[i]).append(',').append(ranks[i]).append(',').append(counts[i]).append(',').append(shares[i]);
+        }
+        return sb.toString();
+    }
+
+}  // NameTrajectory
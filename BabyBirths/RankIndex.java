@@ -0,0 +1,279 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * All the rows of one baby name data file, indexed so that rank questions can be
+ * answered without going back to the file.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Rows must be added in file order.  Since data files are presorted by gender and
+ * then by descending count, the order rows are added in for a gender IS the rank
+ * order for that gender:  the first row added for a gender is rank 1, the next is
+ * rank 2, and so on.  For each gender we keep
+ * <ul>
+ * <li>name -&gt; rank, so `getRank()` is a single hash lookup</li>
+ * <li>rank -&gt; name and rank -&gt; count, as arrays indexed by rank-1</li>
+ * <li>a running total of the counts of all higher ranked names, so the births
+ *     ranked higher than some rank is a single array lookup</li>
+ * </ul>
+ * Names aren't kept here.  Each name is stored once, in a NameDictionary shared by
+ * every year, and a year keeps only its names' int ids.  The name -&gt; rank lookup is
+ * then an open-addressing table of ranks, hashed by id, checked against the rank
+ * -&gt; id array.  All told a row costs about 20 bytes and no objects.
+ */
+public class RankIndex {
+
+    // Everything we know about the names of one gender.
+    private class GenderRanks {
+        int size = 0;
+        int[] ids = new int[256];                   // name id at each rank-1
+        int[] counts = new int[256];
+        int[] birthsRankedHigher = new int[256];   // sum of counts[0..i-1]
+        int totalBirths = 0;                        // sum of all counts
+        int[] table = new int[512];                 // rank of the name hashed to each slot, 0 for empty.  Length is a power of 2.
+
+        void add (int id, int count) {
+            int i = size;
+            if (i == counts.length) {
+                ids = Arrays.copyOf(ids, i * 2);
+                counts = Arrays.copyOf(counts, i * 2);
+                birthsRankedHigher = Arrays.copyOf(birthsRankedHigher, i * 2);
+            }
+            ids[i] = id;
+            counts[i] = count;
+            birthsRankedHigher[i] = totalBirths;
+            totalBirths = totalBirths + count;
+            size = size + 1;
+
+            // A name shouldn't repeat within a gender, but if it does the first
+            // (and so better ranked) one wins, same as a linear search would find.
+            int slot = findSlot(id);
+            if (table[slot] == 0) {
+                table[slot] = i + 1;
+                if (size * 2 > table.length) {
+                    growTable();
+                }
+            }
+        }
+
+        // Rank of name `id`, or -1.
+        int rankOf (int id) {
+            int rank = table[findSlot(id)];
+            return (rank == 0) ? -1 : rank;
+        }
+
+        // The slot holding the rank of name `id`, or the empty slot where it would go.
+        int findSlot (int id) {
+            int mask = table.length - 1;
+            int slot = mix(id) & mask;
+            while (table[slot] != 0 && ids[table[slot] - 1] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        // Double the table, keeping it at most half full so probes stay short.
+        // Only first occurrences are in it, so put back just those.
+        void growTable () {
+            int[] old = table;
+            table = new int[old.length * 2];
+            int mask = table.length - 1;
+            for (int rank : old) {
+                if (rank != 0) {
+                    int slot = mix(ids[rank - 1]) & mask;
+                    while (table[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table[slot] = rank;
+                }
+            }
+        }
+
+        void trimToSize () {
+            ids = Arrays.copyOf(ids, size);
+            counts = Arrays.copyOf(counts, size);
+            birthsRankedHigher = Arrays.copyOf(birthsRankedHigher, size);
+        }
+
+        boolean hasRank (int rank) { return rank >= 1 && rank <= size; }
+    }
+
+    // Ids are handed out in order, so spread them over the table.
+    private static int mix (int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private final NameDictionary dictionary;
+
+    // Keyed by the gender string so unexpected genders still work.  Kept in the
+    // order genders first appear, which is file order.
+    private HashMap<String, GenderRanks> genders = new LinkedHashMap<String, GenderRanks>();
+
+    /** Make an empty index whose names go in the shared dictionary. */
+    public RankIndex () {
+        this(NameDictionary.shared());
+    }
+
+    /** Make an empty index whose names go in `dictionary`.
+     *
+     *  @param dictionary   where to keep the names
+     */
+    public RankIndex (NameDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /** @return the dictionary this index keeps its names in. */
+    public NameDictionary dictionary () { return dictionary; }
+
+    /** Add the next row of the data file to the index.
+     *
+     *  @param name     the baby name in the row
+     *  @param gender   the gender in the row
+     *  @param count    the number of babies born with `name`
+     */
+    public void add (String name, String gender, int count) {
+        addId(dictionary.intern(name), gender, count);
+    }
+
+    /** Add the next row of the data file to the index, by the id of its name.
+     *
+     *  @param id       the id of the baby name in the row, from `dictionary()`
+     *  @param gender   the gender in the row
+     *  @param count    the number of babies born with that name
+     */
+    public void addId (int id, String gender, int count) {
+        GenderRanks g = genders.get(gender);
+        if (g == null) {
+            g = new GenderRanks();
+            genders.put(gender, g);
+        }
+        g.add(id, count);
+    }
+
+    /** Release the room kept for more rows.  Call once every row has been added;
+     *  adding more afterwards still works, it just grows again. */
+    public void trimToSize () {
+        for (GenderRanks g : genders.values()) {
+            g.trimToSize();
+        }
+    }
+
+    /** Determine the rank of `name` for `gender`.  Rank starts at 1.
+     *
+     *  @param name     the baby name to look up
+     *  @param gender   the gender to look in
+     *  @return the rank of `name`, or -1 if `name` isn't present for `gender`.
+     */
+    public int getRank (String name, String gender) {
+        int id = dictionary.idOf(name);
+        return (id == -1) ? -1 : getRankOfId(id, gender);
+    }
+
+    /** Determine the rank of the name with id `id` for `gender`.  Rank starts at 1.
+     *
+     *  @param id       the id of the baby name, from `dictionary()`
+     *  @param gender   the gender to look in
+     *  @return the rank of that name, or -1 if it isn't present for `gender`.
+     */
+    public int getRankOfId (int id, String gender) {
+        GenderRanks g = genders.get(gender);
+        return (g == null) ? -1 : g.rankOf(id);
+    }
+
+    /** Look up the name at `rank` for `gender`.
+     *
+     *  @param rank     the rank to look up, starting at 1
+     *  @param gender   the gender to look in
+     *  @return the name at `rank`, or null if there is no such rank.
+     */
+    public String getName (int rank, String gender) {
+        GenderRanks g = genders.get(gender);
+        return (g != null && g.hasRank(rank)) ? dictionary.name(g.ids[rank - 1]) : null;
+    }
+
+    /** Look up the id of the name at `rank` for `gender`.
+     *
+     *  @param rank     the rank to look up, starting at 1
+     *  @param gender   the gender to look in
+     *  @return the id in `dictionary()` of the name at `rank`, or -1 if there is no such rank.
+     */
+    public int getNameId (int rank, String gender) {
+        GenderRanks g = genders.get(gender);
+        return (g != null && g.hasRank(rank)) ? g.ids[rank - 1] : -1;
+    }
+
+    /** Look up the number of births for the name at `rank` for `gender`.
+     *
+     *  @param rank     the rank to look up, starting at 1
+     *  @param gender   the gender to look in
+     *  @return the count at `rank`, or -1 if there is no such rank.
+     */
+    public int getCount (int rank, String gender) {
+        GenderRanks g = genders.get(gender);
+        return (g != null && g.hasRank(rank)) ? g.counts[rank - 1] : -1;
+    }
+
+    /** List the names ranked `fromRank` through `toRank` for `gender`, best first.
+     *  Ranks past the last one are left out.
+     *
+     *  @param fromRank     the first rank wanted, starting at 1
+     *  @param toRank       the last rank wanted, inclusive
+     *  @param gender       the gender to look in
+     *  @return name, gender and count for each rank in the range that exists.
+     */
+    public List<BabyName> getRange (int fromRank, int toRank, String gender) {
+        List<BabyName> range = new ArrayList<BabyName>();
+        GenderRanks g = genders.get(gender);
+        if (g != null) {
+            for (int rank = Math.max(fromRank, 1); rank <= Math.min(toRank, g.size); rank++) {
+                range.add(new BabyName(dictionary.name(g.ids[rank - 1]), gender, g.counts[rank - 1]));
+            }
+        }
+        return range;
+    }
+
+    /** Total the births of every name ranked higher (meaning lower rank number)
+     *  than `rank` for `gender`.
+     *
+     *  @param rank     the rank to total up to, but not including
+     *  @param gender   the gender to look in
+     *  @return the total births ranked higher than `rank`, or -1 if there is no such rank.
+     */
+    public int getBirthsRankedHigher (int rank, String gender) {
+        GenderRanks g = genders.get(gender);
+        return (g != null && g.hasRank(rank)) ? g.birthsRankedHigher[rank - 1] : -1;
+    }
+
+    /** @return every gender that has at least one name in this index, in file order. */
+    public Iterable<String> genders () {
+        return genders.keySet();
+    }
+
+    /** @return how many names are ranked for `gender`. */
+    public int size (String gender) {
+        GenderRanks g = genders.get(gender);
+        return (g == null) ? 0 : g.size;
+    }
+
+    /** @return how many rows are in the index, over every gender. */
+    public int size () {
+        int rows = 0;
+        for (GenderRanks g : genders.values()) {
+            rows = rows + g.size;
+        }
+        return rows;
+    }
+
+    /** @return the total number of births for `gender`. */
+    public int totalBirths (String gender) {
+        GenderRanks g = genders.get(gender);
+        return (g == null) ? 0 : g.totalBirths;
+    }
+
+}  // RankIndex
@@ -0,0 +1,169 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of parsed data files, keyed by filename, that throws out the least
+ * recently used file when it gets too big.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Two limits can be set:  how many files to hold, and how many rows to hold over all
+ * of them.  Rows are the better measure of memory, since a year from the 1880s has
+ * about 2,000 rows and one from the 2000s over 30,000.  Each row costs about 20
+ * bytes in a RankIndex, since names are kept once in the shared NameDictionary, so
+ * the default of 25,000,000 rows is about 500 MB.  Every by-year and by-decade file
+ * together is under 4,000,000 rows, so the default holds them all with room to spare.
+ * <p>
+ * It is safe to use from several threads at once.  The map itself is only touched
+ * while holding the cache's lock, but loading a file is done outside it, so threads
+ * loading different files don't wait on each other.  Two threads wanting the same
+ * missing file share one load instead of parsing it twice.
+ */
+public class RankIndexCache {
+    public static final int DEFAULT_MAX_FILES = 200;
+    public static final long DEFAULT_MAX_ROWS = 25000000;
+
+    private int maxFiles;
+    private long maxRows;
+
+    // Access order:  every get() moves a file to the end, so the first entry is
+    // always the least recently used.
+    private LinkedHashMap<String, RankIndex> entries = new LinkedHashMap<String, RankIndex>(16, 0.75f, true);
+    private long rows = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    // One lock object per file being loaded right now.
+    private ConcurrentHashMap<String, Object> loading = new ConcurrentHashMap<String, Object>();
+
+    /** Create a cache with the default limits. */
+    public RankIndexCache () {
+        this(DEFAULT_MAX_FILES, DEFAULT_MAX_ROWS);
+    }
+
+    /** Create a cache with the limits given.
+     *
+     *  @param maxFiles     the most files to hold at once
+     *  @param maxRows      the most rows to hold at once, over all files
+     *  @throws IllegalArgumentException if either limit is less than 1.
+     */
+    public RankIndexCache (int maxFiles, long maxRows) {
+        setLimits(maxFiles, maxRows);
+    }
+
+    /** Change the limits, throwing out least recently used files until both are met.
+     *
+     *  @param maxFiles     the most files to hold at once
+     *  @param maxRows      the most rows to hold at once, over all files
+     *  @throws IllegalArgumentException if either limit is less than 1.
+     */
+    public synchronized void setLimits (int maxFiles, long maxRows) {
+        if (maxFiles < 1 || maxRows < 1) {
+            throw new IllegalArgumentException("RankIndexCache: limits must be at least 1, got " + maxFiles + " files and " + maxRows + " rows");
+        }
+        this.maxFiles = maxFiles;
+        this.maxRows = maxRows;
+        evict();
+    }
+
+    /** Get the parsed contents of `filename`, loading them with `loader` if they aren't
+     *  already held.
+     *
+     *  @param filename     the data file wanted
+     *  @param loader       loads a file when it isn't in the cache
+     *  @return the RankIndex for `filename`.
+     */
+    public RankIndex get (String filename, Function<String, RankIndex> loader) {
+        RankIndex index = lookup(filename, true);
+        if (index != null) {
+            return index;
+        }
+
+        Object lock = loading.computeIfAbsent(filename, f -> new Object());
+        synchronized (lock) {
+            try {
+                // Someone else may have loaded it while we waited for the lock.
+                index = lookup(filename, false);
+                if (index == null) {
+                    index = loader.apply(filename);
+                    put(filename, index);
+                }
+                return index;
+            } finally {
+                loading.remove(filename, lock);
+            }
+        }
+    }
+
+    // Look `filename` up, counting a hit or miss if `count` is true.  The second look
+    // after waiting for a load isn't counted, so each get() counts exactly once.
+    private synchronized RankIndex lookup (String filename, boolean count) {
+        RankIndex index = entries.get(filename);
+        if (count && index != null) {
+            hits = hits + 1;
+        } else if (count) {
+            misses = misses + 1;
+        }
+        return index;
+    }
+
+    /** Hold `index` as the parsed contents of `filename`, replacing anything held for
+     *  it already.  This counts as using it, so it is the last to be thrown out.
+     *
+     *  @param filename     the data file `index` was parsed from
+     *  @param index        its parsed contents
+     */
+    public synchronized void put (String filename, RankIndex index) {
+        RankIndex old = entries.put(filename, index);
+        if (old != null) {
+            rows = rows - old.size();
+        }
+        rows = rows + index.size();
+        evict();
+    }
+
+    // Throw out least recently used files until both limits are met.  The file just
+    // added is always kept, even if it is bigger than the row limit by itself:  the
+    // caller is about to use it.
+    private void evict () {
+        Iterator<Map.Entry<String, RankIndex>> it = entries.entrySet().iterator();
+        while (entries.size() > 1 && (entries.size() > maxFiles || rows > maxRows)) {
+            rows = rows - it.next().getValue().size();
+            it.remove();
+            evictions = evictions + 1;
+        }
+    }
+
+    /** Throw out every file held.  The counters are left alone. */
+    public synchronized void clear () {
+        entries.clear();
+        rows = 0;
+    }
+
+    /** @return how many files are held right now. */
+    public synchronized int size () { return entries.size(); }
+
+    /** @return how many rows are held right now, over all files. */
+    public synchronized long rows () { return rows; }
+
+    /** @return how many get() calls found their file already held. */
+    public synchronized long hits () { return hits; }
+
+    /** @return how many get() calls had to load their file. */
+    public synchronized long misses () { return misses; }
+
+    /** @return how many files have been thrown out to stay within the limits. */
+    public synchronized long evictions () { return evictions; }
+
+    public synchronized String toString () {
+        return "RankIndexCache: " + entries.size() + "/" + maxFiles + " files, " + rows + "/" + maxRows +
+            " rows, " + hits + " hits, " + misses + " misses, " + evictions + " evictions";
+    }
+
+}  // RankIndexCache
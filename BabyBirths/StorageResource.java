@@ -149,6 +149,9 @@ public class StorageResource {
      * parameter and with/without a header row to describe the column names. This is useful if the
      * data is separated by some character other than a comma.
      *
+     * The parser reads the strings of this object as it goes rather than from a copy, so don't add
+     * to or clear this object while still using the parser.
+     *
      * @param withHeader uses first row of data as a header row only if true
      * @param delimiter a single character that separates one field of data from another
      * @return a <code>CSVParser</code> that can provide access to the records in this object one at a
@@ -162,7 +165,8 @@ public class StorageResource {
         }
         try {
             char delim = delimiter.charAt(0);
-            Reader input = new StringReader(String.join("\n", myStrings));
+            // Stream the lines to the parser instead of joining them all into one String first.
+            Reader input = new LineReader(myStrings);
             if (withHeader) {
                 return new CSVParser(input, CSVFormat.EXCEL.withHeader().withDelimiter(delim));
             }
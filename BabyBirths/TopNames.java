@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Find the most popular names over several years, by births summed across them,
+ * without totalling up every name.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Each year's names are already sorted by descending count, so this merges the years
+ * the way the threshold algorithm does:
+ * <ul>
+ * <li>step down all the years together, one rank at a time</li>
+ * <li>the first time a name turns up in any year, look its count up in every year
+ *     (a hash lookup each) to get its full total, and offer it to a min-heap that
+ *     keeps only the best `k` so far</li>
+ * <li>no name not seen yet can total more than the sum of the counts at the current
+ *     rank of every year, since every year is sorted.  Once the worst name in the
+ *     heap beats that sum, nothing left can get in, so stop.</li>
+ * </ul>
+ * Popular names are popular in most years, so that usually stops after a few hundred
+ * ranks, while each year has thousands of names.
+ * <p>
+ * Names are followed by their dictionary ids, so only the `k` that make it out get
+ * turned back into Strings.
+ */
+public class TopNames {
+
+    // Best first:  most births, then alphabetical so ties always come out the same way.
+    private static final Comparator<BabyName> BEST_FIRST =
+        Comparator.comparingInt(BabyName::getCount).reversed().thenComparing(BabyName::getName);
+
+    /** Find the `k` names of `gender` with the most births summed over `years`.
+     *
+     *  @param years    the parsed data file of each year to include.  They must all
+     *                  keep their names in the same dictionary.
+     *  @param gender   the gender to look in
+     *  @param k        how many names to return
+     *  @return up to `k` names, best first, each with its births summed over `years`.
+     *  Ties are broken alphabetically.
+     */
+    public static List<BabyName> inYears (RankIndex[] years, String gender, int k) {
+        List<BabyName> top = new ArrayList<BabyName>();
+        if (k < 1 || years.length == 0) {
+            return top;
+        }
+
+        // Worst of the best `k` at the head, so it is the one pushed out.
+        PriorityQueue<BabyName> heap = new PriorityQueue<BabyName>(k + 1, BEST_FIRST.reversed());
+        NameDictionary dictionary = years[0].dictionary();
+        for (RankIndex year : years) {
+            if (year.dictionary() != dictionary) {
+                throw new IllegalArgumentException("TopNames: years must share a NameDictionary");
+            }
+        }
+        BitSet seen = new BitSet(dictionary.size());
+        int deepest = 0;
+        for (RankIndex year : years) {
+            deepest = Math.max(deepest, year.size(gender));
+        }
+
+        for (int rank = 1; rank <= deepest; rank++) {
+            long threshold = 0;
+            for (RankIndex year : years) {
+                if (rank <= year.size(gender)) {
+                    int id = year.getNameId(rank, gender);
+                    threshold = threshold + year.getCount(rank, gender);
+                    if (! seen.get(id)) {
+                        seen.set(id);
+                        heap.add(new BabyName(dictionary.name(id), gender, totalCount(years, id, gender)));
+                        if (heap.size() > k) {
+                            heap.poll();
+                        }
+                    }
+                }
+            }
+            // A name not seen yet is at this rank or worse in every year.  Strictly
+            // greater, since a tie with the threshold could still win alphabetically.
+            if (heap.size() == k && heap.peek().getCount() > threshold) {
+                break;
+            }
+        }
+
+        top.addAll(heap);
+        Collections.sort(top, BEST_FIRST);
+        return top;
+    }
+
+    // Total births for name `id` over every year it is ranked in.
+    private static int totalCount (RankIndex[] years, int id, String gender) {
+        int total = 0;
+        for (RankIndex year : years) {
+            int rank = year.getRankOfId(id, gender);
+            if (rank != -1) {
+                total = total + year.getCount(rank, gender);
+            }
+        }
+        return total;
+    }
+
+}  // TopNames
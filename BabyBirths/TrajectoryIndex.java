@@ -0,0 +1,198 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An inverted index over a run of years of baby name data:  for every name and
+ * gender, the list of years it is ranked in, with its rank and count in each.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * The data files are year-major:  one file per year, every name in it.  Charting one
+ * name over 135 years that way means looking in 135 files.  This turns it around to
+ * name-major, so a name's whole history is in one place, its "postings".  Postings
+ * are parallel int arrays (year, rank, count) holding only the years the name is
+ * ranked in, so the whole 1880-2014 corpus costs about 12 bytes per row.
+ * <p>
+ * Years are added in order with `addYear()`, so a new year of data costs only its
+ * own rows.  Each name's postings also keep a running total of its ranks and its
+ * best rank so far, so its average rank and best year over the whole index are
+ * ready without looking at any year.
+ * <p>
+ * Adding and querying may happen on different threads:  queries share a read lock,
+ * and adding a year takes the write lock.
+ */
+public class TrajectoryIndex {
+
+    // Where one name and gender is ranked, in year order.
+    private static class Postings {
+        int size = 0;
+        int[] yearIndexes = new int[4];     // index into `years`
+        int[] ranks = new int[4];
+        int[] counts = new int[4];
+        long rankTotal = 0;
+        int bestRank = -1;
+        int bestYearIndex = -1;     // earliest year with bestRank
+
+        void add (int yearIndex, int rank, int count) {
+            rankTotal = rankTotal + rank;
+            if (bestRank == -1 || rank < bestRank) {
+                bestRank = rank;
+                bestYearIndex = yearIndex;
+            }
+            if (size == ranks.length) {
+                yearIndexes = Arrays.copyOf(yearIndexes, size * 2);
+                ranks = Arrays.copyOf(ranks, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            yearIndexes[size] = yearIndex;
+            ranks[size] = rank;
+            counts[size] = count;
+            size = size + 1;
+        }
+    }
+
+    private int[] years = new int[0];
+    // gender -> total births for that gender in each year, lined up with `years`
+    private LinkedHashMap<String, int[]> totalBirths = new LinkedHashMap<String, int[]>();
+    // gender -> name -> postings
+    private HashMap<String, HashMap<String, Postings>> postings = new HashMap<String, HashMap<String, Postings>>();
+    private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Add every name of one year to the index.  Years must be added in increasing order.
+     *
+     *  @param year     the year `index` holds
+     *  @param index    the parsed data file for `year`
+     *  @throws IllegalArgumentException if `year` isn't after every year already added.
+     */
+    public void addYear (int year, RankIndex index) {
+        lock.writeLock().lock();
+        try {
+            if (years.length > 0 && year <= years[years.length - 1]) {
+                throw new IllegalArgumentException("TrajectoryIndex: year " + year + " is not after " + years[years.length - 1]);
+            }
+            int yearIndex = years.length;
+            years = Arrays.copyOf(years, yearIndex + 1);
+            years[yearIndex] = year;
+            for (String gender : totalBirths.keySet()) {
+                totalBirths.put(gender, Arrays.copyOf(totalBirths.get(gender), yearIndex + 1));
+            }
+
+            for (String gender : index.genders()) {
+                int[] totals = totalBirths.get(gender);
+                if (totals == null) {
+                    totals = new int[yearIndex + 1];
+                    totalBirths.put(gender, totals);
+                }
+                totals[yearIndex] = index.totalBirths(gender);
+
+                HashMap<String, Postings> names = postings.get(gender);
+                if (names == null) {
+                    names = new HashMap<String, Postings>();
+                    postings.put(gender, names);
+                }
+                int size = index.size(gender);
+                for (int rank = 1; rank <= size; rank++) {
+                    String name = index.getName(rank, gender);
+                    Postings p = names.get(name);
+                    if (p == null) {
+                        p = new Postings();
+                        names.put(name, p);
+                    }
+                    p.add(yearIndex, rank, index.getCount(rank, gender));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Get the rank, count and share of births of `name` and `gender` in every year
+     *  in the index.
+     *
+     *  @param name     the baby name
+     *  @param gender   the gender
+     *  @return the trajectory of `name`.  Years it isn't ranked in have rank -1.
+     */
+    public NameTrajectory trajectory (String name, String gender) {
+        lock.readLock().lock();
+        try {
+            int[] ranks = new int[years.length];
+            int[] counts = new int[years.length];
+            double[] shares = new double[years.length];
+            Arrays.fill(ranks, -1);
+
+            Postings p = postingsFor(name, gender);
+            if (p != null) {
+                int[] totals = totalBirths.get(gender);
+                for (int i = 0; i < p.size; i++) {
+                    int y = p.yearIndexes[i];
+                    ranks[y] = p.ranks[i];
+                    counts[y] = p.counts[i];
+                    shares[y] = (totals[y] > 0) ? (double) p.counts[i] / totals[y] : 0.0;
+                }
+            }
+            return new NameTrajectory(name, gender, years.clone(), ranks, counts, shares);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Average the ranks of `name` and `gender` over the years it is ranked in.
+     *
+     *  @return the average rank, or -1.0 if it isn't ranked in any year in the index.
+     */
+    public double averageRank (String name, String gender) {
+        lock.readLock().lock();
+        try {
+            Postings p = postingsFor(name, gender);
+            return (p == null) ? -1.0 : ((double) p.rankTotal) / p.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Find the year `name` and `gender` had its best (lowest numbered) rank.
+     *
+     *  @return the earliest year with the best rank, or -1 if it isn't ranked in any
+     *  year in the index.
+     */
+    public int bestYear (String name, String gender) {
+        lock.readLock().lock();
+        try {
+            Postings p = postingsFor(name, gender);
+            return (p == null) ? -1 : years[p.bestYearIndex];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only call while holding a lock.
+    private Postings postingsFor (String name, String gender) {
+        HashMap<String, Postings> names = postings.get(gender);
+        return (names == null) ? null : names.get(name);
+    }
+
+    /** @return true if `name` and `gender` are ranked in any year in the index. */
+    public boolean contains (String name, String gender) {
+        lock.readLock().lock();
+        try {
+            return postingsFor(name, gender) != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the years in the index, in order. */
+    public int[] years () {
+        lock.readLock().lock();
+        try {
+            return years.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+}  // TrajectoryIndex
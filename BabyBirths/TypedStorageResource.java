@@ -0,0 +1,395 @@
+import edu.duke.*;
+
+import java.util.Arrays;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import java.io.*;
+
+/**
+ * A <code>StorageResource</code> that also keeps each stored row split into typed
+ * columns:  numbers as primitive <code>int</code> or <code>double</code> arrays and text
+ * as <code>String</code> arrays.
+ *
+ * <P>
+ * It can be used anywhere a <code>StorageResource</code> is.  Every row is also added
+ * to the <code>StorageResource</code> it extends, exactly as given, so
+ * <code>data</code>, a copy made with <code>new StorageResource(store)</code> and
+ * <code>getCSVParser</code> see the same text a <code>StorageResource</code> would:
+ * "Emma,F,09" stays "Emma,F,09".  On top of that, values can be read back already
+ * converted, for example <code>getInt(row, 2)</code>, without parsing any text.
+ * Differences worth knowing:
+ * <UL>
+ * <LI><code>contains</code> is a hash lookup instead of a linear search.</LI>
+ * <LI><code>getCSVParser</code> hands the parser one row at a time as it reads,
+ * instead of first joining every row into one big <code>String</code>.  Duke's
+ * <code>StorageResource</code> has no <code>getCSVParser</code>, so this class
+ * brings its own.</LI>
+ * </UL>
+ *
+ * <P>
+ * The columns are described by a schema with one letter per column:  'S' for text,
+ * 'I' for an int and 'D' for a double.  For example the baby name rows
+ * "Sophia,F,10" use "SSI".  Fields are separated by a comma.  A field can't hold a
+ * comma itself, since there is no quoting, except that with the schema "S" the
+ * whole row is the one field.  A row that doesn't fit the schema, like a header
+ * row, is stored all the same;  it just has no typed values, which
+ * <code>hasValues</code> tells.
+ *
+ * <P>
+ * Rows whose values are already at hand, like a <code>BabyName</code>'s, can be added
+ * with <code>addValues</code>, which fills the columns directly instead of splitting
+ * and parsing text.
+ *
+ * <P>
+ * Example usage:
+ *
+ * <PRE>
+ * TypedStorageResource store = new TypedStorageResource("SSI");
+ * store.add("Sophia,F,10");
+ * store.addValues("Emma", "F", 9);
+ * int total = 0;
+ * for (int row = 0; row &lt; store.size(); row++) {
+ *     total = total + store.getInt(row, 2);
+ * }
+ * </PRE>
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class TypedStorageResource extends StorageResource {
+    private String schema;
+    private int rows = 0;
+    private String[] text;              // each row exactly as added, for contains()
+    private boolean[] typed;            // true if the row fit the schema, so has values
+    private String[][] textColumns;     // only the slots for 'S' columns are used
+    private int[][] intColumns;         // only the slots for 'I' columns are used
+    private double[][] doubleColumns;   // only the slots for 'D' columns are used
+    private int[] rowHashes;            // hashCode() of each row's text
+    private int[] hashTable;            // open addressing:  row number + 1, or 0 for empty
+
+    /**
+     * Create an empty <code>TypedStorageResource</code> holding one text column, which
+     * is a plain list of strings.
+     */
+    public TypedStorageResource () {
+        this("S");
+    }
+
+    /**
+     * Create an empty <code>TypedStorageResource</code> with the columns in <code>schema</code>.
+     *
+     * @param schema one letter per column:  'S' for text, 'I' for int, 'D' for double
+     * @throws exception if <code>schema</code> is empty or has any other letters
+     */
+    public TypedStorageResource (String schema) {
+        if (schema == null || ! schema.matches("[SID]+")) {
+            throw new ResourceException("TypedStorageResource: schema must be letters S, I or D: " + schema);
+        }
+        this.schema = schema;
+        clear();
+    }
+
+    /**
+     * Create a <code>TypedStorageResource</code> that is a copy of another one.
+     *
+     * @param other the original being copied
+     */
+    public TypedStorageResource (TypedStorageResource other) {
+        this(other.schema);
+        for (String s : other.data()) {
+            add(s);
+        }
+    }
+
+    /**
+     * Remove all rows from this object so that <code>.size() == 0</code>.
+     */
+    public void clear () {
+        super.clear();
+        int columns = schema.length();
+        rows = 0;
+        text = new String[16];
+        typed = new boolean[16];
+        textColumns = new String[columns][];
+        intColumns = new int[columns][];
+        doubleColumns = new double[columns][];
+        for (int c = 0; c < columns; c++) {
+            if      (schema.charAt(c) == 'S') textColumns[c] = new String[16];
+            else if (schema.charAt(c) == 'I') intColumns[c] = new int[16];
+            else                              doubleColumns[c] = new double[16];
+        }
+        rowHashes = new int[16];
+        hashTable = new int[32];
+    }
+
+    /**
+     * Adds a row to this storage object.  If it fits the schema it is also split into
+     * its typed columns.
+     *
+     * @param s the row added, with fields separated by commas
+     */
+    public void add (String s) {
+        String[] fields = (s == null) ? null : split(s);
+        boolean fits = fields != null && fits(fields);
+        int r = newRow(s, fits);
+        if (fits) {
+            for (int c = 0; c < fields.length; c++) {
+                char type = schema.charAt(c);
+                if      (type == 'S') textColumns[c][r] = fields[c];
+                else if (type == 'I') intColumns[c][r] = Integer.parseInt(fields[c].trim());
+                else                  doubleColumns[c][r] = Double.parseDouble(fields[c].trim());
+            }
+        }
+    }
+
+    /**
+     * Adds a row from its values, one per column:  a <code>String</code> for each 'S'
+     * column, an <code>Integer</code> for each 'I' and a <code>Double</code> for each
+     * 'D'.  The row's text is the values joined by commas, so
+     * <code>addValues("Emma", "F", 9)</code> stores the same row as
+     * <code>add("Emma,F,9")</code>, without splitting or parsing it.
+     *
+     * @param values the values of the row, in column order
+     * @throws exception if the values don't match the schema
+     */
+    public void addValues (Object... values) {
+        if (values.length != schema.length()) {
+            throw new ResourceException("TypedStorageResource: " + values.length + " values for schema " + schema);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int c = 0; c < values.length; c++) {
+            char type = schema.charAt(c);
+            boolean ok = (type == 'S') ? values[c] instanceof String :
+                         (type == 'I') ? values[c] instanceof Integer : values[c] instanceof Double;
+            if (! ok) {
+                throw new ResourceException("TypedStorageResource: value " + values[c] + " doesn't fit column " + c + " of schema " + schema);
+            }
+            if (c > 0) sb.append(',');
+            sb.append(values[c]);
+        }
+        int r = newRow(sb.toString(), true);
+        for (int c = 0; c < values.length; c++) {
+            char type = schema.charAt(c);
+            if      (type == 'S') textColumns[c][r] = (String) values[c];
+            else if (type == 'I') intColumns[c][r] = (Integer) values[c];
+            else                  doubleColumns[c][r] = (Double) values[c];
+        }
+    }
+
+    // Store the text of a new row, here and in the StorageResource, and hash it,
+    // returning its row number.  The caller fills in its columns if `fits`.
+    private int newRow (String s, boolean fits) {
+        super.add(s);
+        if (rows == text.length) {
+            grow();
+        }
+        int r = rows;
+        text[r] = s;
+        typed[r] = fits;
+        rowHashes[r] = (s == null) ? 0 : s.hashCode();
+        rows = rows + 1;
+        insertHash(r);
+        return r;
+    }
+
+    // Split a row into its fields.  A single text column is the whole row, commas and all.
+    private String[] split (String s) {
+        return (schema.equals("S")) ? new String[] { s } : s.split(",", -1);
+    }
+
+    // True if every field parses as its column's type.
+    private boolean fits (String[] fields) {
+        if (fields.length != schema.length()) {
+            return false;
+        }
+        try {
+            for (int c = 0; c < fields.length; c++) {
+                if      (schema.charAt(c) == 'I') Integer.parseInt(fields[c].trim());
+                else if (schema.charAt(c) == 'D') Double.parseDouble(fields[c].trim());
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return true;
+    }
+
+    private void grow () {
+        int capacity = text.length * 2;
+        text = Arrays.copyOf(text, capacity);
+        typed = Arrays.copyOf(typed, capacity);
+        for (int c = 0; c < schema.length(); c++) {
+            if (textColumns[c] != null)   textColumns[c] = Arrays.copyOf(textColumns[c], capacity);
+            if (intColumns[c] != null)    intColumns[c] = Arrays.copyOf(intColumns[c], capacity);
+            if (doubleColumns[c] != null) doubleColumns[c] = Arrays.copyOf(doubleColumns[c], capacity);
+        }
+        rowHashes = Arrays.copyOf(rowHashes, capacity);
+
+        // Keep the table no more than half full, so probe chains stay short.
+        hashTable = new int[capacity * 2];
+        for (int r = 0; r < rows; r++) {
+            insertHash(r);
+        }
+    }
+
+    private void insertHash (int row) {
+        int mask = hashTable.length - 1;
+        int slot = mix(rowHashes[row]) & mask;
+        while (hashTable[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        hashTable[slot] = row + 1;
+    }
+
+    // Spread the bits of a hashCode() so similar rows don't pile up in neighboring slots.
+    private static int mix (int h) {
+        h = h * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the number of rows added/stored in this object.
+     *
+     * @return the number of rows stored in the object
+     */
+    public int size () {
+        return rows;
+    }
+
+    /**
+     * Determines if a row fit the schema when it was added, so its values can be read
+     * with <code>getInt</code> and friends.
+     *
+     * @param row the row, from 0 to <code>size()-1</code>
+     * @return true if the row has typed values
+     */
+    public boolean hasValues (int row) {
+        return row >= 0 && row < rows && typed[row];
+    }
+
+    /**
+     * Determines if a string is stored in this object, exactly as
+     * <code>StorageResource</code> does but with a hash lookup.
+     *
+     * @param s string searched for
+     * @return true if and only if s is stored in this object
+     */
+    public boolean contains (String s) {
+        int hash = (s == null) ? 0 : s.hashCode();
+        int mask = hashTable.length - 1;
+        for (int slot = mix(hash) & mask; hashTable[slot] != 0; slot = (slot + 1) & mask) {
+            int r = hashTable[slot] - 1;
+            if (rowHashes[r] == hash && (s == null ? text[r] == null : s.equals(text[r]))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the text value in column <code>column</code> of row <code>row</code>.
+     *
+     * @param row the row, from 0 to <code>size()-1</code>
+     * @param column the column, from 0
+     * @return the value
+     * @throws exception if the column isn't an 'S' column, the row is out of range or
+     *         the row has no values
+     */
+    public String getString (int row, int column) {
+        checkCell(row, column, 'S');
+        return textColumns[column][row];
+    }
+
+    /**
+     * Returns the int value in column <code>column</code> of row <code>row</code>.
+     *
+     * @param row the row, from 0 to <code>size()-1</code>
+     * @param column the column, from 0
+     * @return the value
+     * @throws exception if the column isn't an 'I' column, the row is out of range or
+     *         the row has no values
+     */
+    public int getInt (int row, int column) {
+        checkCell(row, column, 'I');
+        return intColumns[column][row];
+    }
+
+    /**
+     * Returns the double value in column <code>column</code> of row <code>row</code>.
+     *
+     * @param row the row, from 0 to <code>size()-1</code>
+     * @param column the column, from 0
+     * @return the value
+     * @throws exception if the column isn't a 'D' column, the row is out of range or
+     *         the row has no values
+     */
+    public double getDouble (int row, int column) {
+        checkCell(row, column, 'D');
+        return doubleColumns[column][row];
+    }
+
+    private void checkCell (int row, int column, char type) {
+        if (! hasValues(row) || column < 0 || column >= schema.length() || schema.charAt(column) != type) {
+            throw new ResourceException("TypedStorageResource: no " + type + " value at row " + row + ", column " + column);
+        }
+    }
+
+    /**
+     * Returns a <code>CSVParser</code> object to access the contents of this object as CSV data.
+     *
+     * Each string of this object should be formatted as data separated by commas and with a header row
+     * to describe the column names.
+     *
+     * @return a <code>CSVParser</code> that can provide access to the records in this object one at a
+     *         time
+     */
+    public CSVParser getCSVParser () {
+        return getCSVParser(true);
+    }
+
+    /**
+     * Returns a <code>CSVParser</code> object to access the contents of this object, possibly
+     * without a header row.
+     *
+     * @param withHeader uses first row of data as a header row only if true
+     * @return a <code>CSVParser</code> that can provide access to the records in this object one at a
+     *         time
+     */
+    public CSVParser getCSVParser (boolean withHeader) {
+        return getCSVParser(withHeader, ",");
+    }
+
+    /**
+     * Returns a <code>CSVParser</code> object to access the contents of this object, possibly
+     * without a header row and a different data delimiter than a comma.
+     *
+     * Each string of this object should be formatted as data separated by the delimiter
+     * passed as a parameter.  The strings are handed to the parser as it reads them, so
+     * no copy of all the data is ever made.  Don't add to or clear this object while
+     * still using the parser.
+     *
+     * @param withHeader uses first row of data as a header row only if true
+     * @param delimiter a single character that separates one field of data from another
+     * @return a <code>CSVParser</code> that can provide access to the records in this object one at a
+     *         time
+     * @throws exception if <code>delimiter.length() != 1</code>
+     */
+    public CSVParser getCSVParser (boolean withHeader, String delimiter) {
+        if (delimiter == null || delimiter.length() != 1) {
+            throw new ResourceException("TypedStorageResource: CSV delimiter must be a single character: " + delimiter);
+        }
+        try {
+            char delim = delimiter.charAt(0);
+            Reader input = new LineReader(data());
+            if (withHeader) {
+                return new CSVParser(input, CSVFormat.EXCEL.withHeader().withDelimiter(delim));
+            }
+            else {
+                return new CSVParser(input, CSVFormat.EXCEL.withDelimiter(delim));
+            }
+        }
+        catch (Exception e) {
+            throw new ResourceException("TypedStorageResource: data in this object is not CSV data.");
+        }
+    }
+
+}
@@ -37,4 +37,10 @@ public class BatchInversions {
         }
     }
 
+    /** Runs selectAndConvert() on the images named by -Dduke.files when run outside BlueJ */
+    public static void main (String[] args) {
+        BatchInversions bi = new BatchInversions();
+        bi.selectAndConvert();
+    }
+
 }  // BatchInversions
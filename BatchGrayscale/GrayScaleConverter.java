@@ -46,4 +46,10 @@ public class GrayScaleConverter {
 		ImageResource gray = makeGray(ir);
 		gray.draw();
 	}
+
+	/** Runs selectAndConvert() on the images named by -Dduke.files when run outside BlueJ */
+	public static void main (String[] args) {
+		GrayScaleConverter gsc = new GrayScaleConverter();
+		gsc.selectAndConvert();
+	}
 }
@@ -0,0 +1,160 @@
+import edu.duke.*;
+import org.apache.commons.csv.*;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Find the lowest or highest value of a column over many weather files at once, on a
+ * fork-join pool.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * The files are split in halves, and halves of halves, until a piece is a few files,
+ * and each piece is scanned on its own thread.  A piece's answer is just numbers:  the
+ * value, which file it is in, and which row of that file.  Two answers combine by
+ * keeping the better value, and for equal values the earlier file and row, so the
+ * answer is the same one a scan of the files in order would find.  Each value is
+ * parsed once, and the CSVRecord is only made for the final answer, by reading that
+ * one row of that one file again.
+ * <p>
+ * Values that are missing, aren't numbers, or are the -9999 the files use for a
+ * missing reading are skipped.
+ */
+public class ColumnReduction {
+
+    private static final double VALUE_MISSING_FLAG = -9999.0;
+    private static final int FILES_PER_TASK = 8;
+
+    /** The lowest or highest value found, and where. */
+    public static class Extreme {
+        /** The value, or NaN if there was none. */
+        public final double value;
+        /** The index in the file list of the file it is in, or -1 if there was none. */
+        public final int file;
+        /** Its row in that file, starting at 0 for the first row after the header. */
+        public final int row;
+
+        Extreme (double value, int file, int row) {
+            this.value = value;
+            this.file = file;
+            this.row = row;
+        }
+
+        /** @return true if a value was found. */
+        public boolean found () { return file != -1; }
+    }
+
+    private static final Extreme NONE = new Extreme(Double.NaN, -1, -1);
+
+    /** Find the lowest value of `column` in `files`, using the common fork-join pool.
+     *
+     *  @param files    the weather files to search
+     *  @param column   the column to compare, like "TemperatureF"
+     *  @return the lowest value and where it is.  Of equal values the first wins.
+     */
+    public static Extreme minimum (List<File> files, String column) {
+        return ForkJoinPool.commonPool().invoke(new Scan(files, column, true, 0, files.size()));
+    }
+
+    /** Same as minimum(files, column), but the highest value. */
+    public static Extreme maximum (List<File> files, String column) {
+        return ForkJoinPool.commonPool().invoke(new Scan(files, column, false, 0, files.size()));
+    }
+
+    /** Same as minimum(files, column) or maximum(files, column), run on `pool`. */
+    public static Extreme reduce (List<File> files, String column, boolean lowest, ForkJoinPool pool) {
+        return pool.invoke(new Scan(files, column, lowest, 0, files.size()));
+    }
+
+    /** Read the CSVRecord at `extreme` again from its file.
+     *
+     *  @return the record, or null if nothing was found.
+     */
+    public static CSVRecord record (List<File> files, Extreme extreme) {
+        if (! extreme.found()) {
+            return null;
+        }
+        int skip = extreme.row;
+        for (CSVRecord record : new FileResource(files.get(extreme.file)).getCSVParser()) {
+            if (skip == 0) {
+                return record;
+            }
+            skip = skip - 1;
+        }
+        return null;
+    }
+
+    // Scan files [from, to), splitting the range if it is more than a few files.
+    private static class Scan extends RecursiveTask<Extreme> {
+        private static final long serialVersionUID = 1L;
+
+        final List<File> files;
+        final String column;
+        final boolean lowest;
+        final int from;
+        final int to;
+
+        Scan (List<File> files, String column, boolean lowest, int from, int to) {
+            this.files = files;
+            this.column = column;
+            this.lowest = lowest;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected Extreme compute () {
+            if (to - from <= FILES_PER_TASK) {
+                Extreme best = NONE;
+                for (int f = from; f < to; f++) {
+                    best = better(best, scanFile(f));
+                }
+                return best;
+            }
+            int middle = (from + to) >>> 1;
+            Scan later = new Scan(files, column, lowest, middle, to);
+            later.fork();
+            Extreme earlier = new Scan(files, column, lowest, from, middle).compute();
+            return better(earlier, later.join());
+        }
+
+        // `earlier` comes from files before `later`'s, so it wins ties.
+        Extreme better (Extreme earlier, Extreme later) {
+            if (! later.found()) return earlier;
+            if (! earlier.found()) return later;
+            boolean laterWins = lowest ? later.value < earlier.value : later.value > earlier.value;
+            return laterWins ? later : earlier;
+        }
+
+        Extreme scanFile (int f) {
+            double bestValue = Double.NaN;
+            int bestRow = -1;
+            int row = 0;
+            for (CSVRecord record : new FileResource(files.get(f)).getCSVParser()) {
+                double value = number(record, column);
+                if (! Double.isNaN(value) && (bestRow == -1 || (lowest ? value < bestValue : value > bestValue))) {
+                    bestValue = value;
+                    bestRow = row;
+                }
+                row = row + 1;
+            }
+            return (bestRow == -1) ? NONE : new Extreme(bestValue, f, bestRow);
+        }
+    }
+
+    // The value in `column` of `record`, or NaN if it is missing or not a number.
+    private static double number (CSVRecord record, String column) {
+        if (! record.isSet(column)) {
+            return Double.NaN;
+        }
+        try {
+            double value = Double.parseDouble(record.get(column));
+            return (value == VALUE_MISSING_FLAG) ? Double.NaN : value;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+}  // ColumnReduction
@@ -1,6 +1,21 @@
 import edu.duke.*;
 import org.apache.commons.csv.*;
 import java.io.*;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Find the coldest day of the year and other interesting facts about the temperature and humidity in a day.
@@ -50,7 +65,7 @@ public class ParseWeatherData {
         CSVRecord minimumSoFar = null;
         for (CSVRecord currentRow : parser) {
             double currentValue = getNumber(currentRow, column);
-            if (currentValue != Double.NaN && currentValue != VALUE_MISSING_FLAG) {
+            if (! Double.isNaN(currentValue) && currentValue != VALUE_MISSING_FLAG) {
                 if (minimumSoFar == null) {
                     minimumSoFar = currentRow;
                 } else {
@@ -95,33 +110,30 @@ public class ParseWeatherData {
      */
     public String fileWithMinimumValue (String column) {
         DirectoryResource dr = new DirectoryResource();
-        String minimumFilename = null;
-        CSVRecord minimumSoFar = null;
+        return fileWithMinimumValue(column, dr.selectedFiles());
+    }
 
-        for (File f : dr.selectedFiles()) {
-            FileResource fr = new FileResource(f);
-            CSVRecord currentMinimum = minimumValueInColumn(fr.getCSVParser(), column);
-            // Make sure we got a result before doing anything else.
-            if (currentMinimum != null) {
-                // First time thru
-                if (minimumFilename == null || minimumSoFar == null) {
-                    minimumFilename = f.getName();  // getCanonicalPath() requires an exception handler.
-                    minimumSoFar = currentMinimum;
-                } else {
-                    // Rest of the times thru.  Need values to compare.
-                    // Don't need to worry about invalid values here, because
-                    // we would not have got here if minimumValueInColumn() found nothing.
-                    double minimumValue = getNumber(minimumSoFar, column);
-                    double currentValue = getNumber(currentMinimum, column);
-                    if (currentValue < minimumValue) {
-                        minimumFilename = f.getName();
-                        minimumSoFar = currentMinimum;
-                    }
-                }
-            }
-        }
+    /** Find the name of the file in `files` containing the minimum value in the
+     *  indicated `column` and return that file's name.  Does not need a display.
+     *  The files are searched in parallel;  see ColumnReduction.
+     *  
+     *  @param column   the column to examine for the lowest value.  Must convert to a number.
+     *  @param files    the weather data files to search, such as from `filesMatching()`
+     *  @return the filename of the data file that contains the minimum value in the
+     *  passed `column` in `files`.
+     */
+    public String fileWithMinimumValue (String column, Iterable<File> files) {
+        List<File> fileList = listOf(files);
+        ColumnReduction.Extreme minimum = ColumnReduction.minimum(fileList, column);
+        return minimum.found() ? fileList.get(minimum.file).getName() : null;
+    }
 
-        return minimumFilename;
+    private List<File> listOf (Iterable<File> files) {
+        List<File> fileList = new ArrayList<File>();
+        for (File f : files) {
+            fileList.add(f);
+        }
+        return fileList;
     }
     
     /** From a group of files the user picks, find the row of data containing
@@ -133,30 +145,99 @@ public class ParseWeatherData {
      */
     public CSVRecord minimumValueManyFiles (String column) {
         DirectoryResource dr = new DirectoryResource();
-        CSVRecord minimumSoFar = null;
+        return minimumValueManyFiles(column, dr.selectedFiles());
+    }
 
-        for (File f : dr.selectedFiles()) {
-            FileResource fr = new FileResource(f);
-            CSVRecord currentMinimum = minimumValueInColumn(fr.getCSVParser(), column);
-            // Make sure we got a result before doing anything else.
-            if (currentMinimum != null) {
-                // First time thru
-                if (minimumSoFar == null) {
-                    minimumSoFar = currentMinimum;
-                } else {
-                    // Rest of the times thru.  Need values to compare.
-                    // Don't need to worry about invalid values here, because
-                    // we would not have got here if minimumValueInColumn() found nothing.
-                    double minimumValue = getNumber(minimumSoFar, column);
-                    double currentValue = getNumber(currentMinimum, column);
-                    if (currentValue < minimumValue) {
-                        minimumSoFar = currentMinimum;
-                    }
+    /** Find the row of data in `files` containing the minimum value in the indicated
+     *  `column` and return that row.  Does not need a display.  The files are searched
+     *  in parallel, and only the winning row is read back as a CSVRecord;  see
+     *  ColumnReduction.
+     *  
+     *  @param column   the column to examine for the lowest value.  Must convert to a number.
+     *  @param files    the weather data files to search, such as from `filesMatching()`
+     *  @return the CSVRecord with the minimum value in `column`.  If no valid values found, 
+     *  return null.
+     */
+    public CSVRecord minimumValueManyFiles (String column, Iterable<File> files) {
+        List<File> fileList = listOf(files);
+        return ColumnReduction.record(fileList, ColumnReduction.minimum(fileList, column));
+    }
+
+    /** Same as minimumValueManyFiles(column, files), but the row with the maximum value. */
+    public CSVRecord maximumValueManyFiles (String column, Iterable<File> files) {
+        List<File> fileList = listOf(files);
+        return ColumnReduction.record(fileList, ColumnReduction.maximum(fileList, column));
+    }
+
+    /** Test driver for the parallel versions of minimumValueManyFiles() and fileWithMinimumValue(). */
+    public void testParallelReduction () {
+        List<File> files = filesMatching("nc_weather/2014/*.csv");
+        CSVRecord expected = bruteForceExtreme(files, TEMPERATURE_COLUMN, true);
+        CSVRecord got = minimumValueManyFiles(TEMPERATURE_COLUMN, files);
+        System.out.println("Expected:  coldest of 2014 " + expected.get(TEMPERATURE_COLUMN) + " at " + expected.get(DATE_COLUMN) +
+            ", got " + got.get(TEMPERATURE_COLUMN) + " at " + got.get(DATE_COLUMN));
+        expected = bruteForceExtreme(files, TEMPERATURE_COLUMN, false);
+        got = maximumValueManyFiles(TEMPERATURE_COLUMN, files);
+        System.out.println("Expected:  hottest of 2014 " + expected.get(TEMPERATURE_COLUMN) + " at " + expected.get(DATE_COLUMN) +
+            ", got " + got.get(TEMPERATURE_COLUMN) + " at " + got.get(DATE_COLUMN));
+        expected = bruteForceExtreme(files, HUMIDITY_COLUMN, true);
+        got = minimumValueManyFiles(HUMIDITY_COLUMN, files);
+        System.out.println("Expected:  lowest humidity of 2014 at " + expected.get(DATE_COLUMN) + ", got " + got.get(DATE_COLUMN));
+
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        ColumnReduction.Extreme a = ColumnReduction.reduce(files, HUMIDITY_COLUMN, true, one);
+        ColumnReduction.Extreme b = ColumnReduction.reduce(files, HUMIDITY_COLUMN, true, four);
+        System.out.println("Expected:  the same answer on 1 and 4 threads, got file " + a.file + " row " + a.row +
+            " and file " + b.file + " row " + b.row);
+        one.shutdown();
+        four.shutdown();
+
+        System.out.println("Expected:  null for no files, got " + minimumValueManyFiles(TEMPERATURE_COLUMN, new ArrayList<File>()));
+        System.out.println("Expected:  null for a column with no numbers, got " + minimumValueManyFiles("Conditions", files));
+    }
+
+    // Look at every row of every file in order:  the slow, obviously right answer to
+    // check the parallel search against.
+    private CSVRecord bruteForceExtreme (List<File> files, String column, boolean lowest) {
+        CSVRecord best = null;
+        double bestValue = Double.NaN;
+        for (File f : files) {
+            for (CSVRecord record : new FileResource(f).getCSVParser()) {
+                double value = getNumber(record, column);
+                if (! Double.isNaN(value) && value != VALUE_MISSING_FLAG &&
+                    (best == null || (lowest ? value < bestValue : value > bestValue))) {
+                    best = record;
+                    bestValue = value;
                 }
             }
         }
+        return best;
+    }
 
-        return minimumSoFar;
+    /** Find the weather data files matching a path glob such as "nc_weather/2014/*.csv",
+     *  so a group of files can be chosen without the `DirectoryResource` dialog.
+     *  
+     *  @param fileGlob     the glob to match.  Only the last path segment may hold wildcards.
+     *  @return the matching files, in filename order (which is date order for weather files).
+     *  @throws ResourceException if the directory can't be listed.
+     */
+    public List<File> filesMatching (String fileGlob) {
+        List<File> files = new ArrayList<File>();
+        int slash = fileGlob.lastIndexOf('/');
+        String directory = (slash < 0) ? "." : fileGlob.substring(0, slash);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + fileGlob.substring(slash + 1));
+        String[] filenames = new File(directory).list();
+        if (filenames == null) {
+            throw new ResourceException("ParseWeatherData: cannot list directory " + directory);
+        }
+        Arrays.sort(filenames);
+        for (String f : filenames) {
+            if (matcher.matches(Paths.get(f))) {
+                files.add(new File(directory, f));
+            }
+        }
+        return files;
     }
 
     /** From a group of files the user picks, find the name of the file containing the coldest 
@@ -168,6 +249,15 @@ public class ParseWeatherData {
         return fileWithMinimumValue(TEMPERATURE_COLUMN);
     }
 
+    /** Find the name of the file matching `fileGlob` containing the coldest temperature.
+     *  
+     *  @param fileGlob     which weather files to search, like "nc_weather/2014/*.csv"
+     *  @return the filename of the weather data file that contains the coldest temperature.
+     */
+    public String fileWithColdestTemperature (String fileGlob) {
+        return fileWithMinimumValue(TEMPERATURE_COLUMN, filesMatching(fileGlob));
+    }
+
     /** Test driver for fileWithColdestTemperature() */
     public void testFileWithColdestTemperature () {
         String coldestFilename = fileWithColdestTemperature();
@@ -185,6 +275,437 @@ public class ParseWeatherData {
         }
     }
     
+    // Weather directories already turned into columns, by directory name.
+    private HashMap<String, WeatherStore> weatherStores = new HashMap<String, WeatherStore>();
+
+    /** Get every weather file in `directory` as columns of numbers, parsing the files
+     *  only the first time ever (see WeatherStore).  Kept for the life of this object;
+     *  use refreshWeatherStore() to pick up files added or changed since.
+     *  
+     *  @param directory    the directory of weather files, like "nc_weather/2014"
+     *  @return the readings in the directory.
+     *  @throws ResourceException if the directory can't be read.
+     */
+    public synchronized WeatherStore weatherStore (String directory) {
+        WeatherStore store = weatherStores.get(directory);
+        if (store == null) {
+            store = WeatherStore.forDirectory(directory);
+            weatherStores.put(directory, store);
+        }
+        return store;
+    }
+
+    /** Bring weatherStore(directory) up to date with the files there now, parsing them
+     *  again only if any was added, removed or changed since the store was made.
+     *
+     *  @param directory    the directory of weather files, like "nc_weather/2014"
+     *  @return the readings in the directory.
+     *  @throws ResourceException if the directory can't be read.
+     */
+    public synchronized WeatherStore refreshWeatherStore (String directory) {
+        WeatherStore store = WeatherStore.forDirectory(directory);
+        weatherStores.put(directory, store);
+        return store;
+    }
+
+    /** Same as fileWithMinimumValue(column, files) for every file in `directory`, but
+     *  searched as one array of numbers in a WeatherStore instead of file by file.
+     *  
+     *  @param column   the column to examine for the lowest value, like "TemperatureF".
+     *  Must be one WeatherStore keeps.
+     *  @param directory    the directory of weather files, like "nc_weather/2014"
+     *  @return the filename of the data file that contains the minimum value, or null
+     *  if there are no valid values.
+     */
+    public String fileWithMinimumValueInDirectory (String column, String directory) {
+        WeatherStore store = weatherStore(directory);
+        int row = store.minimumRow(WeatherStore.Column.named(column));
+        return (row == -1) ? null : store.fileName(store.fileOf(row));
+    }
+
+    /** Same as minimumValueManyFiles(column, files) for every file in `directory`, but
+     *  searched as one array of numbers in a WeatherStore.  Only the one file holding
+     *  the answer is parsed, to return its row.
+     *  
+     *  @param column   the column to examine for the lowest value, like "Humidity".
+     *  Must be one WeatherStore keeps.
+     *  @param directory    the directory of weather files, like "nc_weather/2014"
+     *  @return the CSVRecord with the minimum value in `column`.  If no valid values found, 
+     *  return null.
+     */
+    public CSVRecord minimumValueInDirectory (String column, String directory) {
+        WeatherStore store = weatherStore(directory);
+        int row = store.minimumRow(WeatherStore.Column.named(column));
+        return (row == -1) ? null : recordOf(store, directory, row);
+    }
+
+    // Get the CSVRecord of reading `row` of `store` from its file.
+    private CSVRecord recordOf (WeatherStore store, String directory, int row) {
+        int f = store.fileOf(row);
+        int skip = row - store.fileStart(f);
+        for (CSVRecord record : new FileResource(new File(directory, store.fileName(f))).getCSVParser()) {
+            if (skip == 0) {
+                return record;
+            }
+            skip = skip - 1;
+        }
+        return null;
+    }
+
+    /** Test driver for the WeatherStore versions of finding minimum values. */
+    public void testWeatherStore () {
+        for (int year = 2012; year <= 2015; year++) {
+            String directory = "nc_weather/" + year;
+            System.out.println("Expected:  coldest file in " + year + " " + fileWithColdestTemperature(directory + "/*.csv") +
+                ", got " + fileWithMinimumValueInDirectory(TEMPERATURE_COLUMN, directory));
+            CSVRecord slow = lowestHumidityInManyFiles(directory + "/*.csv");
+            CSVRecord fast = minimumValueInDirectory(HUMIDITY_COLUMN, directory);
+            System.out.println("Expected:  lowest humidity in " + year + " " + slow.get(HUMIDITY_COLUMN) + " at " + slow.get(DATE_COLUMN) +
+                ", got " + fast.get(HUMIDITY_COLUMN) + " at " + fast.get(DATE_COLUMN));
+        }
+
+        WeatherStore store = weatherStore("nc_weather/2014");
+        System.out.println("Expected:  365 files, got " + store.fileCount());
+        int row = store.minimumRow(WeatherStore.Column.TEMPERATURE);
+        System.out.println("Expected:  the coldest reading's time to round trip, got " + store.dateUTC(row) +
+            " in " + store.fileName(store.fileOf(row)));
+        System.out.println("Expected:  -1 for a column with no values, got " +
+            store.minimumRow(WeatherStore.Column.TEMPERATURE, 0, 0));
+
+        String saved = "test.columns";
+        store.save(saved);
+        WeatherStore loaded = WeatherStore.load(saved);
+        boolean same = loaded.size() == store.size() && loaded.fileCount() == store.fileCount();
+        for (int r = 0; same && r < store.size(); r++) {
+            same = loaded.time(r) == store.time(r);
+            for (WeatherStore.Column c : WeatherStore.Column.values()) {
+                same = same && Double.compare(loaded.get(c, r), store.get(c, r)) == 0;
+            }
+        }
+        System.out.println("Expected:  true for a saved and loaded store matching, got " + same);
+        new File(saved).delete();
+
+        // A copy of two days' files:  replacing one with another day's readings, even
+        // under an older time and with the same number of files, is noticed.
+        File dir = new File("test_store");
+        File days = new File(dir, "days");
+        days.mkdirs();
+        File jan29 = new File(days, "weather-2014-01-29.csv");
+        File jan30 = new File(days, "weather-2014-01-30.csv");
+        copyFile(new File("nc_weather/2014/weather-2014-01-29.csv"), jan29);
+        copyFile(new File("nc_weather/2014/weather-2014-01-30.csv"), jan30);
+        String directory = days.getPath();
+        WeatherStore before = weatherStore(directory);
+        System.out.println("Expected:  2014-01-31 04:51:00 (UTC) last, got " + before.dateUTC(before.size() - 1));
+        copyFile(new File("nc_weather/2014/weather-2014-01-31.csv"), jan30);
+        jan30.setLastModified(jan29.lastModified() - 60000);
+        System.out.println("Expected:  the same store until it is refreshed, got " + (weatherStore(directory) == before));
+        WeatherStore after = refreshWeatherStore(directory);
+        System.out.println("Expected:  2014-02-01 04:51:00 (UTC) last after replacing a file, got " + after.dateUTC(after.size() - 1));
+        File[] files = days.listFiles();
+        Arrays.sort(files);
+        System.out.println("Expected:  true for the saved store matching the files again, got " + WeatherStore.load(directory + ".columns").isMadeFrom(files));
+        for (File f : days.listFiles()) {
+            f.delete();
+        }
+        days.delete();
+        new File(dir, "days.columns").delete();
+        dir.delete();
+    }
+
+    // The catalog of every file under nc_weather, made when first needed.
+    private WeatherCatalog catalog = null;
+
+    /** Get the catalog of every weather file under "nc_weather", with each file's day
+     *  and range of values (see WeatherCatalog).  Kept for the life of this object.
+     *
+     *  @return the catalog.
+     *  @throws ResourceException if the directory can't be read.
+     */
+    public synchronized WeatherCatalog weatherCatalog () {
+        if (catalog == null) {
+            catalog = WeatherCatalog.forDirectory("nc_weather");
+        }
+        return catalog;
+    }
+
+    /** Find the coldest reading on days `from` through `to`, like all of January 2013.
+     *  The catalog picks the one file it has to be in, so only that file is read.
+     *
+     *  @return the CSVRecord with the coldest temperature, or null if there are no
+     *  temperatures for those days.
+     */
+    public CSVRecord coldestHourBetween (LocalDate from, LocalDate to) {
+        File file = weatherCatalog().fileWithMinimum(WeatherStore.Column.TEMPERATURE, from, to);
+        return (file == null) ? null : coldestHourInFile(new FileResource(file).getCSVParser());
+    }
+
+    /** Find every reading on days `from` through `to` whose `column` compares to `value`
+     *  by `operator`, like "Humidity", "<", 20.  Missing values never match.  Files
+     *  the catalog shows can't have a match aren't read.
+     *
+     *  @param column   the column to compare, like "Humidity".  Must be one WeatherStore keeps.
+     *  @param operator     one of &lt; &lt;= &gt; &gt;= == !=
+     *  @param value    what to compare it to
+     *  @param from     the first day to search
+     *  @param to       the last day to search
+     *  @return the matching readings, in time order.
+     */
+    public List<CSVRecord> readingsWhere (String column, String operator, double value, LocalDate from, LocalDate to) {
+        List<CSVRecord> found = new ArrayList<CSVRecord>();
+        WeatherStore.Column c = WeatherStore.Column.named(column);
+        for (File f : weatherCatalog().filesWhere(from, to, c, operator, value)) {
+            for (CSVRecord record : new FileResource(f).getCSVParser()) {
+                if (compares(getNumber(record, column), operator, value)) {
+                    found.add(record);
+                }
+            }
+        }
+        return found;
+    }
+
+    // True if `number` is a value, not missing, and compares to `value` by `operator`.
+    private boolean compares (double number, String operator, double value) {
+        if (Double.isNaN(number) || number == VALUE_MISSING_FLAG) {
+            return false;
+        }
+        switch (operator) {
+            case "<":  return number < value;
+            case "<=": return number <= value;
+            case ">":  return number > value;
+            case ">=": return number >= value;
+            case "==": return number == value;
+            case "!=": return number != value;
+            default:
+                throw new IllegalArgumentException("ParseWeatherData: don't recognize operator '" + operator + "'");
+        }
+    }
+
+    /** Test driver for WeatherCatalog, coldestHourBetween() and readingsWhere(). */
+    public void testWeatherCatalog () {
+        WeatherCatalog catalog = weatherCatalog();
+        System.out.println("Expected:  1347 files, got " + catalog.size());
+        System.out.println("Expected:  31 files in January 2013, got " +
+            catalog.filesBetween(LocalDate.of(2013, 1, 1), LocalDate.of(2013, 1, 31)).size());
+
+        CSVRecord slow = minimumValueManyFiles(TEMPERATURE_COLUMN, filesMatching("nc_weather/2013/weather-2013-01-*.csv"));
+        CSVRecord fast = coldestHourBetween(LocalDate.of(2013, 1, 1), LocalDate.of(2013, 1, 31));
+        System.out.println("Expected:  coldest in January 2013 " + slow.get(TEMPERATURE_COLUMN) + " at " + slow.get(DATE_COLUMN) +
+            ", got " + fast.get(TEMPERATURE_COLUMN) + " at " + fast.get(DATE_COLUMN));
+        System.out.println("Expected:  coldest 2014 in weather-2014-01-30.csv, got " +
+            catalog.fileWithMinimum(WeatherStore.Column.TEMPERATURE, LocalDate.of(2014, 1, 1), LocalDate.of(2014, 12, 31)).getName());
+        List<File> files2014 = filesMatching("nc_weather/2014/*.csv");
+        System.out.println("Expected:  hottest 2014 in " + files2014.get(ColumnReduction.maximum(files2014, TEMPERATURE_COLUMN).file).getName() +
+            ", got " + catalog.fileWithMaximum(WeatherStore.Column.TEMPERATURE, LocalDate.of(2014, 1, 1), LocalDate.of(2014, 12, 31)).getName());
+        System.out.println("Expected:  null for days with no files, got " +
+            catalog.fileWithMinimum(WeatherStore.Column.TEMPERATURE, LocalDate.of(1999, 1, 1), LocalDate.of(1999, 12, 31)));
+
+        // Humidity below 20, against checking every reading of every file.
+        LocalDate first = catalog.day(0);
+        LocalDate last = catalog.day(catalog.size() - 1);
+        int expected = 0;
+        for (int i = 0; i < catalog.size(); i++) {
+            for (CSVRecord record : new FileResource(catalog.file(i)).getCSVParser()) {
+                expected += compares(getNumber(record, HUMIDITY_COLUMN), "<", 20) ? 1 : 0;
+            }
+        }
+        List<CSVRecord> dry = readingsWhere(HUMIDITY_COLUMN, "<", 20, first, last);
+        System.out.println("Expected:  " + expected + " readings with humidity below 20, got " + dry.size() + ", from " +
+            catalog.filesWhere(first, last, WeatherStore.Column.HUMIDITY, "<", 20).size() + " of " + catalog.size() + " files read");
+        boolean allDry = true;
+        for (CSVRecord record : dry) {
+            allDry = allDry && getNumber(record, HUMIDITY_COLUMN) < 20;
+        }
+        System.out.println("Expected:  true for every one found below 20, got " + allDry);
+        System.out.println("Expected:  0 files for humidity above 100, got " +
+            catalog.filesWhere(first, last, WeatherStore.Column.HUMIDITY, ">", 100).size());
+
+        // A copy of a few days' files:  after a new one is added, only it is read.
+        File dir = new File("test_catalog");
+        File days = new File(dir, "days");
+        days.mkdirs();
+        for (String day : new String[] { "2014-01-29", "2014-01-30" }) {
+            copyFile(new File("nc_weather/2014/weather-" + day + ".csv"), new File(days, "weather-" + day + ".csv"));
+        }
+        System.out.println("Expected:  2 files read the first time, got " + WeatherCatalog.forDirectory(dir.getPath() + "/days").filesRead());
+        System.out.println("Expected:  0 files read the second time, got " + WeatherCatalog.forDirectory(dir.getPath() + "/days").filesRead());
+        copyFile(new File("nc_weather/2014/weather-2014-01-31.csv"), new File(days, "weather-2014-01-31.csv"));
+        WeatherCatalog grown = WeatherCatalog.forDirectory(dir.getPath() + "/days");
+        System.out.println("Expected:  1 file read after adding one, 3 in all, got " + grown.filesRead() + ", " + grown.size() + " in all");
+        int jan31 = 0;
+        while (! catalog.day(jan31).equals(LocalDate.of(2014, 1, 31))) {
+            jan31++;
+        }
+        System.out.println("Expected:  the same minimum as the full catalog for 2014-01-31, " +
+            catalog.minimum(WeatherStore.Column.TEMPERATURE, jan31) + ", got " + grown.minimum(WeatherStore.Column.TEMPERATURE, 2));
+        for (File f : days.listFiles()) {
+            f.delete();
+        }
+        days.delete();
+        new File(dir, "days.catalog").delete();
+        dir.delete();
+    }
+
+    // Copy `from` to `to`, for tests.
+    private void copyFile (File from, File to) {
+        try {
+            Files.copy(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new ResourceException("ParseWeatherData: cannot copy " + from + ": " + e.getMessage());
+        }
+    }
+
+    // Daily and monthly summaries of everything under nc_weather, made when first needed.
+    private WeatherRollups rollups = null;
+
+    /** Get daily and monthly summaries of every weather file under "nc_weather" (see
+     *  WeatherRollups).  Kept for the life of this object;  use refreshWeatherRollups()
+     *  to pick up files added since.
+     *
+     *  @return the summaries.
+     *  @throws ResourceException if the directory can't be read.
+     */
+    public synchronized WeatherRollups weatherRollups () {
+        if (rollups == null) {
+            rollups = WeatherRollups.forDirectory("nc_weather");
+        }
+        return rollups;
+    }
+
+    /** Bring weatherRollups() up to date with files added or changed since it was made,
+     *  reading only those files.
+     *
+     *  @return the summaries.
+     */
+    public synchronized WeatherRollups refreshWeatherRollups () {
+        rollups = weatherRollups().refresh();
+        return rollups;
+    }
+
+    /** The average temperature in the file of `day`, from its daily summary.  It counts
+     *  every reading with a temperature, whatever its humidity.  That is not quite what
+     *  averageTemperatureInFile() counts:  it keeps the course's rule of counting only
+     *  readings whose Humidity is a number, and counts a missing temperature (-9999) as
+     *  one.  So the two differ on days with an N/A humidity, like 2012-01-09.
+     *
+     *  @return the average temperature on `day`, or Double.NaN if there is none.
+     */
+    public double averageTemperatureOn (LocalDate day) {
+        return weatherRollups().day(WeatherStore.Column.TEMPERATURE, day).mean();
+    }
+
+    /** Find the day of `year` with the coldest temperature, from the daily summaries.
+     *
+     *  @return the day, or null if `year` has no temperatures.
+     */
+    public LocalDate coldestDayOf (int year) {
+        return weatherRollups().dayWithMinimum(WeatherStore.Column.TEMPERATURE, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+    }
+
+    /** Test driver for WeatherRollups. */
+    public void testWeatherRollups () {
+        WeatherRollups r = weatherRollups();
+        System.out.println("Expected:  average temperature on 2014-01-20 44.93333333333334, got " + averageTemperatureOn(LocalDate.of(2014, 1, 20)));
+        System.out.println("Expected:  NaN for a day with no file, got " + averageTemperatureOn(LocalDate.of(1999, 1, 1)));
+        // Every day of every year against the file itself.  The summary must match the
+        // mean of the file's temperatures.  averageTemperatureInFile() may only differ on
+        // days where it skips or miscounts a reading:  an N/A humidity or a missing
+        // temperature.
+        int dayFiles = 0;
+        int differ = 0;
+        int oldDiffers = 0;
+        int oldDiffersUnexplained = 0;
+        List<File> everyDay = new ArrayList<File>();
+        File[] years = new File("nc_weather").listFiles(File::isDirectory);
+        Arrays.sort(years);
+        for (File yearDirectory : years) {
+            everyDay.addAll(filesMatching(yearDirectory.getPath() + "/*.csv"));
+        }
+        for (File f : everyDay) {
+            double fast = averageTemperatureOn(LocalDate.parse(f.getName().substring("weather-".length(), "weather-".length() + 10)));
+            double total = 0.0;
+            int count = 0;
+            boolean oddReading = false;
+            for (CSVRecord record : new FileResource(f).getCSVParser()) {
+                double temp = getNumber(record, TEMPERATURE_COLUMN);
+                if (! Double.isNaN(temp) && temp != VALUE_MISSING_FLAG) {
+                    total = total + temp;
+                    count = count + 1;
+                }
+                oddReading = oddReading || Double.isNaN(getNumber(record, HUMIDITY_COLUMN)) || temp == VALUE_MISSING_FLAG;
+            }
+            double expected = (count == 0) ? Double.NaN : total / count;
+            dayFiles = dayFiles + 1;
+            differ += (Double.isNaN(expected) ? Double.isNaN(fast) : Math.abs(expected - fast) < 1e-9) ? 0 : 1;
+            double slow = averageTemperatureInFile(new FileResource(f).getCSVParser());
+            if (Double.compare(slow, fast) != 0) {
+                oldDiffers = oldDiffers + 1;
+                oldDiffersUnexplained += oddReading ? 0 : 1;
+            }
+        }
+        System.out.println("Expected:  0 of " + dayFiles + " days where the summary differs from the file's temperatures, got " + differ);
+        System.out.println("Expected:  averageTemperatureInFile() to differ only on days with an N/A humidity or a missing temperature, got " +
+            oldDiffers + " days differing, " + oldDiffersUnexplained + " of them otherwise");
+
+        System.out.println("Expected:  coldest day of 2014 2014-01-30, got " + coldestDayOf(2014));
+        WeatherRollups.Rollup year = r.year(WeatherStore.Column.TEMPERATURE, 2014);
+        System.out.println("Expected:  2014 from 7.0 at 2014-01-30 09:51:00 to 98.1, got " + year.minimum() + " at " +
+            year.minimumDateUTC() + " to " + year.maximum());
+        WeatherRollups.Rollup humidity = r.year(WeatherStore.Column.HUMIDITY, 2014);
+        System.out.println("Expected:  lowest humidity in 2014 13.0 at 2014-01-09 18:51:00, got " + humidity.minimum() +
+            " at " + humidity.minimumDateUTC());
+
+        // Months and a year against WeatherQuery over every 2014 reading.
+        WeatherStore store = weatherStore("nc_weather/2014");
+        Map<String, WeatherQuery.Result> means = new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MEAN)
+            .groupBy(WeatherQuery.GroupBy.MONTH).run(store);
+        double worst = 0.0;
+        for (int month = 1; month <= 12; month++) {
+            double expected = means.get(String.format("2014-%02d", month)).value();
+            worst = Math.max(worst, Math.abs(r.month(WeatherStore.Column.TEMPERATURE, YearMonth.of(2014, month)).mean() - expected));
+        }
+        System.out.println("Expected:  monthly means matching WeatherQuery to within 1e-9, got at most " + worst + " off");
+        System.out.println("Expected:  " + new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.COUNT).run(store).get("all").count() +
+            " temperatures in 2014, got " + year.count());
+        WeatherRollups.Rollup between = r.between(WeatherStore.Column.TEMPERATURE, LocalDate.of(2013, 12, 15), LocalDate.of(2014, 2, 10));
+        int count = 0;
+        for (LocalDate day = LocalDate.of(2013, 12, 15); ! day.isAfter(LocalDate.of(2014, 2, 10)); day = day.plusDays(1)) {
+            count += r.day(WeatherStore.Column.TEMPERATURE, day).count();
+        }
+        System.out.println("Expected:  " + count + " temperatures from 2013-12-15 to 2014-02-10, got " + between.count() +
+            ", coldest at 2014-01-30 09:51:00, got " + between.minimumDateUTC());
+
+        WeatherRollups again = WeatherRollups.forDirectory("nc_weather");
+        System.out.println("Expected:  0 files read loading the saved summaries, got " + again.filesRead());
+        WeatherRollups.Rollup loaded = again.year(WeatherStore.Column.TEMPERATURE, 2014);
+        System.out.println("Expected:  the same 2014 after loading, got " + (loaded.count() == year.count() &&
+            loaded.mean() == year.mean() && loaded.minimumTime() == year.minimumTime() && loaded.maximumTime() == year.maximumTime()));
+
+        // A copy of a few days' files:  after a new day arrives, only it is read.
+        File dir = new File("test_rollups");
+        File days = new File(dir, "days");
+        days.mkdirs();
+        for (String day : new String[] { "2014-01-29", "2014-01-30" }) {
+            copyFile(new File("nc_weather/2014/weather-" + day + ".csv"), new File(days, "weather-" + day + ".csv"));
+        }
+        WeatherRollups small = WeatherRollups.forDirectory(days.getPath());
+        System.out.println("Expected:  2 files read the first time, got " + small.filesRead());
+        System.out.println("Expected:  the same summaries back from refresh() with nothing new, got " + (small.refresh() == small));
+        copyFile(new File("nc_weather/2014/weather-2014-01-31.csv"), new File(days, "weather-2014-01-31.csv"));
+        small = small.refresh();
+        System.out.println("Expected:  1 file read after adding one, 3 days, got " + small.filesRead() + ", " + small.days().size() + " days");
+        System.out.println("Expected:  January 2014 so far from the 3 days, " +
+            (r.day(WeatherStore.Column.TEMPERATURE, LocalDate.of(2014, 1, 29)).count() + r.day(WeatherStore.Column.TEMPERATURE, LocalDate.of(2014, 1, 30)).count() +
+             r.day(WeatherStore.Column.TEMPERATURE, LocalDate.of(2014, 1, 31)).count()) +
+            ", got " + small.month(WeatherStore.Column.TEMPERATURE, YearMonth.of(2014, 1)).count());
+        for (File f : days.listFiles()) {
+            f.delete();
+        }
+        days.delete();
+        new File(dir, "days.rollups").delete();
+        dir.delete();
+    }
+
     /** Find the CSVRecord with the lowest humidity in the data and thus all the information about 
      *  that day, such as the hour of the lowest humidity.
      *  
@@ -217,6 +738,26 @@ public class ParseWeatherData {
         return minimumValueManyFiles(HUMIDITY_COLUMN);
     }
 
+    /** Find the row of data with the lowest humidity value in the files matching `fileGlob`.
+     *  
+     *  @param fileGlob     which weather files to search, like "nc_weather/2014/*.csv"
+     *  @return the data record containing the lowest humidity value in those files
+     */
+    public CSVRecord lowestHumidityInManyFiles (String fileGlob) {
+        return minimumValueManyFiles(HUMIDITY_COLUMN, filesMatching(fileGlob));
+    }
+
+    /** Test driver for the glob versions of fileWithColdestTemperature() and lowestHumidityInManyFiles(). */
+    public void testManyFilesByGlob () {
+        System.out.println("Expected:  Coldest day in Jan 2014 was in file weather-2014-01-30.csv");
+        System.out.println("Coldest day in Jan 2014 was in file " + fileWithColdestTemperature("nc_weather/2014/weather-2014-01-*.csv"));
+        CSVRecord lowestHumidity = lowestHumidityInManyFiles("nc_weather/2014/weather-2014-01-2[0-1].csv");
+        System.out.println("Expected:  Lowest Humidity was 24 at 2014-01-20 19:51:00");
+        System.out.println("Lowest Humidity was " + lowestHumidity.get(HUMIDITY_COLUMN) + 
+            " at " + lowestHumidity.get(DATE_COLUMN));
+        System.out.println("Expected:  0 files for a glob that matches nothing, got " + filesMatching("nc_weather/2014/*.txt").size());
+    }
+
     /** Test driver for fileWithColdestTemperature() */
     public void testLowestHumidityInManyFiles () {
         CSVRecord lowestHumidity = lowestHumidityInManyFiles();
@@ -251,7 +792,8 @@ public class ParseWeatherData {
         }
     }
     
-    /** Calculate the average temperature in the data represented by `parser`.
+    /** Calculate the average temperature in the data represented by `parser`.  Only
+     *  readings whose Humidity is a number are counted, see averageTemperatureOn().
      * 
      *  @param parser   the data to calculate the average temperature on.
      *  @return the average temperature of the data `parser` represents.  If no average
@@ -309,7 +851,7 @@ public class ParseWeatherData {
         CSVRecord coldest = coldestHourInFile(fr.getCSVParser());
         System.out.println("coldest temperature on 5/1/14 is " + getNumber(coldest, TEMPERATURE_COLUMN));
         
-        String filename = fileWithColdestTemperature();  // manually select all files in the target year. Use ctrl-A after picking 1 file.
+        String filename = fileWithColdestTemperature("nc_weather/2014/*.csv");
         System.out.println("file with coldest 2014 temperature = " + filename);
         fr = new FileResource("nc_weather/2014/"+filename);
         coldest = coldestHourInFile(fr.getCSVParser());
@@ -319,7 +861,7 @@ public class ParseWeatherData {
         CSVRecord humidity = lowestHumidityInFile(fr.getCSVParser());
         System.out.println("time of day on 4/1/2014 with the lowest humidity is " + humidity.get(DATE_COLUMN));
         
-        humidity = lowestHumidityInManyFiles();  // manually select all files in the target year.
+        humidity = lowestHumidityInManyFiles("nc_weather/2014/*.csv");
         System.out.println("lowest humidity in 2014 was " + getNumber(humidity, HUMIDITY_COLUMN) +
             " at " + humidity.get(DATE_COLUMN));
             
@@ -344,7 +886,7 @@ public class ParseWeatherData {
         System.out.println("lowest humidity on 7/22/14 was " + getNumber(lowestHumidity, HUMIDITY_COLUMN) + 
             " at " + lowestHumidity.get(DATE_COLUMN));
         
-        lowestHumidity = lowestHumidityInManyFiles();
+        lowestHumidity = lowestHumidityInManyFiles("nc_weather/2013/*.csv");
         System.out.println("lowest humidity in 2013 was " + getNumber(lowestHumidity, HUMIDITY_COLUMN) +
             " at " + lowestHumidity.get(DATE_COLUMN));
        
@@ -356,7 +898,7 @@ public class ParseWeatherData {
         averageTemp = averageTemperatureWithHighHumidityInFile(fr.getCSVParser(), 80);
         System.out.println("average temp over 80% humidity on 9/2/2013 is " + averageTemp);
         
-        String filename = fileWithColdestTemperature();
+        String filename = fileWithColdestTemperature("nc_weather/2013/*.csv");
         System.out.println("file with coldest 2013 temperature = " + filename);
         
         fr = new FileResource("nc_weather/2013/"+filename);
@@ -364,4 +906,171 @@ public class ParseWeatherData {
         System.out.println("coldest temperature that day is " + getNumber(coldest, TEMPERATURE_COLUMN));
     }
 
+    // The answer to `query` in `answers`, as it was added with ask().
+    private static WeatherQuery.Result answer (List<Map<String, WeatherQuery.Result>> answers, int query) {
+        return answers.get(query).get("all");
+    }
+
+    // Add `query` to `queries`, returning its number there.
+    private static int ask (List<WeatherQuery> queries, WeatherQuery query) {
+        queries.add(query);
+        return queries.size() - 1;
+    }
+
+    /** The same questions as practiceQuiz(), asked as WeatherQuery objects and answered
+     *  together in one pass over the 2014 readings.
+     */
+    public void practiceQuizByQuery () {
+        WeatherStore store = weatherStore("nc_weather/2014");
+        List<WeatherQuery> queries = new ArrayList<WeatherQuery>();
+        int may1 = ask(queries, new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MIN)
+            .onDay(LocalDate.of(2014, 5, 1)));
+        int coldest = ask(queries, new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MIN));
+        int april1 = ask(queries, new WeatherQuery(WeatherStore.Column.HUMIDITY, WeatherQuery.Aggregate.MIN)
+            .onDay(LocalDate.of(2014, 4, 1)));
+        int driest = ask(queries, new WeatherQuery(WeatherStore.Column.HUMIDITY, WeatherQuery.Aggregate.MIN));
+        int june1 = ask(queries, new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MEAN)
+            .onDay(LocalDate.of(2014, 6, 1)));
+        int humid = ask(queries, new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MEAN)
+            .where(WeatherStore.Column.HUMIDITY, ">=", 80).onDay(LocalDate.of(2014, 3, 30)));
+        List<Map<String, WeatherQuery.Result>> answers = WeatherQuery.run(store, queries);
+
+        System.out.println("coldest temperature on 5/1/14 is " + answer(answers, may1).value());
+        int row = answer(answers, coldest).row();
+        System.out.println("file with coldest 2014 temperature = " + store.fileName(store.fileOf(row)));
+        System.out.println("coldest temperature that day is " + answer(answers, coldest).value());
+        System.out.println("time of day on 4/1/2014 with the lowest humidity is " + store.dateUTC(answer(answers, april1).row()));
+        System.out.println("lowest humidity in 2014 was " + answer(answers, driest).value() +
+            " at " + store.dateUTC(answer(answers, driest).row()));
+        System.out.println("average temp on 6/1/2014 was " + answer(answers, june1).value());
+        System.out.println("average temp over 80% humidity on 3/30/2014 is " + answer(answers, humid).value());
+    }
+
+    /** The same questions as finalQuiz(), asked as WeatherQuery objects and answered
+     *  with one pass over the 2014 readings and one over the 2013 readings.
+     */
+    public void finalQuizByQuery () {
+        WeatherStore store2014 = weatherStore("nc_weather/2014");
+        List<WeatherQuery> queries2014 = new ArrayList<WeatherQuery>();
+        int june29 = ask(queries2014, new WeatherQuery(WeatherStore.Column.HUMIDITY, WeatherQuery.Aggregate.MIN)
+            .onDay(LocalDate.of(2014, 6, 29)));
+        int july22 = ask(queries2014, new WeatherQuery(WeatherStore.Column.HUMIDITY, WeatherQuery.Aggregate.MIN)
+            .onDay(LocalDate.of(2014, 7, 22)));
+        List<Map<String, WeatherQuery.Result>> answers2014 = WeatherQuery.run(store2014, queries2014);
+
+        WeatherStore store2013 = weatherStore("nc_weather/2013");
+        List<WeatherQuery> queries2013 = new ArrayList<WeatherQuery>();
+        int driest = ask(queries2013, new WeatherQuery(WeatherStore.Column.HUMIDITY, WeatherQuery.Aggregate.MIN));
+        int august10 = ask(queries2013, new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MEAN)
+            .onDay(LocalDate.of(2013, 8, 10)));
+        int humid = ask(queries2013, new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MEAN)
+            .where(WeatherStore.Column.HUMIDITY, ">=", 80).onDay(LocalDate.of(2013, 9, 2)));
+        int coldest = ask(queries2013, new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MIN));
+        List<Map<String, WeatherQuery.Result>> answers2013 = WeatherQuery.run(store2013, queries2013);
+
+        System.out.println("lowest humidity on 6/29/14 was " + answer(answers2014, june29).value());
+        System.out.println("lowest humidity on 7/22/14 was " + answer(answers2014, july22).value() +
+            " at " + store2014.dateUTC(answer(answers2014, july22).row()));
+        System.out.println("lowest humidity in 2013 was " + answer(answers2013, driest).value() +
+            " at " + store2013.dateUTC(answer(answers2013, driest).row()));
+        System.out.println("average temp on 8/10/2013 was " + answer(answers2013, august10).value());
+        System.out.println("average temp over 80% humidity on 9/2/2013 is " + answer(answers2013, humid).value());
+        int row = answer(answers2013, coldest).row();
+        System.out.println("file with coldest 2013 temperature = " + store2013.fileName(store2013.fileOf(row)));
+        System.out.println("coldest temperature that day is " + answer(answers2013, coldest).value());
+    }
+
+    /** Test driver for WeatherQuery. */
+    public void testWeatherQuery () {
+        WeatherStore store = weatherStore("nc_weather/2014");
+        WeatherQuery.Result r = new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MEAN)
+            .onDay(LocalDate.of(2014, 1, 20)).run(store).get("all");
+        System.out.println("Expected:  average temperature on 2014-01-20 44.93333333333334, got " + r.value());
+        r = new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MEAN)
+            .where(WeatherStore.Column.HUMIDITY, ">=", 80).onDay(LocalDate.of(2014, 3, 20)).run(store).get("all");
+        System.out.println("Expected:  average temperature over 80% humidity on 2014-03-20 41.78666666666667, got " + r.value());
+        r = new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MEAN)
+            .where(WeatherStore.Column.HUMIDITY, ">=", 80).onDay(LocalDate.of(2014, 1, 20)).run(store).get("all");
+        System.out.println("Expected:  NaN of 0 for no readings, got " + r);
+        r = new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MIN).run(store).get("all");
+        System.out.println("Expected:  coldest 2014 7.0 at 2014-01-30 09:51:00, got " + r.value() + " at " + store.dateUTC(r.row()));
+        r = new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MAX).run(store).get("all");
+        System.out.println("Expected:  hottest 2014 98.1, got " + r.value());
+
+        // Every aggregate by month, against working it out from the readings of each month.
+        int[] months = new int[store.size()];
+        for (int row = 0; row < store.size(); row++) {
+            months[row] = Instant.ofEpochSecond(store.time(row)).atZone(WeatherQuery.LOCAL).getMonthValue();
+        }
+        List<WeatherQuery> queries = new ArrayList<WeatherQuery>();
+        for (WeatherQuery.Aggregate a : WeatherQuery.Aggregate.values()) {
+            if (a != WeatherQuery.Aggregate.PERCENTILE) {
+                queries.add(new WeatherQuery(WeatherStore.Column.TEMPERATURE, a)
+                    .where(WeatherStore.Column.HUMIDITY, "<", 50).groupBy(WeatherQuery.GroupBy.MONTH));
+            }
+        }
+        queries.add(WeatherQuery.percentile(WeatherStore.Column.TEMPERATURE, 90)
+            .where(WeatherStore.Column.HUMIDITY, "<", 50).groupBy(WeatherQuery.GroupBy.MONTH));
+        List<Map<String, WeatherQuery.Result>> answers = WeatherQuery.run(store, queries);
+        boolean same = answers.get(0).size() == 12;
+        double worstPercentile = 0.0;
+        for (int month = 1; month <= 12; month++) {
+            List<Double> values = new ArrayList<Double>();
+            int first = -1;
+            int last = -1;
+            for (int row = 0; row < store.size(); row++) {
+                double t = store.get(WeatherStore.Column.TEMPERATURE, row);
+                if (months[row] == month && store.get(WeatherStore.Column.HUMIDITY, row) < 50 && ! Double.isNaN(t)) {
+                    values.add(t);
+                    first = (first == -1 || t < store.get(WeatherStore.Column.TEMPERATURE, first)) ? row : first;
+                    last = (last == -1 || t > store.get(WeatherStore.Column.TEMPERATURE, last)) ? row : last;
+                }
+            }
+            double sum = 0.0;
+            for (double v : values) sum += v;
+            double mean = sum / values.size();
+            double squares = 0.0;
+            for (double v : values) squares += (v - mean) * (v - mean);
+            Collections.sort(values);
+            String group = String.format("2014-%02d", month);
+            same = same && answers.get(0).get(group).row() == first
+                        && answers.get(1).get(group).row() == last
+                        && Math.abs(answers.get(2).get(group).value() - mean) < 1e-9
+                        && answers.get(3).get(group).value() == values.size()
+                        && Math.abs(answers.get(4).get(group).value() - Math.sqrt(squares / (values.size() - 1))) < 1e-9;
+            double exact = values.get((int) Math.ceil(0.9 * values.size()) - 1);
+            worstPercentile = Math.max(worstPercentile, Math.abs(answers.get(5).get(group).value() - exact));
+        }
+        System.out.println("Expected:  true for every aggregate by month matching brute force, got " + same);
+        System.out.println("Expected:  the exact 90th percentile every month, to within 0.005, got at most " + worstPercentile + " off");
+
+        Map<String, WeatherQuery.Result> hours = new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.COUNT)
+            .groupBy(WeatherQuery.GroupBy.HOUR).run(store);
+        long total = 0;
+        for (WeatherQuery.Result hour : hours.values()) total += hour.count();
+        System.out.println("Expected:  24 hours, from 00 to 23, got " + hours.size() + ", from " +
+            hours.keySet().iterator().next() + " to " + new ArrayList<String>(hours.keySet()).get(hours.size() - 1));
+        System.out.println("Expected:  every temperature counted once, " +
+            new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.COUNT).run(store).get("all").count() +
+            ", got " + total);
+        Map<String, WeatherQuery.Result> days = new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MIN)
+            .groupBy(WeatherQuery.GroupBy.DAY).run(store);
+        boolean filesAreDays = days.size() == store.fileCount();
+        for (int f = 0; filesAreDays && f < store.fileCount(); f++) {
+            String day = store.fileName(f).substring("weather-".length(), "weather-".length() + 10);
+            filesAreDays = days.containsKey(day) && store.fileOf(days.get(day).row()) == f;
+        }
+        System.out.println("Expected:  true for each day's readings being its file's, got " + filesAreDays);
+    }
+
+    /** Runs the test drivers that need no file picked. */
+    public static void main (String[] args) {
+        ParseWeatherData pwd = new ParseWeatherData();
+        pwd.testColdestHourInFile();
+        pwd.testLowestHumidityInFile();
+        pwd.testManyFilesByGlob();
+        pwd.testAverageTemperatureInFile();
+        pwd.testAverageTemperatureWithHighHumidityInFile();
+    }
+
 }  // ParseWeatherData
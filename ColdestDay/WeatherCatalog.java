@@ -0,0 +1,344 @@
+import edu.duke.*;
+import java.io.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A catalog of every weather file under a directory, like "nc_weather":  the day each
+ * file covers, and the lowest and highest value of each numeric column in it.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Knowing each file's range of values means a search can pass over a file without
+ * opening it.  The coldest hour of January 2013 is in whichever January 2013 file has
+ * the lowest minimum temperature, so only that one file is read.  A reading with
+ * humidity below 20 can only be in a file whose minimum humidity is below 20, which
+ * for nc_weather is a few dozen files out of over a thousand.
+ * <p>
+ * A file's day comes from its name, "weather-YYYY-MM-DD.csv".  Files named any other
+ * way are left out of the catalog.
+ * <p>
+ * `forDirectory()` saves the catalog next to the directory, like "nc_weather" gets
+ * "nc_weather.catalog".  Each file is remembered with its size and last modified time,
+ * so the next time only files that are new or have changed are read again.
+ */
+public class WeatherCatalog {
+
+    private static final int MAGIC = 0x57434154;    // "WCAT"
+    private static final int VERSION = 1;
+    private static final Pattern FILE_NAME = Pattern.compile("weather-(\\d{4}-\\d{2}-\\d{2})\\.csv");
+    private static final WeatherStore.Column[] COLUMNS = WeatherStore.Column.values();
+
+    // One file's entry.
+    private static class Zone {
+        final String path;          // from the catalog's directory, with '/' between names
+        final long modified;
+        final long length;
+        final long day;             // epoch day
+        final int readings;
+        final double[] min;         // by column ordinal;  NaN if the column has no values
+        final double[] max;
+
+        Zone (String path, long modified, long length, long day, int readings, double[] min, double[] max) {
+            this.path = path;
+            this.modified = modified;
+            this.length = length;
+            this.day = day;
+            this.readings = readings;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    private final File directory;
+    private final List<Zone> zones;     // in day order
+    private final int filesRead;
+
+    private WeatherCatalog (File directory, List<Zone> zones, int filesRead) {
+        this.directory = directory;
+        this.zones = zones;
+        this.filesRead = filesRead;
+    }
+
+    /** Get the catalog of every weather file in `directory` and the directories below it.
+     *  The catalog saved next to the directory is used for every file that hasn't
+     *  changed since;  only new or changed files are read, and then the catalog is saved
+     *  again.
+     *
+     *  @param directory    the top directory of weather files, like "nc_weather"
+     *  @return the catalog.
+     *  @throws ResourceException if the directory or a file in it can't be read.
+     */
+    public static WeatherCatalog forDirectory (String directory) {
+        File top = new File(directory);
+        if (! top.isDirectory()) {
+            throw new ResourceException("WeatherCatalog: cannot list directory " + directory);
+        }
+        File saved = new File(top.getPath() + ".catalog");
+        Map<String, Zone> known = new HashMap<String, Zone>();
+        if (saved.isFile()) {
+            try {
+                for (Zone z : load(saved.getPath(), top).zones) {
+                    known.put(z.path, z);
+                }
+            } catch (ResourceException e) {
+                // Unreadable or from an older version.  Read every file again instead.
+            }
+        }
+
+        List<Zone> zones = new ArrayList<Zone>();
+        int read = 0;
+        for (String path : weatherFiles(top, "")) {
+            File file = new File(top, path);
+            Zone z = known.get(path);
+            if (z == null || z.modified != file.lastModified() || z.length != file.length()) {
+                z = zoneOf(file, path);
+                read = read + 1;
+            }
+            zones.add(z);
+        }
+        sortByDay(zones);
+
+        WeatherCatalog catalog = new WeatherCatalog(top, zones, read);
+        if (read > 0 || zones.size() != known.size()) {
+            try {
+                catalog.save(saved.getPath());
+            } catch (ResourceException e) {
+                // Can't save it, maybe a read only directory.  It still works, just slower next time.
+            }
+        }
+        return catalog;
+    }
+
+    // Every weather file in `dir` and below, as paths from the top directory, which
+    // `dir` is at `prefix` of.  WeatherRollups finds its files the same way.
+    static List<String> weatherFiles (File dir, String prefix) {
+        File[] entries = dir.listFiles();
+        if (entries == null) {
+            throw new ResourceException("WeatherCatalog: cannot list directory " + dir);
+        }
+        Arrays.sort(entries);
+        List<String> paths = new ArrayList<String>();
+        for (File f : entries) {
+            if (f.isDirectory()) {
+                paths.addAll(weatherFiles(f, prefix + f.getName() + "/"));
+            } else if (FILE_NAME.matcher(f.getName()).matches()) {
+                paths.add(prefix + f.getName());
+            }
+        }
+        return paths;
+    }
+
+    // The day a weather file covers, from its name.
+    static LocalDate dayOf (File file) {
+        Matcher m = FILE_NAME.matcher(file.getName());
+        if (! m.matches()) {
+            throw new ResourceException("WeatherCatalog: " + file.getName() + " isn't named weather-YYYY-MM-DD.csv");
+        }
+        return LocalDate.parse(m.group(1));
+    }
+
+    // Read `file` and work out its entry.
+    private static Zone zoneOf (File file, String path) {
+        long day = dayOf(file).toEpochDay();
+        WeatherStore store = WeatherStore.ingest(Collections.singletonList(file));
+        double[] min = new double[COLUMNS.length];
+        double[] max = new double[COLUMNS.length];
+        for (WeatherStore.Column c : COLUMNS) {
+            double lo = Double.NaN;
+            double hi = Double.NaN;
+            for (int row = 0; row < store.size(); row++) {
+                double v = store.get(c, row);
+                // NaN compares false, so the first value always replaces a NaN.
+                lo = (v < lo || Double.isNaN(lo)) ? v : lo;
+                hi = (v > hi || Double.isNaN(hi)) ? v : hi;
+            }
+            min[c.ordinal()] = lo;
+            max[c.ordinal()] = hi;
+        }
+        return new Zone(path, file.lastModified(), file.length(), day, store.size(), min, max);
+    }
+
+    private static void sortByDay (List<Zone> zones) {
+        zones.sort((a, b) -> (a.day != b.day) ? Long.compare(a.day, b.day) : a.path.compareTo(b.path));
+    }
+
+    /** Save the catalog as `filename`.
+     *
+     *  @throws ResourceException if the file can't be written.
+     */
+    public void save (String filename) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(COLUMNS.length);
+            out.writeInt(zones.size());
+            for (Zone z : zones) {
+                out.writeUTF(z.path);
+                out.writeLong(z.modified);
+                out.writeLong(z.length);
+                out.writeLong(z.day);
+                out.writeInt(z.readings);
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    out.writeDouble(z.min[c]);
+                    out.writeDouble(z.max[c]);
+                }
+            }
+        } catch (IOException e) {
+            throw new ResourceException("WeatherCatalog: cannot write " + filename + ": " + e.getMessage());
+        }
+    }
+
+    /** Load a catalog saved by `save()`, without checking whether the files in it have
+     *  changed since.
+     *
+     *  @param filename     the saved catalog
+     *  @param directory    the directory the catalog is of, like "nc_weather"
+     *  @return the catalog.
+     *  @throws ResourceException if the file can't be read or isn't a saved catalog.
+     */
+    public static WeatherCatalog load (String filename, String directory) {
+        return load(filename, new File(directory));
+    }
+
+    private static WeatherCatalog load (String filename, File directory) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != COLUMNS.length) {
+                throw new ResourceException("WeatherCatalog: " + filename + " is not a catalog this version can read");
+            }
+            int n = in.readInt();
+            List<Zone> zones = new ArrayList<Zone>(n);
+            for (int i = 0; i < n; i++) {
+                String path = in.readUTF();
+                long modified = in.readLong();
+                long length = in.readLong();
+                long day = in.readLong();
+                int readings = in.readInt();
+                double[] min = new double[COLUMNS.length];
+                double[] max = new double[COLUMNS.length];
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    min[c] = in.readDouble();
+                    max[c] = in.readDouble();
+                }
+                zones.add(new Zone(path, modified, length, day, readings, min, max));
+            }
+            return new WeatherCatalog(directory, zones, 0);
+        } catch (IOException e) {
+            throw new ResourceException("WeatherCatalog: cannot read " + filename + ": " + e.getMessage());
+        }
+    }
+
+    /** @return how many files are in the catalog. */
+    public int size () { return zones.size(); }
+
+    /** @return how many files were read to make this catalog, rather than coming from
+     *  the saved one. */
+    public int filesRead () { return filesRead; }
+
+    /** @return file number `i`, in day order. */
+    public File file (int i) { return new File(directory, zones.get(i).path); }
+
+    /** @return the day file number `i` covers. */
+    public LocalDate day (int i) { return LocalDate.ofEpochDay(zones.get(i).day); }
+
+    /** @return how many readings file number `i` has. */
+    public int readings (int i) { return zones.get(i).readings; }
+
+    /** @return the lowest value of `column` in file number `i`, or NaN if it has none. */
+    public double minimum (WeatherStore.Column column, int i) { return zones.get(i).min[column.ordinal()]; }
+
+    /** @return the highest value of `column` in file number `i`, or NaN if it has none. */
+    public double maximum (WeatherStore.Column column, int i) { return zones.get(i).max[column.ordinal()]; }
+
+    /** Find the files for days `from` through `to`.
+     *
+     *  @return the files, in day order.
+     */
+    public List<File> filesBetween (LocalDate from, LocalDate to) {
+        List<File> files = new ArrayList<File>();
+        for (int i = first(from); i < zones.size() && zones.get(i).day <= to.toEpochDay(); i++) {
+            files.add(file(i));
+        }
+        return files;
+    }
+
+    // The first file on or after `day`.
+    private int first (LocalDate day) {
+        long d = day.toEpochDay();
+        int lo = 0;
+        int hi = zones.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (zones.get(mid).day < d) lo = mid + 1;
+            else                        hi = mid;
+        }
+        return lo;
+    }
+
+    /** Find the files for days `from` through `to` that might have a reading whose
+     *  `column` compares to `value` by `operator`:  one of &lt; &lt;= &gt; &gt;= == !=,
+     *  the same as WeatherQuery.where().  Every file that does is found;  some found may
+     *  turn out not to.
+     *
+     *  @return the files, in day order.
+     *  @throws IllegalArgumentException if `operator` isn't one of those.
+     */
+    public List<File> filesWhere (LocalDate from, LocalDate to, WeatherStore.Column column, String operator, double value) {
+        List<File> files = new ArrayList<File>();
+        int c = column.ordinal();
+        for (int i = first(from); i < zones.size() && zones.get(i).day <= to.toEpochDay(); i++) {
+            double lo = zones.get(i).min[c];
+            double hi = zones.get(i).max[c];
+            boolean possible;
+            switch (operator) {
+                case "<":  possible = lo < value;   break;
+                case "<=": possible = lo <= value;  break;
+                case ">":  possible = hi > value;   break;
+                case ">=": possible = hi >= value;  break;
+                case "==": possible = lo <= value && value <= hi;   break;
+                case "!=": possible = lo < value || hi > value;     break;
+                default:
+                    throw new IllegalArgumentException("WeatherCatalog: don't recognize operator '" + operator + "'");
+            }
+            if (possible) {
+                files.add(file(i));
+            }
+        }
+        return files;
+    }
+
+    /** Find the file for days `from` through `to` with the lowest value of `column`.
+     *  Of files with equal lowest values, the earliest wins.
+     *
+     *  @return the file, or null if no file in the range has a value.
+     */
+    public File fileWithMinimum (WeatherStore.Column column, LocalDate from, LocalDate to) {
+        return fileWithExtreme(column, from, to, true);
+    }
+
+    /** Same as fileWithMinimum(), but the highest value. */
+    public File fileWithMaximum (WeatherStore.Column column, LocalDate from, LocalDate to) {
+        return fileWithExtreme(column, from, to, false);
+    }
+
+    private File fileWithExtreme (WeatherStore.Column column, LocalDate from, LocalDate to, boolean lowest) {
+        int c = column.ordinal();
+        int best = -1;
+        for (int i = first(from); i < zones.size() && zones.get(i).day <= to.toEpochDay(); i++) {
+            double v = lowest ? zones.get(i).min[c] : zones.get(i).max[c];
+            if (! Double.isNaN(v) && (best == -1 || (lowest ? v < zones.get(best).min[c] : v > zones.get(best).max[c]))) {
+                best = i;
+            }
+        }
+        return (best == -1) ? null : file(best);
+    }
+
+}  // WeatherCatalog
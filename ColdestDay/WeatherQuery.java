@@ -0,0 +1,483 @@
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One question about weather readings, like "the average temperature on 2014-03-30
+ * when the humidity was at least 80", answered from a WeatherStore.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * A query is a column, an aggregate of it, any number of conditions on the other
+ * columns or the day, and optionally a grouping by day, month or hour of the day:
+ * <pre>
+ *     new WeatherQuery(Column.TEMPERATURE, Aggregate.MEAN)
+ *         .where(Column.HUMIDITY, "&gt;=", 80)
+ *         .onDay(LocalDate.of(2014, 3, 30))
+ * </pre>
+ * Any number of queries are answered together by `run()`, in one pass over the
+ * readings, so a whole quiz of questions costs one scan instead of a pass through
+ * the CSV files per question.
+ * <p>
+ * Missing values never meet a condition and are never aggregated.  Days, months and
+ * hours are local time in North Carolina (America/New_York), the same days the
+ * weather files are named for.
+ * <p>
+ * Percentiles are counted in a histogram of the values, in buckets a hundredth wide,
+ * the most precise any column is recorded.  So a group holds a count per different
+ * value rather than every reading, and the percentile is exact for weather data.  A
+ * group with thousands of different values has its buckets widened to keep the
+ * histogram small, and the percentile is then the middle of its bucket.
+ */
+public class WeatherQuery {
+
+    /** What to work out from the values of a column. */
+    public enum Aggregate { MIN, MAX, MEAN, COUNT, STDDEV, PERCENTILE }
+
+    /** How to split readings into groups, each answered on its own. */
+    public enum GroupBy { NONE, DAY, MONTH, HOUR }
+
+    /** The time zone days, months and hours are in. */
+    public static final ZoneId LOCAL = ZoneId.of("America/New_York");
+
+    /** The answer for one group. */
+    public static class Result {
+        private final long count;
+        private final double value;
+        private final int row;
+
+        Result (long count, double value, int row) {
+            this.count = count;
+            this.value = value;
+            this.row = row;
+        }
+
+        /** @return how many readings met the conditions. */
+        public long count () { return count; }
+
+        /** @return the aggregate, or NaN if no reading met the conditions.  For COUNT
+         *  it is the same as count(). */
+        public double value () { return value; }
+
+        /** @return for MIN and MAX, the reading in the store that has the value (the
+         *  first, if several do).  Otherwise -1. */
+        public int row () { return row; }
+
+        public String toString () { return value + " of " + count; }
+    }
+
+    // Comparison operators, by the text `where()` takes.
+    private static final List<String> OPERATORS = Arrays.asList("<", "<=", ">", ">=", "==", "!=");
+    private static final WeatherStore.Column[] COLUMNS = WeatherStore.Column.values();
+
+    private final WeatherStore.Column column;
+    private final Aggregate aggregate;
+    private final double percentile;
+    private int[] whereColumns = new int[0];
+    private int[] whereOperators = new int[0];
+    private double[] whereValues = new double[0];
+    private long day = Long.MIN_VALUE;      // epoch day to keep, or MIN_VALUE for any
+    private GroupBy groupBy = GroupBy.NONE;
+
+    /** Ask for `aggregate` of `column`.  For a percentile, use `percentile()`.
+     *
+     *  @throws IllegalArgumentException if `aggregate` is PERCENTILE.
+     */
+    public WeatherQuery (WeatherStore.Column column, Aggregate aggregate) {
+        this(column, aggregate, Double.NaN);
+        if (aggregate == Aggregate.PERCENTILE) {
+            throw new IllegalArgumentException("WeatherQuery: use percentile() to say which percentile");
+        }
+    }
+
+    private WeatherQuery (WeatherStore.Column column, Aggregate aggregate, double percentile) {
+        this.column = column;
+        this.aggregate = aggregate;
+        this.percentile = percentile;
+    }
+
+    /** Ask for the `p`th percentile of `column`, such as 90 for the value 90% of
+     *  readings are at or below.
+     *
+     *  @throws IllegalArgumentException if `p` isn't between 0 and 100.
+     */
+    public static WeatherQuery percentile (WeatherStore.Column column, double p) {
+        if (! (p >= 0 && p <= 100)) {
+            throw new IllegalArgumentException("WeatherQuery: percentile " + p + " isn't between 0 and 100");
+        }
+        return new WeatherQuery(column, Aggregate.PERCENTILE, p / 100);
+    }
+
+    /** Only count readings whose `other` column compares to `value` by `operator`:
+     *  one of &lt; &lt;= &gt; &gt;= == !=.  Conditions add up, so every one must be met.
+     *
+     *  @return this query, so conditions can be chained.
+     *  @throws IllegalArgumentException if `operator` isn't one of those.
+     */
+    public WeatherQuery where (WeatherStore.Column other, String operator, double value) {
+        int op = OPERATORS.indexOf(operator);
+        if (op == -1) {
+            throw new IllegalArgumentException("WeatherQuery: don't recognize operator '" + operator + "'");
+        }
+        int n = whereColumns.length;
+        whereColumns = Arrays.copyOf(whereColumns, n + 1);
+        whereOperators = Arrays.copyOf(whereOperators, n + 1);
+        whereValues = Arrays.copyOf(whereValues, n + 1);
+        whereColumns[n] = other.ordinal();
+        whereOperators[n] = op;
+        whereValues[n] = value;
+        return this;
+    }
+
+    /** Only count readings taken on local day `date`.
+     *
+     *  @return this query, so conditions can be chained.
+     */
+    public WeatherQuery onDay (LocalDate date) {
+        day = date.toEpochDay();
+        return this;
+    }
+
+    /** Answer separately for each day, month or hour of the day.
+     *
+     *  @return this query, so conditions can be chained.
+     */
+    public WeatherQuery groupBy (GroupBy groupBy) {
+        this.groupBy = groupBy;
+        return this;
+    }
+
+    /** Answer this query alone.  See run(store, queries). */
+    public Map<String, Result> run (WeatherStore store) {
+        return run(store, Collections.singletonList(this)).get(0);
+    }
+
+    /** Answer every query in `queries` in one pass over the readings in `store`.
+     *
+     *  @return for each query, in the same order, its answer for each group, in group
+     *  order.  Groups are named like "2014-03-30" for a day, "2014-03" for a month and
+     *  "07" for an hour.  With no grouping there is always one group, "all".  Groups
+     *  no reading gets into are left out.
+     */
+    public static List<Map<String, Result>> run (WeatherStore store, List<WeatherQuery> queries) {
+        WeatherQuery[] qs = queries.toArray(new WeatherQuery[0]);
+        Groups[] groups = new Groups[qs.length];
+        boolean needsClock = false;
+        for (int q = 0; q < qs.length; q++) {
+            groups[q] = new Groups();
+            needsClock = needsClock || qs[q].day != Long.MIN_VALUE || qs[q].groupBy != GroupBy.NONE;
+        }
+
+        // The pass goes a block of readings at a time:  the local time of each reading
+        // in the block is worked out once, then each query runs over the block while it
+        // is still in the cache.  A tight loop per query is faster than switching from
+        // query to query at every reading.
+        LocalClock clock = new LocalClock();
+        long[][] times = new long[3][BLOCK];       // day, month, hour of each reading
+        for (int from = 0; from < store.size(); from += BLOCK) {
+            int to = Math.min(from + BLOCK, store.size());
+            if (needsClock) {
+                for (int row = from; row < to; row++) {
+                    clock.set(store.time(row));
+                    times[0][row - from] = clock.day;
+                    times[1][row - from] = clock.month;
+                    times[2][row - from] = clock.hour;
+                }
+            }
+            for (int q = 0; q < qs.length; q++) {
+                qs[q].add(store, from, to, times, groups[q]);
+            }
+        }
+
+        List<Map<String, Result>> answers = new ArrayList<Map<String, Result>>();
+        for (int q = 0; q < qs.length; q++) {
+            Map<String, Result> answer = new LinkedHashMap<String, Result>();
+            for (Map.Entry<Long, Accumulator> e : new TreeMap<Long, Accumulator>(groups[q].all).entrySet()) {
+                answer.put(qs[q].groupName(e.getKey()), e.getValue().result());
+            }
+            if (qs[q].groupBy == GroupBy.NONE && answer.isEmpty()) {
+                answer.put("all", new Accumulator(qs[q].aggregate, qs[q].percentile).result());
+            }
+            answers.add(answer);
+        }
+        return answers;
+    }
+
+    private static final int BLOCK = 1024;
+
+    // A query's groups so far, and the one it added to last:  readings come in time
+    // order, so the next reading is usually in the same group.
+    private static class Groups {
+        final HashMap<Long, Accumulator> all = new HashMap<Long, Accumulator>();
+        Accumulator last;
+        long lastKey = Long.MIN_VALUE;
+    }
+
+    // Add the readings `from` up to `to` that meet this query's conditions.  `times`
+    // holds their local day, month and hour, starting with reading `from`.
+    private void add (WeatherStore store, int from, int to, long[][] times, Groups groups) {
+        long[] keys = (groupBy == GroupBy.DAY) ? times[0] : (groupBy == GroupBy.MONTH) ? times[1] : times[2];
+        for (int row = from; row < to; row++) {
+            double value = store.get(column, row);
+            if (Double.isNaN(value) || ! matches(store, row, times[0][row - from])) {
+                continue;
+            }
+            long key = (groupBy == GroupBy.NONE) ? 0 : keys[row - from];
+            if (key != groups.lastKey) {
+                groups.last = groups.all.get(key);
+                if (groups.last == null) {
+                    groups.last = new Accumulator(aggregate, percentile);
+                    groups.all.put(key, groups.last);
+                }
+                groups.lastKey = key;
+            }
+            groups.last.add(value, row);
+        }
+    }
+
+    private boolean matches (WeatherStore store, int row, long localDay) {
+        if (day != Long.MIN_VALUE && localDay != day) {
+            return false;
+        }
+        for (int w = 0; w < whereColumns.length; w++) {
+            double v = store.get(COLUMNS[whereColumns[w]], row);
+            double limit = whereValues[w];
+            boolean met;
+            switch (whereOperators[w]) {
+                case 0:  met = v < limit;   break;
+                case 1:  met = v <= limit;  break;
+                case 2:  met = v > limit;   break;
+                case 3:  met = v >= limit;  break;
+                case 4:  met = v == limit;  break;
+                default: met = v != limit && ! Double.isNaN(v);  break;
+            }
+            if (! met) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String groupName (long key) {
+        switch (groupBy) {
+            case DAY:   return LocalDate.ofEpochDay(key).toString();
+            case MONTH: return String.format("%04d-%02d", key / 12, key % 12 + 1);
+            case HOUR:  return String.format("%02d", key);
+            default:    return "all";
+        }
+    }
+
+    // Local day, month and hour of a time.  The offset from UTC only changes twice a
+    // year, so it is looked up again only when a time is outside the stretch the last
+    // offset covers.  Readings come in time order, so most are on the same day as the
+    // one before, and only the hour needs working out.
+    private static class LocalClock {
+        final ZoneRules rules = LOCAL.getRules();
+        long offsetFrom = Long.MAX_VALUE;       // the offset holds from here...
+        long offsetTo = Long.MIN_VALUE;         // ...up to but not including here
+        int offset;
+        long dayStart = Long.MAX_VALUE;         // local seconds at the start of `day`
+        long day;           // epoch day
+        long month;         // year * 12 + month - 1
+        long hour;
+
+        void set (long time) {
+            if (time < offsetFrom || time >= offsetTo) {
+                Instant instant = Instant.ofEpochSecond(time);
+                offset = rules.getOffset(instant).getTotalSeconds();
+                ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+                ZoneOffsetTransition next = rules.nextTransition(instant);
+                offsetFrom = (previous == null) ? Long.MIN_VALUE : previous.toEpochSecond();
+                offsetTo = (next == null) ? Long.MAX_VALUE : next.toEpochSecond();
+            }
+            long local = time + offset;
+            if (local < dayStart || local >= dayStart + 86400) {
+                day = Math.floorDiv(local, 86400L);
+                dayStart = day * 86400;
+                LocalDate date = LocalDate.ofEpochDay(day);
+                month = date.getYear() * 12L + date.getMonthValue() - 1;
+            }
+            hour = (int) (local - dayStart) / 3600;
+        }
+    }
+
+    // Running state for one query and group.
+    private static class Accumulator {
+        final Aggregate aggregate;
+        long count = 0;
+        double sum = 0.0;
+        double mean = 0.0;      // Welford's running mean and sum of squared differences
+        double squares = 0.0;
+        double min = Double.NaN;
+        double max = Double.NaN;
+        int minRow = -1;
+        int maxRow = -1;
+        Histogram quantile;
+
+        Accumulator (Aggregate aggregate, double percentile) {
+            this.aggregate = aggregate;
+            if (aggregate == Aggregate.PERCENTILE) {
+                quantile = new Histogram(percentile);
+            }
+        }
+
+        void add (double value, int row) {
+            count = count + 1;
+            switch (aggregate) {
+                case MIN:
+                    if (minRow == -1 || value < min) {
+                        min = value;
+                        minRow = row;
+                    }
+                    break;
+                case MAX:
+                    if (maxRow == -1 || value > max) {
+                        max = value;
+                        maxRow = row;
+                    }
+                    break;
+                case MEAN:
+                    sum = sum + value;
+                    break;
+                case STDDEV:
+                    double delta = value - mean;
+                    mean = mean + delta / count;
+                    squares = squares + delta * (value - mean);
+                    break;
+                case PERCENTILE:
+                    quantile.add(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        Result result () {
+            if (aggregate == Aggregate.COUNT) {
+                return new Result(count, count, -1);
+            }
+            if (count == 0) {
+                return new Result(0, Double.NaN, -1);
+            }
+            switch (aggregate) {
+                case MIN:    return new Result(count, min, minRow);
+                case MAX:    return new Result(count, max, maxRow);
+                case MEAN:   return new Result(count, sum / count, -1);
+                case STDDEV: return new Result(count, (count < 2) ? 0.0 : Math.sqrt(squares / (count - 1)), -1);
+                default:     return new Result(count, quantile.estimate(), -1);
+            }
+        }
+    }
+
+    // Counts of values, in buckets a hundredth wide to start with:  the readings are
+    // never more precise than that, so most columns only have a few hundred or thousand
+    // different values in a year.  If there get to be more than MAX_BUCKETS, neighbouring
+    // buckets are merged in pairs, doubling the width, so it never gets bigger than that.
+    // The buckets are an open addressing hash table of bucket number to count.
+    private static class Histogram {
+        static final double PRECISION = 0.01;
+        static final int MAX_BUCKETS = 4096;
+        static final long EMPTY = Long.MIN_VALUE;
+        final double p;
+        long[] keys = newKeys(64);
+        long[] counts = new long[64];
+        int used = 0;
+        int shift = 0;      // each bucket is 2^shift hundredths wide
+        long count = 0;
+
+        Histogram (double p) {
+            this.p = p;
+        }
+
+        static long[] newKeys (int size) {
+            long[] keys = new long[size];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        void add (double x) {
+            put(Math.round(x / PRECISION) >> shift, 1);
+            count++;
+            if (used > MAX_BUCKETS) {
+                rebuild(keys.length, 1);
+            }
+        }
+
+        void put (long key, long n) {
+            int mask = keys.length - 1;
+            int i = (int) (key ^ (key >>> 32)) * 0x9E3779B9 >>> 16 & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                used++;
+                if (used * 2 > keys.length) {
+                    counts[i] = n;
+                    rebuild(keys.length * 2, 0);
+                    return;
+                }
+            }
+            counts[i] += n;
+        }
+
+        // Put every bucket into a new table of `size`, merging `merge` times.
+        void rebuild (int size, int merge) {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            keys = newKeys(size);
+            counts = new long[size];
+            used = 0;
+            shift = shift + merge;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i] >> merge, oldCounts[i]);
+                }
+            }
+        }
+
+        // The value at or below which p of the values fall (the nearest rank), as the
+        // middle of its bucket.
+        double estimate () {
+            long[] sorted = new long[used];
+            int n = 0;
+            for (long key : keys) {
+                if (key != EMPTY) {
+                    sorted[n++] = key;
+                }
+            }
+            Arrays.sort(sorted);
+            long rank = Math.max(1, (long) Math.ceil(p * count));
+            long seen = 0;
+            for (long key : sorted) {
+                seen += countOf(key);
+                if (seen >= rank) {
+                    long width = 1L << shift;
+                    return (key * width + (width - 1) / 2.0) * PRECISION;
+                }
+            }
+            return Double.NaN;
+        }
+
+        long countOf (long key) {
+            int mask = keys.length - 1;
+            int i = (int) (key ^ (key >>> 32)) * 0x9E3779B9 >>> 16 & mask;
+            while (keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            return counts[i];
+        }
+    }
+
+}  // WeatherQuery
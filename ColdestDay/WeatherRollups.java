@@ -0,0 +1,449 @@
+import edu.duke.*;
+import java.io.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Daily and monthly summaries of every weather file under a directory, like
+ * "nc_weather":  for each numeric column, the count, lowest, highest and mean of its
+ * values, and when the lowest and highest were read.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * A question like the average temperature on 6/1/2014 is one day's row, not a pass
+ * over that day's CSV file, and the coldest day of a year is the lowest of 365 rows
+ * instead of 10,000 readings.  Months are worked out from their days when the
+ * summaries are loaded, and a year or any other range of days from its months and
+ * days.
+ * <p>
+ * A day's summary comes from its file, "weather-YYYY-MM-DD.csv";  days are the ones
+ * the files are named for.  Missing values are left out, the same as in WeatherStore.
+ * Of equal lowest or highest values, the earliest reading is the one kept.
+ * <p>
+ * `forDirectory()` saves the daily summaries next to the directory, like "nc_weather"
+ * gets "nc_weather.rollups", with the size and last modified time of each file.  When
+ * a new day's file arrives, `refresh()` (or `forDirectory()` next time) reads just
+ * that file and saves the summaries again.
+ */
+public class WeatherRollups {
+
+    /** The summary of one column over a day, month or other stretch of days. */
+    public static class Rollup {
+        private int count = 0;
+        private double sum = 0.0;
+        private double min = Double.NaN;
+        private double max = Double.NaN;
+        private long minTime = 0;
+        private long maxTime = 0;
+
+        /** @return how many readings had a value. */
+        public int count () { return count; }
+
+        /** @return the lowest value, or NaN if there were none. */
+        public double minimum () { return min; }
+
+        /** @return the highest value, or NaN if there were none. */
+        public double maximum () { return max; }
+
+        /** @return the mean of the values, or NaN if there were none. */
+        public double mean () { return (count == 0) ? Double.NaN : sum / count; }
+
+        /** @return when the lowest value was read, in seconds since 1970 UTC. */
+        public long minimumTime () { return minTime; }
+
+        /** @return when the highest value was read, in seconds since 1970 UTC. */
+        public long maximumTime () { return maxTime; }
+
+        /** @return minimumTime() the way DateUTC shows it, like "2014-01-30 09:51:00",
+         *  or null if there were no values. */
+        public String minimumDateUTC () { return (count == 0) ? null : dateUTC(minTime); }
+
+        /** @return maximumTime() the way DateUTC shows it, or null if there were no values. */
+        public String maximumDateUTC () { return (count == 0) ? null : dateUTC(maxTime); }
+
+        // Add one reading.  Readings must come in time order for ties to go to the earliest.
+        void add (double value, long time) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            if (count == 0 || value < min) {
+                min = value;
+                minTime = time;
+            }
+            if (count == 0 || value > max) {
+                max = value;
+                maxTime = time;
+            }
+            count = count + 1;
+            sum = sum + value;
+        }
+
+        // Add everything in `other`, which may be earlier or later than this.
+        void add (Rollup other) {
+            if (other.count == 0) {
+                return;
+            }
+            if (count == 0 || other.min < min || (other.min == min && other.minTime < minTime)) {
+                min = other.min;
+                minTime = other.minTime;
+            }
+            if (count == 0 || other.max > max || (other.max == max && other.maxTime < maxTime)) {
+                max = other.max;
+                maxTime = other.maxTime;
+            }
+            count = count + other.count;
+            sum = sum + other.sum;
+        }
+
+        public String toString () {
+            return count + " readings, " + min + " to " + max + ", mean " + mean();
+        }
+    }
+
+    // One file's summaries.
+    private static class Day {
+        final String path;          // from the directory, with '/' between names
+        final long modified;
+        final long length;
+        final long day;             // epoch day
+        final Rollup[] columns;     // by column ordinal
+
+        Day (String path, long modified, long length, long day, Rollup[] columns) {
+            this.path = path;
+            this.modified = modified;
+            this.length = length;
+            this.day = day;
+            this.columns = columns;
+        }
+    }
+
+    private static final int MAGIC = 0x57525550;    // "WRUP"
+    private static final int VERSION = 1;
+    private static final WeatherStore.Column[] COLUMNS = WeatherStore.Column.values();
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final File directory;
+    private final List<Day> days;               // in day order
+    private final Map<Long, Rollup[]> byDay;    // epoch day to its summaries, for days with files
+    private final TreeMap<YearMonth, Rollup[]> months;
+    private final int filesRead;
+
+    private WeatherRollups (File directory, List<Day> days, int filesRead) {
+        this.directory = directory;
+        this.days = days;
+        this.filesRead = filesRead;
+        byDay = new HashMap<Long, Rollup[]>();
+        months = new TreeMap<YearMonth, Rollup[]>();
+        for (Day d : days) {
+            Rollup[] sum = byDay.get(d.day);
+            if (sum == null) {
+                byDay.put(d.day, d.columns);
+            } else {
+                // Two files for one day, say under different directories.  Rare, so just merge.
+                byDay.put(d.day, merged(sum, d.columns));
+            }
+            YearMonth month = YearMonth.from(LocalDate.ofEpochDay(d.day));
+            Rollup[] m = months.get(month);
+            months.put(month, (m == null) ? merged(d.columns) : add(m, d.columns));
+        }
+    }
+
+    private static Rollup[] merged (Rollup[]... parts) {
+        Rollup[] sum = empty();
+        for (Rollup[] part : parts) {
+            add(sum, part);
+        }
+        return sum;
+    }
+
+    private static Rollup[] add (Rollup[] sum, Rollup[] part) {
+        for (int c = 0; c < sum.length; c++) {
+            sum[c].add(part[c]);
+        }
+        return sum;
+    }
+
+    private static Rollup[] empty () {
+        Rollup[] columns = new Rollup[COLUMNS.length];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = new Rollup();
+        }
+        return columns;
+    }
+
+    /** Get the summaries of every weather file in `directory` and the directories below
+     *  it.  The summaries saved next to the directory are used for every file that hasn't
+     *  changed since;  only new or changed files are read, and then they are saved again.
+     *
+     *  @param directory    the top directory of weather files, like "nc_weather"
+     *  @return the summaries.
+     *  @throws ResourceException if the directory or a file in it can't be read.
+     */
+    public static WeatherRollups forDirectory (String directory) {
+        File top = new File(directory);
+        List<Day> saved = Collections.emptyList();
+        File file = savedFile(top);
+        if (file.isFile()) {
+            try {
+                saved = load(file.getPath(), top).days;
+            } catch (ResourceException e) {
+                // Unreadable or from an older version.  Read every file again instead.
+            }
+        }
+        return build(top, saved);
+    }
+
+    /** Pick up weather files that have arrived or changed since these summaries were
+     *  made.  Only those files are read.
+     *
+     *  @return the summaries brought up to date, or this if nothing has changed.
+     *  @throws ResourceException if the directory or a new file in it can't be read.
+     */
+    public WeatherRollups refresh () {
+        WeatherRollups fresh = build(directory, days);
+        return (fresh.filesRead == 0 && fresh.days.size() == days.size()) ? this : fresh;
+    }
+
+    private static File savedFile (File top) {
+        return new File(top.getPath() + ".rollups");
+    }
+
+    // Summarize every file under `top`, reusing what `known` has for files that haven't
+    // changed, and save the result if anything has.
+    private static WeatherRollups build (File top, List<Day> known) {
+        if (! top.isDirectory()) {
+            throw new ResourceException("WeatherRollups: cannot list directory " + top);
+        }
+        Map<String, Day> byPath = new HashMap<String, Day>();
+        for (Day d : known) {
+            byPath.put(d.path, d);
+        }
+
+        List<Day> days = new ArrayList<Day>();
+        int read = 0;
+        for (String path : WeatherCatalog.weatherFiles(top, "")) {
+            File file = new File(top, path);
+            Day d = byPath.get(path);
+            if (d == null || d.modified != file.lastModified() || d.length != file.length()) {
+                d = summarize(file, path);
+                read = read + 1;
+            }
+            days.add(d);
+        }
+        days.sort((a, b) -> (a.day != b.day) ? Long.compare(a.day, b.day) : a.path.compareTo(b.path));
+
+        WeatherRollups rollups = new WeatherRollups(top, days, read);
+        if (read > 0 || days.size() != known.size()) {
+            try {
+                rollups.save(savedFile(top).getPath());
+            } catch (ResourceException e) {
+                // Can't save it, maybe a read only directory.  It still works, just slower next time.
+            }
+        }
+        return rollups;
+    }
+
+    // Read `file` and summarize each column.
+    private static Day summarize (File file, String path) {
+        WeatherStore store = WeatherStore.ingest(Collections.singletonList(file));
+        Rollup[] columns = empty();
+        for (int row = 0; row < store.size(); row++) {
+            for (WeatherStore.Column c : COLUMNS) {
+                columns[c.ordinal()].add(store.get(c, row), store.time(row));
+            }
+        }
+        return new Day(path, file.lastModified(), file.length(), WeatherCatalog.dayOf(file).toEpochDay(), columns);
+    }
+
+    /** Save the daily summaries as `filename`.  Months aren't saved;  they are worked
+     *  out again from the days.
+     *
+     *  @throws ResourceException if the file can't be written.
+     */
+    public void save (String filename) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(COLUMNS.length);
+            out.writeInt(days.size());
+            for (Day d : days) {
+                out.writeUTF(d.path);
+                out.writeLong(d.modified);
+                out.writeLong(d.length);
+                out.writeInt((int) d.day);
+                for (Rollup r : d.columns) {
+                    // A day has a few hundred readings at most, so the count fits in a
+                    // short, and times fit in an int as seconds from the day's start.
+                    // An empty column is just its count.
+                    out.writeShort(r.count);
+                    if (r.count > 0) {
+                        out.writeDouble(r.sum);
+                        out.writeDouble(r.min);
+                        out.writeDouble(r.max);
+                        out.writeInt((int) (r.minTime - d.day * 86400));
+                        out.writeInt((int) (r.maxTime - d.day * 86400));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new ResourceException("WeatherRollups: cannot write " + filename + ": " + e.getMessage());
+        }
+    }
+
+    /** Load daily summaries saved by `save()`, without checking whether the files have
+     *  changed since.
+     *
+     *  @param filename     the saved summaries
+     *  @param directory    the directory they are of, like "nc_weather"
+     *  @return the summaries.
+     *  @throws ResourceException if the file can't be read or isn't saved summaries.
+     */
+    public static WeatherRollups load (String filename, String directory) {
+        return load(filename, new File(directory));
+    }
+
+    private static WeatherRollups load (String filename, File directory) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != COLUMNS.length) {
+                throw new ResourceException("WeatherRollups: " + filename + " is not summaries this version can read");
+            }
+            int n = in.readInt();
+            List<Day> days = new ArrayList<Day>(n);
+            for (int i = 0; i < n; i++) {
+                String path = in.readUTF();
+                long modified = in.readLong();
+                long length = in.readLong();
+                long day = in.readInt();
+                Rollup[] columns = empty();
+                for (Rollup r : columns) {
+                    r.count = in.readUnsignedShort();
+                    if (r.count > 0) {
+                        r.sum = in.readDouble();
+                        r.min = in.readDouble();
+                        r.max = in.readDouble();
+                        r.minTime = day * 86400 + in.readInt();
+                        r.maxTime = day * 86400 + in.readInt();
+                    }
+                }
+                days.add(new Day(path, modified, length, day, columns));
+            }
+            return new WeatherRollups(directory, days, 0);
+        } catch (IOException e) {
+            throw new ResourceException("WeatherRollups: cannot read " + filename + ": " + e.getMessage());
+        }
+    }
+
+    /** @return how many files were read to make these summaries, rather than coming from
+     *  saved ones. */
+    public int filesRead () { return filesRead; }
+
+    /** @return every day with a file, in order. */
+    public List<LocalDate> days () {
+        List<LocalDate> found = new ArrayList<LocalDate>();
+        for (Day d : days) {
+            LocalDate day = LocalDate.ofEpochDay(d.day);
+            if (found.isEmpty() || ! found.get(found.size() - 1).equals(day)) {
+                found.add(day);
+            }
+        }
+        return found;
+    }
+
+    /** @return the summary of `column` on `day`.  A day with no file has count() 0. */
+    public Rollup day (WeatherStore.Column column, LocalDate day) {
+        Rollup[] columns = byDay.get(day.toEpochDay());
+        return (columns == null) ? new Rollup() : columns[column.ordinal()];
+    }
+
+    /** @return the summary of `column` over `month`.  A month with no files has count() 0. */
+    public Rollup month (WeatherStore.Column column, YearMonth month) {
+        Rollup[] columns = months.get(month);
+        return (columns == null) ? new Rollup() : columns[column.ordinal()];
+    }
+
+    /** @return the summary of `column` over all of `year`, from its months. */
+    public Rollup year (WeatherStore.Column column, int year) {
+        Rollup sum = new Rollup();
+        for (Rollup[] columns : months.subMap(YearMonth.of(year, 1), true, YearMonth.of(year, 12), true).values()) {
+            sum.add(columns[column.ordinal()]);
+        }
+        return sum;
+    }
+
+    /** @return the summary of `column` over days `from` through `to`:  whole months from
+     *  the monthly summaries, and the days at either end from the daily ones. */
+    public Rollup between (WeatherStore.Column column, LocalDate from, LocalDate to) {
+        Rollup sum = new Rollup();
+        LocalDate day = from;
+        while (! day.isAfter(to)) {
+            YearMonth month = YearMonth.from(day);
+            if (day.getDayOfMonth() == 1 && ! month.atEndOfMonth().isAfter(to)) {
+                sum.add(month(column, month));
+                day = day.plusMonths(1);
+            } else {
+                sum.add(day(column, day));
+                day = day.plusDays(1);
+            }
+        }
+        return sum;
+    }
+
+    /** Find the day from `from` through `to` with the lowest value of `column`, like the
+     *  coldest day of a year.  Of days with equal lowest values the earliest wins.
+     *
+     *  @return the day, or null if no day in the range has a value.
+     */
+    public LocalDate dayWithMinimum (WeatherStore.Column column, LocalDate from, LocalDate to) {
+        return dayWithExtreme(column, from, to, true);
+    }
+
+    /** Same as dayWithMinimum(), but the highest value. */
+    public LocalDate dayWithMaximum (WeatherStore.Column column, LocalDate from, LocalDate to) {
+        return dayWithExtreme(column, from, to, false);
+    }
+
+    private LocalDate dayWithExtreme (WeatherStore.Column column, LocalDate from, LocalDate to, boolean lowest) {
+        LocalDate best = null;
+        double bestValue = Double.NaN;
+        int c = column.ordinal();
+        long last = to.toEpochDay();
+        for (int i = first(from); i < days.size() && days.get(i).day <= last; i++) {
+            Day d = days.get(i);
+            Rollup r = d.columns[c];
+            double v = lowest ? r.min : r.max;
+            if (r.count > 0 && (best == null || (lowest ? v < bestValue : v > bestValue))) {
+                best = LocalDate.ofEpochDay(d.day);
+                bestValue = v;
+            }
+        }
+        return best;
+    }
+
+    // The first day on or after `day`.
+    private int first (LocalDate day) {
+        long d = day.toEpochDay();
+        int lo = 0;
+        int hi = days.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days.get(mid).day < d) lo = mid + 1;
+            else                       hi = mid;
+        }
+        return lo;
+    }
+
+    private static String dateUTC (long time) {
+        return LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC).format(DATE_FORMAT);
+    }
+
+}  // WeatherRollups
@@ -0,0 +1,361 @@
+import edu.duke.*;
+import org.apache.commons.csv.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A year (or any group) of weather files, parsed once and kept column by column:
+ * each numeric column is one double array with a value per reading, and the time of
+ * each reading is one long array of seconds since 1970 UTC, from DateUTC.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Reading the CSV files means splitting all 14 columns of every line into Strings and
+ * then parsing the one wanted, every time.  With the columns already numbers, finding
+ * the coldest reading of a year is a loop over one double array.
+ * <p>
+ * Values that are missing or aren't numbers, including the -9999 the files use for a
+ * missing reading, are kept as Double.NaN.  A wind speed of "Calm" is 0.
+ * <p>
+ * Readings are in file order, and files in filename order, which for weather files is
+ * time order.  Which file each reading came from is kept too, as the first reading of
+ * each file.
+ * <p>
+ * `forDirectory()` saves the parsed store next to the directory, like "nc_weather/2014"
+ * gets "nc_weather/2014.columns", with the name, size and last modified time of each
+ * file, the same as WeatherCatalog and WeatherRollups keep.  It reuses the saved store
+ * only while the directory holds exactly those files, each unchanged.  The saved file is the columns one after another, so loading it maps the file
+ * into memory and copies each column out in bulk.
+ */
+public class WeatherStore {
+
+    /** The numeric columns kept, and their names in the CSV header. */
+    public enum Column {
+        TEMPERATURE ("TemperatureF"),
+        DEW_POINT ("Dew PointF"),
+        HUMIDITY ("Humidity"),
+        PRESSURE ("Sea Level PressureIn"),
+        WIND_SPEED ("Wind SpeedMPH");
+
+        private final String header;
+
+        private Column (String header) {
+            this.header = header;
+        }
+
+        /** @return the name of this column in the CSV header. */
+        public String header () { return header; }
+
+        /** Find the column with CSV header `header`, such as "TemperatureF".
+         *
+         *  @throws IllegalArgumentException if no column kept has that header.
+         */
+        public static Column named (String header) {
+            for (Column c : values()) {
+                if (c.header.equals(header)) {
+                    return c;
+                }
+            }
+            throw new IllegalArgumentException("WeatherStore: no column named '" + header + "'");
+        }
+    }
+
+    private static final int MAGIC = 0x57434f4c;    // "WCOL"
+    private static final int VERSION = 2;
+    private static final String DATE_COLUMN = "DateUTC";
+    private static final double VALUE_MISSING_FLAG = -9999.0;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private String[] files;         // file names, without the directory
+    private long[] fileModified;    // last modified time of each file when it was parsed
+    private long[] fileLengths;     // size of each file when it was parsed
+    private int[] fileStarts;       // first reading of each file;  fileStarts[files.length] is size()
+    private long[] times;           // seconds since 1970 UTC
+    private double[][] columns;     // [column ordinal][reading]
+
+    private WeatherStore (String[] files, long[] fileModified, long[] fileLengths, int[] fileStarts, long[] times, double[][] columns) {
+        this.files = files;
+        this.fileModified = fileModified;
+        this.fileLengths = fileLengths;
+        this.fileStarts = fileStarts;
+        this.times = times;
+        this.columns = columns;
+    }
+
+    /** Parse `files` into a new store.
+     *
+     *  @param files    the weather files, in time order
+     *  @return the store.
+     *  @throws ResourceException if a file can't be read or has a DateUTC that can't be parsed.
+     */
+    public static WeatherStore ingest (List<File> files) {
+        Column[] kept = Column.values();
+        String[] names = new String[files.size()];
+        long[] modified = new long[files.size()];
+        long[] lengths = new long[files.size()];
+        int[] starts = new int[files.size() + 1];
+        long[] times = new long[1024];
+        double[][] columns = new double[kept.length][1024];
+        int size = 0;
+
+        for (int f = 0; f < files.size(); f++) {
+            names[f] = files.get(f).getName();
+            modified[f] = files.get(f).lastModified();
+            lengths[f] = files.get(f).length();
+            starts[f] = size;
+            for (CSVRecord record : new FileResource(files.get(f)).getCSVParser()) {
+                if (size == times.length) {
+                    times = Arrays.copyOf(times, size * 2);
+                    for (int c = 0; c < kept.length; c++) {
+                        columns[c] = Arrays.copyOf(columns[c], size * 2);
+                    }
+                }
+                times[size] = parseTime(record, names[f]);
+                for (int c = 0; c < kept.length; c++) {
+                    columns[c][size] = parseValue(record, kept[c]);
+                }
+                size = size + 1;
+            }
+        }
+        starts[files.size()] = size;
+
+        for (int c = 0; c < kept.length; c++) {
+            columns[c] = Arrays.copyOf(columns[c], size);
+        }
+        return new WeatherStore(names, modified, lengths, starts, Arrays.copyOf(times, size), columns);
+    }
+
+    private static long parseTime (CSVRecord record, String filename) {
+        try {
+            return LocalDateTime.parse(record.get(DATE_COLUMN), DATE_FORMAT).toEpochSecond(ZoneOffset.UTC);
+        } catch (RuntimeException e) {
+            throw new ResourceException("WeatherStore: bad " + DATE_COLUMN + " in " + filename + " line " +
+                record.getRecordNumber() + ": " + e.getMessage());
+        }
+    }
+
+    private static double parseValue (CSVRecord record, Column column) {
+        if (! record.isSet(column.header)) {
+            return Double.NaN;
+        }
+        String text = record.get(column.header);
+        if (column == Column.WIND_SPEED && text.equals("Calm")) {
+            return 0.0;
+        }
+        try {
+            double value = Double.parseDouble(text);
+            return (value == VALUE_MISSING_FLAG) ? Double.NaN : value;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /** Get the store for every "*.csv" file in `directory`, such as "nc_weather/2014".
+     *  The saved store next to the directory is used if it was made from exactly the
+     *  files there now, with the same sizes and last modified times;  otherwise the files
+     *  are parsed and a new one is saved.
+     *
+     *  @param directory    the directory of weather files
+     *  @return the store.
+     *  @throws ResourceException if the directory or a file in it can't be read.
+     */
+    public static WeatherStore forDirectory (String directory) {
+        File dir = new File(directory);
+        File[] csvFiles = dir.listFiles((d, name) -> name.endsWith(".csv"));
+        if (csvFiles == null) {
+            throw new ResourceException("WeatherStore: cannot list directory " + directory);
+        }
+        Arrays.sort(csvFiles);
+
+        File saved = new File(dir.getPath() + ".columns");
+        if (saved.isFile()) {
+            try {
+                WeatherStore store = load(saved.getPath());
+                if (store.isMadeFrom(csvFiles)) {
+                    return store;
+                }
+            } catch (ResourceException e) {
+                // Unreadable or from an older version.  Parse the files again instead.
+            }
+        }
+
+        WeatherStore store = ingest(Arrays.asList(csvFiles));
+        try {
+            store.save(saved.getPath());
+        } catch (ResourceException e) {
+            // Can't save it, maybe a read only directory.  It still works, just slower next time.
+        }
+        return store;
+    }
+
+    /** Determine if this store was parsed from exactly `csvFiles`, in that order, and
+     *  none of them has changed size or last modified time since.
+     *
+     *  @param csvFiles     the weather files, in filename order
+     *  @return true if this store holds what the files hold now.
+     */
+    public boolean isMadeFrom (File[] csvFiles) {
+        if (csvFiles.length != files.length) {
+            return false;
+        }
+        for (int f = 0; f < files.length; f++) {
+            File file = csvFiles[f];
+            if (! file.getName().equals(files[f]) || file.lastModified() != fileModified[f] || file.length() != fileLengths[f]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Save the store as `filename`, for `load()`.
+     *
+     *  @throws ResourceException if the file can't be written.
+     */
+    public void save (String filename) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(columns.length);
+            out.writeInt(files.length);
+            out.writeInt(size());
+            for (int f = 0; f < files.length; f++) {
+                byte[] name = files[f].getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeLong(fileModified[f]);
+                out.writeLong(fileLengths[f]);
+                out.writeInt(fileStarts[f]);
+            }
+            for (long t : times) {
+                out.writeLong(t);
+            }
+            for (double[] column : columns) {
+                for (double v : column) {
+                    out.writeDouble(v);
+                }
+            }
+        } catch (IOException e) {
+            throw new ResourceException("WeatherStore: cannot write " + filename + ": " + e.getMessage());
+        }
+    }
+
+    /** Load a store saved by `save()`, by mapping the file into memory.
+     *
+     *  @param filename     the saved store
+     *  @return the store.
+     *  @throws ResourceException if the file can't be read or isn't a saved store.
+     */
+    public static WeatherStore load (String filename) {
+        ByteBuffer buf;
+        try (FileChannel channel = new RandomAccessFile(filename, "r").getChannel()) {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new ResourceException("WeatherStore: cannot access " + filename + ": " + e.getMessage());
+        }
+
+        try {
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION || buf.getInt() != Column.values().length) {
+                throw new ResourceException("WeatherStore: " + filename + " is not a weather store this version can read");
+            }
+            String[] files = new String[buf.getInt()];
+            int size = buf.getInt();
+            long[] fileModified = new long[files.length];
+            long[] fileLengths = new long[files.length];
+            int[] fileStarts = new int[files.length + 1];
+            for (int f = 0; f < files.length; f++) {
+                byte[] name = new byte[buf.getInt()];
+                buf.get(name);
+                files[f] = new String(name, StandardCharsets.UTF_8);
+                fileModified[f] = buf.getLong();
+                fileLengths[f] = buf.getLong();
+                fileStarts[f] = buf.getInt();
+            }
+            fileStarts[files.length] = size;
+
+            long[] times = new long[size];
+            buf.asLongBuffer().get(times);
+            buf.position(buf.position() + size * 8);
+            double[][] columns = new double[Column.values().length][size];
+            for (double[] column : columns) {
+                buf.asDoubleBuffer().get(column);
+                buf.position(buf.position() + size * 8);
+            }
+            return new WeatherStore(files, fileModified, fileLengths, fileStarts, times, columns);
+        } catch (RuntimeException e) {
+            if (e instanceof ResourceException) {
+                throw e;
+            }
+            throw new ResourceException("WeatherStore: " + filename + " is damaged: " + e);
+        }
+    }
+
+    /** @return how many readings there are. */
+    public int size () { return times.length; }
+
+    /** @return the value of `column` at reading `row`, or Double.NaN if it is missing. */
+    public double get (Column column, int row) { return columns[column.ordinal()][row]; }
+
+    /** @return the time of reading `row`, in seconds since 1970 UTC. */
+    public long time (int row) { return times[row]; }
+
+    /** @return the time of reading `row` the way DateUTC shows it, like "2014-01-20 19:51:00". */
+    public String dateUTC (int row) {
+        return LocalDateTime.ofEpochSecond(times[row], 0, ZoneOffset.UTC).format(DATE_FORMAT);
+    }
+
+    /** @return how many files the readings came from. */
+    public int fileCount () { return files.length; }
+
+    /** @return the name of file number `f`, like "weather-2014-01-20.csv". */
+    public String fileName (int f) { return files[f]; }
+
+    /** @return the first reading of file number `f`.  Its readings run up to fileStart(f + 1). */
+    public int fileStart (int f) { return fileStarts[f]; }
+
+    /** @return the number of the file reading `row` came from. */
+    public int fileOf (int row) {
+        // The last file starting at or before `row`.  Empty files start where the next
+        // one does, so this skips past them.
+        int lo = 0;
+        int hi = files.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (fileStarts[mid] <= row) lo = mid + 1;
+            else                        hi = mid;
+        }
+        return lo - 1;
+    }
+
+    /** Find the reading with the lowest value of `column`.  Missing values are skipped,
+     *  and of equal lowest values the first wins.
+     *
+     *  @return the reading, or -1 if `column` has no values.
+     */
+    public int minimumRow (Column column) {
+        return minimumRow(column, 0, size());
+    }
+
+    /** Same as minimumRow(column), over readings `from` up to but not including `to`. */
+    public int minimumRow (Column column, int from, int to) {
+        double[] values = columns[column.ordinal()];
+        int best = -1;
+        double lowest = Double.POSITIVE_INFINITY;
+        for (int row = from; row < to; row++) {
+            // NaN is never less, so missing values never win.
+            if (values[row] < lowest) {
+                lowest = values[row];
+                best = row;
+            }
+        }
+        return best;
+    }
+
+}  // WeatherStore
@@ -174,4 +174,9 @@ public class ParseExportData {
         bigExporters(fr.getCSVParser(), "$999,999,999,999");
     }
 
+    /** Runs the test driver. */
+    public static void main (String[] args) {
+        new ParseExportData().tester();
+    }
+
 } // ParseExportData
@@ -88,4 +88,10 @@ public class Part1 {
         System.out.println("dna = " + dna);
         System.out.println("gene = '" + findSimpleGene(dna) + "' expect ATGCCCTAA");
     }
+
+    /** Runs testSimpleGene() to do initial testing */
+    public static void main (String[] args) {
+        Part1 p = new Part1();
+        p.testSimpleGene();
+    }
 }
@@ -130,4 +130,10 @@ public class Part2 {
         System.out.println("dna = " + dna);
         System.out.println("gene = '" + findSimpleGene(dna, START_CODON, STOP_CODON) + "' expect ATGCCCTAA");
     }
+
+    /** Runs testSimpleGene() to do initial testing */
+    public static void main (String[] args) {
+        Part2 p = new Part2();
+        p.testSimpleGene();
+    }
 }
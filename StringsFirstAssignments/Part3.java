@@ -57,4 +57,10 @@ public class Part3 {
             return stringb.substring(index+stringa.length());
         }
     }
+
+    /** Runs testing() to do initial testing */
+    public static void main (String[] args) {
+        Part3 p = new Part3();
+        p.testing();
+    }
 }
@@ -39,4 +39,10 @@ public class Part4 {
         findYouTubeLinks("");
     }
 
+    /** Runs testing() to do initial testing */
+    public static void main (String[] args) {
+        Part4 p = new Part4();
+        p.testing();
+    }
+
 }
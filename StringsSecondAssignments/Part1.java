@@ -162,4 +162,12 @@ public class Part1 {
         printAllGenes("");
         System.out.println("should see no genes because dna was empty");
     }
+
+    /** Runs the test drivers to do initial testing */
+    public static void main (String[] args) {
+        Part1 p = new Part1();
+        p.testFindStopCodon();
+        p.testFindGene();
+        p.testPrintAllGenes();
+    }
 }
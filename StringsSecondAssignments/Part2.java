@@ -48,4 +48,10 @@ public class Part2 {
         if (count != 0) System.out.println("case 6 failed, expected 0 got "+count);
         System.out.println("tests finished");
     }
+
+    /** Runs testHowMany() to do initial testing */
+    public static void main (String[] args) {
+        Part2 p = new Part2();
+        p.testHowMany();
+    }
 }
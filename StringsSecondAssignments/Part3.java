@@ -138,4 +138,10 @@ public class Part3 {
         if (count != 2) System.out.println("homework case 1 should be 2, count = "+count);
         System.out.println("tests finished");
     }
+
+    /** Runs testCountGenes() to do initial testing */
+    public static void main (String[] args) {
+        Part3 p = new Part3();
+        p.testCountGenes();
+    }
 }
@@ -0,0 +1,75 @@
+import java.io.Reader;
+import java.util.Iterator;
+
+/**
+ * A <code>Reader</code> over a sequence of lines that reads exactly what
+ * <code>String.join("\n", lines)</code> would hold, without ever building that string.
+ *
+ * <P>
+ * Lines are taken from the iterator only as the reader reaches them, and the newline
+ * between two lines is supplied on the fly.  So a <code>CSVParser</code> reading a
+ * 30,000 line <code>StorageResource</code> only ever needs the line it is on, instead
+ * of a second copy of all 30,000 lines in one contiguous <code>String</code>.
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class LineReader extends Reader {
+    private Iterator<String> lines;
+    private String current = "";        // the line being read
+    private int position = 0;           // next character of `current` to read
+    private boolean first = true;       // no newline goes before the first line
+
+    /**
+     * Create a reader over <code>lines</code>.
+     *
+     * @param lines the lines to read, in order
+     */
+    public LineReader (Iterable<String> lines) {
+        this.lines = lines.iterator();
+    }
+
+    /**
+     * Create a reader over the lines an iterator has left.
+     *
+     * @param lines the lines to read, in order
+     */
+    public LineReader (Iterator<String> lines) {
+        this.lines = lines;
+    }
+
+    // Move on to the next line, if there is one.  A newline is put in front of every
+    // line but the first, so lines end up separated just like String.join() does.
+    private boolean nextLine () {
+        while (position == current.length()) {
+            if (! lines.hasNext()) {
+                return false;
+            }
+            current = first ? lines.next() : "\n" + lines.next();
+            first = false;
+            position = 0;
+        }
+        return true;
+    }
+
+    public int read () {
+        return nextLine() ? current.charAt(position++) : -1;
+    }
+
+    public int read (char[] buffer, int offset, int length) {
+        int copied = 0;
+        while (copied < length && nextLine()) {
+            int n = Math.min(length - copied, current.length() - position);
+            current.getChars(position, position + n, buffer, offset + copied);
+            position = position + n;
+            copied = copied + n;
+        }
+        return (copied == 0 && length > 0) ? -1 : copied;
+    }
+
+    public void close () {
+        current = "";
+        position = 0;
+    }
+
+}  // LineReader
@@ -168,7 +168,8 @@ public class Part1 {
      */
     public StorageResource getAllGenes (String dna) {
         String gene;
-        StorageResource sr = new StorageResource();
+        // Typed storage hashes its rows, so contains() on a big set of genes is quick.
+        StorageResource sr = new TypedStorageResource();
         while (true) {
             gene = findGene(dna);
             if (gene.isEmpty()) { // all done
@@ -196,6 +197,18 @@ public class Part1 {
         testGAG("ATGTAAGATGCCCTAGT", "should see 2 genes, 'ATGTAA' and 'ATGCCCTAG'");
         testGAG("ABCDE", "should see no genes");
         testGAG("", "should see no genes because dna was empty");
+        StorageResource sr = getAllGenes("ATGTAAGATGCCCTAGT");
+        System.out.println("should see true, got "+sr.contains("ATGCCCTAG")+"; should see false, got "+sr.contains("ATGCCC"));
+        System.out.println("should see 2 genes in a copy, got "+new StorageResource(sr).size());
+    }
+
+    /** Runs the test drivers to do initial testing */
+    public static void main (String[] args) {
+        Part1 p = new Part1();
+        p.testFindStopCodon();
+        p.testFindGene();
+        p.testPrintAllGenes();
+        p.testGetAllGenes();
     }
 } // Part1
 
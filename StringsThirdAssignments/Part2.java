@@ -75,4 +75,11 @@ public class Part2 {
         count = countCTG("");
         System.out.println("tests finished");
     }
+
+    /** Runs the test drivers to do initial testing */
+    public static void main (String[] args) {
+        Part2 p = new Part2();
+        p.testCGRatio();
+        p.testCountCTG();
+    }
 }  // class Part2
@@ -105,4 +105,10 @@ public class Part3 {
         System.out.println("");        
     }
     
+
+    /** Runs testProcessGenes() to do initial testing */
+    public static void main (String[] args) {
+        Part3 p = new Part3();
+        p.testProcessGenes();
+    }
 }  // class Part3
@@ -0,0 +1,156 @@
+import edu.duke.*;
+import org.apache.commons.csv.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The operations `benchmarks.BabyBirthsBenchmarks` times, each ready to run.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * JMH won't take a benchmark class in the default package, and a class in any other
+ * package can't name the BabyBirths classes, which are all in the default package.
+ * So the work is set up here, beside them, and the benchmarks look it up by name.
+ * Building an operation does all its setup, like loading the years it reads, so only
+ * the operation itself is timed.
+ */
+public class Workloads implements Function<String, Supplier<Object>> {
+
+    /** Set up the operation called `name`, like "getRank warm".
+     *
+     *  @param name     the operation
+     *  @return the operation, which returns its result so JMH can consume it.
+     *  @throws ResourceException if not run from the BabyBirths folder.
+     *  @throws IllegalArgumentException if there is no operation called `name`.
+     */
+    public Supplier<Object> apply (String name) {
+        if (! new File("us_babynames_by_year").isDirectory()) {
+            throw new ResourceException("Workloads: run from the BabyBirths folder, where us_babynames_by_year is");
+        }
+        switch (name) {
+            // getRank() on a full year's data, for a name near the bottom of the male
+            // block so the whole female block has to be passed over.  warm:  the file is
+            // already in memory, the usual case.  cold:  a new BabyBirths each time, so
+            // the file is read and parsed every time.  disk:  through the file's BlockIndex.
+            case "getRank warm": {
+                BabyBirths b = new BabyBirths();
+                b.getRank(2014, "Zyrin", "M");
+                return () -> b.getRank(2014, "Zyrin", "M");
+            }
+            case "getRank cold":
+                return () -> new BabyBirths().getRank(2014, "Zyrin", "M");
+            case "getRank disk": {
+                BabyBirths b = new BabyBirths();
+                b.useDiskLookups(true);
+                b.getRank(2014, "Zyrin", "M");
+                return () -> b.getRank(2014, "Zyrin", "M");
+            }
+
+            // Totalling every row of 1880-2014 through Commons CSV, the way
+            // totalBirths(FileResource) does, against NameFileScanner.
+            case "totalBirths CSVParser":
+                return () -> {
+                    long total = 0;
+                    for (int year = 1880; year <= 2014; year++) {
+                        for (CSVRecord rec : new FileResource(DataSet.YEAR.filename(year)).getCSVParser(false)) {
+                            total = total + Integer.parseInt(rec.get(2));
+                        }
+                    }
+                    return total;
+                };
+            case "totalBirths NameFileScanner":
+                return () -> {
+                    long[] total = new long[1];
+                    for (int year = 1880; year <= 2014; year++) {
+                        NameFileScanner.scan(DataSet.YEAR.filename(year), (file, start, length, gender, count) -> total[0] += count);
+                    }
+                    return total[0];
+                };
+
+            // The one pass CorpusStats makes over 1880-2014.
+            case "corpusStats":
+                return () -> new CorpusStats(DataSet.YEAR, 1880, 2014);
+
+            // Charting a name over 1880-2014:  135 getRank() calls against one
+            // getTrajectory() lookup, with every year in memory already.
+            case "rankOverYears getRank": {
+                BabyBirths b = new BabyBirths();
+                b.getTrajectory("Jennifer", "F", 1880, 2014);
+                return () -> {
+                    int total = 0;
+                    for (int year = 1880; year <= 2014; year++) {
+                        total = total + b.getRank(year, "Jennifer", "F");
+                    }
+                    return total;
+                };
+            }
+            case "rankOverYears getTrajectory": {
+                BabyBirths b = new BabyBirths();
+                b.getTrajectory("Jennifer", "F", 1880, 2014);
+                return () -> b.getTrajectory("Jennifer", "F", 1880, 2014);
+            }
+
+            // Prefix and fuzzy name searches over 1880-2014, already indexed.
+            case "nameSearch prefixJenF":
+                return nameSearch(b -> b.findNamesStartingWith("Jen", "F", 10, 1880, 2014));
+            case "nameSearch prefixJ":
+                return nameSearch(b -> b.findNamesStartingWith("J", null, 10, 1880, 2014));
+            case "nameSearch like1":
+                return nameSearch(b -> b.findNamesLike("Jenifer", 1, null, 10, 1880, 2014));
+            case "nameSearch like2":
+                return nameSearch(b -> b.findNamesLike("Jenifer", 2, null, 10, 1880, 2014));
+
+            // Parsing a big StorageResource through one joined String (how getCSVParser()
+            // used to work) against streaming it through a LineReader.  -prof gc shows the
+            // joined copy in the bytes allocated per operation.
+            case "parseStore joined": {
+                StorageResource sr = bigStore();
+                return () -> countRecords(new StringReader(String.join("\n", sr.data())));
+            }
+            case "parseStore lineReader": {
+                StorageResource sr = bigStore();
+                return () -> countRecords(new LineReader(sr.data()));
+            }
+
+            default:
+                throw new IllegalArgumentException("Workloads: no operation " + name);
+        }
+    }
+
+    // A BabyBirths with 1880-2014 indexed for search, running `search` on it.
+    private Supplier<Object> nameSearch (Function<BabyBirths, Object> search) {
+        BabyBirths b = new BabyBirths();
+        b.findNamesStartingWith("J", null, 10, 1880, 2014);
+        return () -> search.apply(b);
+    }
+
+    // 2014's rows thirty times over, roughly 30 MB of text, so copying it matters.
+    private StorageResource bigStore () {
+        StorageResource sr = new StorageResource();
+        for (int i = 0; i < 30; i++) {
+            for (String line : new FileResource("us_babynames_by_year/yob2014.csv").lines()) {
+                sr.add(line);
+            }
+        }
+        return sr;
+    }
+
+    // Parse everything `input` holds and return how many records there were.
+    private int countRecords (Reader input) {
+        int records = 0;
+        try {
+            for (CSVRecord rec : new CSVParser(input, CSVFormat.EXCEL)) {
+                records = records + 1;
+            }
+        } catch (IOException e) {
+            throw new ResourceException("Workloads: cannot parse: " + e.getMessage());
+        }
+        return records;
+    }
+
+}  // Workloads
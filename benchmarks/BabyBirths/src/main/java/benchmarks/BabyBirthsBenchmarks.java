@@ -0,0 +1,138 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH benchmarks for the hot spots of the baby name code, so a change that is
+ * supposed to be faster can be shown to be.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Run from the BabyBirths folder, so the data files are found:
+ * <pre>
+ *   java -jar ../benchmarks/BabyBirths/target/benchmarks.jar -prof gc
+ * </pre>
+ * Each benchmark reports its throughput and average time;  `-prof gc` adds the bytes
+ * allocated per operation and the allocation rate, over every thread.  Where one
+ * benchmark compares ways of doing the same thing, the `how` parameter picks the way.
+ * The operations themselves are set up by `Workloads` (see there for why).
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BabyBirthsBenchmarks {
+
+    // Workloads is in the default package with the BabyBirths classes, so it can only
+    // be found by name.
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> workload (String name) {
+        try {
+            return ((Function<String, Supplier<Object>>) Class.forName("Workloads").getConstructor().newInstance()).apply(name);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BabyBirthsBenchmarks: cannot find Workloads", e);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class GetRank {
+        @Param({ "warm", "cold", "disk" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("getRank " + how); }
+    }
+
+    /** getRank() on a full year's data, for a name near the bottom of the male block. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object getRank (GetRank state) {
+        return state.operation.get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class TotalBirths {
+        @Param({ "CSVParser", "NameFileScanner" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("totalBirths " + how); }
+    }
+
+    /** Total every row of 1880-2014.  Divide the corpus size by the time for the rate. */
+    @Benchmark
+    public Object totalBirths (TotalBirths state) {
+        return state.operation.get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class CorpusStats {
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("corpusStats"); }
+    }
+
+    /** The one pass CorpusStats makes over 1880-2014. */
+    @Benchmark
+    public Object corpusStats (CorpusStats state) {
+        return state.operation.get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class RankOverYears {
+        @Param({ "getRank", "getTrajectory" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("rankOverYears " + how); }
+    }
+
+    /** Chart a name over 1880-2014, with every year in memory already. */
+    @Benchmark
+    public Object rankOverYears (RankOverYears state) {
+        return state.operation.get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class NameSearch {
+        @Param({ "prefixJenF", "prefixJ", "like1", "like2" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("nameSearch " + how); }
+    }
+
+    /** Prefix and fuzzy name searches over 1880-2014. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object nameSearch (NameSearch state) {
+        return state.operation.get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class ParseStore {
+        @Param({ "joined", "lineReader" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("parseStore " + how); }
+    }
+
+    /** Parse about 30 MB of stored rows as CSV. */
+    @Benchmark
+    public Object parseStore (ParseStore state) {
+        return state.operation.get();
+    }
+
+}  // BabyBirthsBenchmarks
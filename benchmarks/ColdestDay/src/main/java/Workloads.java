@@ -0,0 +1,180 @@
+import edu.duke.*;
+import org.apache.commons.csv.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The operations `benchmarks.ColdestDayBenchmarks` times, each ready to run.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * JMH won't take a benchmark class in the default package, and a class in any other
+ * package can't name the weather classes, which are all in the default package.
+ * So the work is set up here, beside them, and the benchmarks look it up by name.
+ * Building an operation does all its setup, like making the WeatherStore it searches,
+ * so only the operation itself is timed.
+ */
+public class Workloads implements Function<String, Supplier<Object>> {
+
+    private static final String DAY = "nc_weather/2014/weather-2014-01-30.csv";
+
+    /** Set up the operation called `name`, like "minimumValueInColumn file".
+     *
+     *  @param name     the operation
+     *  @return the operation, which returns its result so JMH can consume it.
+     *  @throws ResourceException if not run from the ColdestDay folder.
+     *  @throws IllegalArgumentException if there is no operation called `name`.
+     */
+    public Supplier<Object> apply (String name) {
+        if (! new File("nc_weather").isDirectory()) {
+            throw new ResourceException("Workloads: run from the ColdestDay folder, where nc_weather is");
+        }
+        ParseWeatherData pwd = new ParseWeatherData();
+        switch (name) {
+            // minimumValueInColumn() on one day of weather, both reading the file each time
+            // and parsing text already in memory, which leaves out the file system.
+            case "minimumValueInColumn file":
+                return () -> pwd.minimumValueInColumn(new FileResource(DAY).getCSVParser(), "TemperatureF");
+            case "minimumValueInColumn memory": {
+                String text = new FileResource(DAY).asString();
+                return () -> pwd.minimumValueInColumn(parse(text), "TemperatureF");
+            }
+
+            // Finding the coldest file over a whole year of weather.
+            case "fileWithColdestTemperature":
+                return () -> pwd.fileWithColdestTemperature("nc_weather/2014/*.csv");
+
+            // The parallel reduction over a year on pools of 1 thread and of one thread
+            // per core, to show how it scales on this machine.
+            case "parallelReduction oneThread":
+                return reduction(pwd, 1);
+            case "parallelReduction allCores":
+                return reduction(pwd, Runtime.getRuntime().availableProcessors());
+
+            // The year-long search against a WeatherStore, plus loading the saved store
+            // and parsing the year's CSV files into one.
+            case "weatherStore search":
+                pwd.weatherStore("nc_weather/2014");
+                return () -> pwd.fileWithMinimumValueInDirectory("TemperatureF", "nc_weather/2014");
+            case "weatherStore load":
+                pwd.weatherStore("nc_weather/2014");
+                return () -> WeatherStore.load("nc_weather/2014.columns");
+            case "weatherStore ingest": {
+                List<File> files = pwd.filesMatching("nc_weather/2014/*.csv");
+                return () -> WeatherStore.ingest(files);
+            }
+
+            // A batch of WeatherQuery questions answered together in one pass over a year,
+            // against the same questions each answered with its own pass.
+            case "weatherQuery eachOwnPass": {
+                WeatherStore store = pwd.weatherStore("nc_weather/2014");
+                List<WeatherQuery> queries = queries();
+                return () -> {
+                    List<Object> answers = new ArrayList<Object>();
+                    for (WeatherQuery q : queries) {
+                        answers.add(q.run(store));
+                    }
+                    return answers;
+                };
+            }
+            case "weatherQuery onePass": {
+                WeatherStore store = pwd.weatherStore("nc_weather/2014");
+                List<WeatherQuery> queries = queries();
+                return () -> WeatherQuery.run(store, queries);
+            }
+
+            // The coldest reading of January 2013 and the readings of every year with
+            // humidity below 20, with the catalog skipping files and without.
+            case "weatherCatalog forDirectory":
+                pwd.weatherCatalog();
+                return () -> WeatherCatalog.forDirectory("nc_weather");
+            case "weatherCatalog coldestEveryFile":
+                return () -> pwd.minimumValueManyFiles("TemperatureF", pwd.filesMatching("nc_weather/2013/weather-2013-01-*.csv"));
+            case "weatherCatalog coldestCatalog":
+                pwd.weatherCatalog();
+                return () -> pwd.coldestHourBetween(LocalDate.of(2013, 1, 1), LocalDate.of(2013, 1, 31));
+            case "weatherCatalog dryEveryFile": {
+                pwd.weatherCatalog();
+                return () -> {
+                    int found = 0;
+                    for (File f : WeatherCatalog.forDirectory("nc_weather").filesBetween(LocalDate.of(2012, 1, 1), LocalDate.of(2015, 12, 31))) {
+                        for (CSVRecord record : new FileResource(f).getCSVParser()) {
+                            String h = record.get("Humidity");
+                            double humidity = h.equals("N/A") ? Double.NaN : Double.parseDouble(h);
+                            found += (humidity < 20 && humidity != -9999) ? 1 : 0;
+                        }
+                    }
+                    return found;
+                };
+            }
+            case "weatherCatalog dryCatalog":
+                pwd.weatherCatalog();
+                return () -> pwd.readingsWhere("Humidity", "<", 20, LocalDate.of(2012, 1, 1), LocalDate.of(2015, 12, 31));
+
+            // An average temperature for a day and the coldest day of a year from the
+            // daily summaries, against working them out from the readings.
+            case "weatherRollups forDirectory":
+                pwd.weatherRollups();
+                return () -> WeatherRollups.forDirectory("nc_weather");
+            case "weatherRollups averageInFile":
+                return () -> pwd.averageTemperatureInFile(new FileResource("nc_weather/2014/weather-2014-06-01.csv").getCSVParser());
+            case "weatherRollups averageOn":
+                pwd.weatherRollups();
+                return () -> pwd.averageTemperatureOn(LocalDate.of(2014, 6, 1));
+            case "weatherRollups coldestDayStore": {
+                WeatherStore store = pwd.weatherStore("nc_weather/2014");
+                return () -> store.fileOf(store.minimumRow(WeatherStore.Column.TEMPERATURE));
+            }
+            case "weatherRollups coldestDayRollups":
+                pwd.weatherRollups();
+                return () -> pwd.coldestDayOf(2014);
+            case "weatherRollups yearFromMonths":
+                pwd.weatherRollups();
+                return () -> pwd.weatherRollups().year(WeatherStore.Column.TEMPERATURE, 2014);
+
+            default:
+                throw new IllegalArgumentException("Workloads: no operation " + name);
+        }
+    }
+
+    // Parse `text` the same way FileResource.getCSVParser() parses a file.
+    private CSVParser parse (String text) {
+        try {
+            return CSVFormat.EXCEL.withHeader().parse(new StringReader(text));
+        } catch (IOException e) {
+            throw new ResourceException("Workloads: cannot parse: " + e.getMessage());
+        }
+    }
+
+    // The lowest 2014 temperature found by ColumnReduction on a pool of `threads`.
+    private Supplier<Object> reduction (ParseWeatherData pwd, int threads) {
+        List<File> files = pwd.filesMatching("nc_weather/2014/*.csv");
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        return () -> ColumnReduction.reduce(files, "TemperatureF", true, pool);
+    }
+
+    // Six questions about 2014, of every kind WeatherQuery answers.
+    private List<WeatherQuery> queries () {
+        List<WeatherQuery> queries = new ArrayList<WeatherQuery>();
+        queries.add(new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MIN));
+        queries.add(new WeatherQuery(WeatherStore.Column.HUMIDITY, WeatherQuery.Aggregate.MIN));
+        queries.add(new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MEAN)
+            .onDay(LocalDate.of(2014, 6, 1)));
+        queries.add(new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.MEAN)
+            .where(WeatherStore.Column.HUMIDITY, ">=", 80).onDay(LocalDate.of(2014, 3, 30)));
+        queries.add(new WeatherQuery(WeatherStore.Column.TEMPERATURE, WeatherQuery.Aggregate.STDDEV)
+            .groupBy(WeatherQuery.GroupBy.MONTH));
+        queries.add(WeatherQuery.percentile(WeatherStore.Column.HUMIDITY, 90)
+            .groupBy(WeatherQuery.GroupBy.HOUR));
+        return queries;
+    }
+
+}  // Workloads
@@ -0,0 +1,153 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH benchmarks for the weather code, so a change that is supposed to be faster
+ * can be shown to be.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Run from the ColdestDay folder, so the data files are found:
+ * <pre>
+ *   java -jar ../benchmarks/ColdestDay/target/benchmarks.jar -prof gc
+ * </pre>
+ * Each benchmark reports its throughput and average time;  `-prof gc` adds the bytes
+ * allocated per operation and the allocation rate, over every thread.  Where one
+ * benchmark compares ways of doing the same thing, the `how` parameter picks the way.
+ * The operations themselves are set up by `Workloads` (see there for why).
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ColdestDayBenchmarks {
+
+    // Workloads is in the default package with the ColdestDay classes, so it can only
+    // be found by name.
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> workload (String name) {
+        try {
+            return ((Function<String, Supplier<Object>>) Class.forName("Workloads").getConstructor().newInstance()).apply(name);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("ColdestDayBenchmarks: cannot find Workloads", e);
+        }
+    }
+
+
+    @State(Scope.Benchmark)
+    public static class MinimumValueInColumn {
+        @Param({ "file", "memory" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("minimumValueInColumn " + how); }
+    }
+
+    /** minimumValueInColumn() on one day, reading the file or parsing text in memory. */
+    @Benchmark
+    public Object minimumValueInColumn (MinimumValueInColumn state) {
+        return state.operation.get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class FileWithColdestTemperature {
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("fileWithColdestTemperature"); }
+    }
+
+    /** Find the coldest file over a whole year of weather. */
+    @Benchmark
+    public Object fileWithColdestTemperature (FileWithColdestTemperature state) {
+        return state.operation.get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class ParallelReduction {
+        @Param({ "oneThread", "allCores" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("parallelReduction " + how); }
+    }
+
+    /** The lowest temperature of a year on 1 thread and on one thread per core. */
+    @Benchmark
+    public Object parallelReduction (ParallelReduction state) {
+        return state.operation.get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class WeatherStore {
+        @Param({ "search", "load", "ingest" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("weatherStore " + how); }
+    }
+
+    /** Search a year in a WeatherStore, load the saved store, or parse the year into one. */
+    @Benchmark
+    public Object weatherStore (WeatherStore state) {
+        return state.operation.get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class WeatherQuery {
+        @Param({ "eachOwnPass", "onePass" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("weatherQuery " + how); }
+    }
+
+    /** Six questions about a year, each with its own pass or all in one pass. */
+    @Benchmark
+    public Object weatherQuery (WeatherQuery state) {
+        return state.operation.get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class WeatherCatalog {
+        @Param({ "forDirectory", "coldestEveryFile", "coldestCatalog", "dryEveryFile", "dryCatalog" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("weatherCatalog " + how); }
+    }
+
+    /** Finding readings by reading every file, against skipping files with the catalog. */
+    @Benchmark
+    public Object weatherCatalog (WeatherCatalog state) {
+        return state.operation.get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class WeatherRollups {
+        @Param({ "forDirectory", "averageInFile", "averageOn", "coldestDayStore", "coldestDayRollups", "yearFromMonths" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("weatherRollups " + how); }
+    }
+
+    /** A day's average and a year's coldest day from the summaries, against from the readings. */
+    @Benchmark
+    public Object weatherRollups (WeatherRollups state) {
+        return state.operation.get();
+    }
+
+}  // ColdestDayBenchmarks
@@ -0,0 +1,59 @@
+import edu.duke.*;
+import org.apache.commons.csv.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The operations `benchmarks.ParsingExportDataBenchmarks` times, each ready to run.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * JMH won't take a benchmark class in the default package, and a class in any other
+ * package can't name ParseExportData, which is in the default package.  So the work
+ * is set up here, beside it, and the benchmarks look it up by name.
+ */
+public class Workloads implements Function<String, Supplier<Object>> {
+
+    private static final String EXPORTS = "exports/exportdata.csv";
+
+    /** Set up the operation called `name`, like "numberOfExporters file".
+     *
+     *  @param name     the operation
+     *  @return the operation, which returns its result so JMH can consume it.
+     *  @throws ResourceException if not run from the ParsingExportData folder.
+     *  @throws IllegalArgumentException if there is no operation called `name`.
+     */
+    public Supplier<Object> apply (String name) {
+        if (! new File("exports").isDirectory()) {
+            throw new ResourceException("Workloads: run from the ParsingExportData folder, where exports is");
+        }
+        ParseExportData ped = new ParseExportData();
+        switch (name) {
+            // numberOfExporters() on the full export data, both reading the file each time
+            // and parsing text already in memory, which leaves out the file system.
+            case "numberOfExporters file":
+                return () -> ped.numberOfExporters(new FileResource(EXPORTS).getCSVParser(), "gold");
+            case "numberOfExporters memory": {
+                String text = new FileResource(EXPORTS).asString();
+                return () -> ped.numberOfExporters(parse(text), "gold");
+            }
+
+            default:
+                throw new IllegalArgumentException("Workloads: no operation " + name);
+        }
+    }
+
+    // Parse `text` the same way FileResource.getCSVParser() parses a file.
+    private CSVParser parse (String text) {
+        try {
+            return CSVFormat.EXCEL.withHeader().parse(new StringReader(text));
+        } catch (IOException e) {
+            throw new ResourceException("Workloads: cannot parse: " + e.getMessage());
+        }
+    }
+
+}  // Workloads
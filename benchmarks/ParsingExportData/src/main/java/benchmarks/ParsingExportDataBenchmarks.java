@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH benchmarks for the export data code, so a change that is supposed to be faster
+ * can be shown to be.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * Run from the ParsingExportData folder, so the data files are found:
+ * <pre>
+ *   java -jar ../benchmarks/ParsingExportData/target/benchmarks.jar -prof gc
+ * </pre>
+ * Each benchmark reports its throughput and average time;  `-prof gc` adds the bytes
+ * allocated per operation and the allocation rate, over every thread.  Where one
+ * benchmark compares ways of doing the same thing, the `how` parameter picks the way.
+ * The operations themselves are set up by `Workloads` (see there for why).
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingExportDataBenchmarks {
+
+    // Workloads is in the default package with the ParsingExportData classes, so it can only
+    // be found by name.
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> workload (String name) {
+        try {
+            return ((Function<String, Supplier<Object>>) Class.forName("Workloads").getConstructor().newInstance()).apply(name);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("ParsingExportDataBenchmarks: cannot find Workloads", e);
+        }
+    }
+
+
+    @State(Scope.Benchmark)
+    public static class NumberOfExporters {
+        @Param({ "file", "memory" })
+        public String how;
+        Supplier<Object> operation;
+
+        @Setup
+        public void setUp () { operation = workload("numberOfExporters " + how); }
+    }
+
+    /** numberOfExporters() on the full export data, reading the file or parsing text in memory. */
+    @Benchmark
+    public Object numberOfExporters (NumberOfExporters state) {
+        return state.operation.get();
+    }
+
+}  // ParsingExportDataBenchmarks
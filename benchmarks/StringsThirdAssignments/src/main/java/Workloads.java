@@ -0,0 +1,42 @@
+import edu.duke.*;
+import java.io.File;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The operations `benchmarks.StringsThirdAssignmentsBenchmarks` times, each ready to run.
+ *
+ * @author Jeff Brown
+ * @version 1
+ * <p>
+ * JMH won't take a benchmark class in the default package, and a class in any other
+ * package can't name Part1, which is in the default package.  So the work is set up
+ * here, beside it, and the benchmarks look it up by name.
+ */
+public class Workloads implements Function<String, Supplier<Object>> {
+
+    /** Set up the operation called `name`, like "getAllGenes".
+     *
+     *  @param name     the operation
+     *  @return the operation, which returns its result so JMH can consume it.
+     *  @throws ResourceException if not run from the StringsThirdAssignments folder.
+     *  @throws IllegalArgumentException if there is no operation called `name`.
+     */
+    public Supplier<Object> apply (String name) {
+        if (! new File("dna").isDirectory()) {
+            throw new ResourceException("Workloads: run from the StringsThirdAssignments folder, where dna is");
+        }
+        Part1 p1 = new Part1();
+        switch (name) {
+            // getAllGenes() on the BRCA1 strand, read into memory once beforehand.
+            case "getAllGenes": {
+                String dna = new FileResource("dna/brca1line.fa").asString().toUpperCase();
+                return () -> p1.getAllGenes(dna);
+            }
+
+            default:
+                throw new IllegalArgumentException("Workloads: no operation " + name);
+        }
+    }
+
+}  // Workloads
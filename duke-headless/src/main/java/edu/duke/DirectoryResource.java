@@ -0,0 +1,46 @@
+package edu.duke;
+
+import java.io.File;
+
+/**
+ * The <code>DirectoryResource</code> class allows the user to choose one or more files, which can
+ * then be processed one at a time using a <code>for</code> loop.
+ *
+ * <P>
+ * This is a headless stand-in for the class of the same name in Duke's course library.  Instead
+ * of showing a file dialog, the files chosen are the ones named by the <code>duke.files</code>
+ * system property, where a directory stands for all the files in it.
+ *
+ * <P>
+ * Example usage:
+ *
+ * <PRE>
+ * DirectoryResource dr = new DirectoryResource();
+ * for (File f : dr.selectedFiles()) {
+ *     FileResource fr = new FileResource(f);
+ *     // process fr
+ * }
+ * </PRE>
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class DirectoryResource {
+
+    /**
+     * Create a <code>DirectoryResource</code> object.
+     */
+    public DirectoryResource () {
+    }
+
+    /**
+     * Returns the files named by <code>duke.files</code>.
+     *
+     * @return an <code>Iterable</code> that allows access to the chosen files one at a time
+     * @throws ResourceException if no files are named or a name doesn't exist
+     */
+    public Iterable<File> selectedFiles () {
+        return Selection.files("DirectoryResource");
+    }
+
+}  // DirectoryResource
@@ -0,0 +1,152 @@
+package edu.duke;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.apache.commons.csv.CSVParser;
+
+/**
+ * The <code>FileResource</code> class represents a file and allows access to its contents a line
+ * at a time, a word at a time, all at once as a <code>String</code>, or as CSV records.
+ *
+ * <P>
+ * This is a headless stand-in for the class of the same name in Duke's course library.  Files
+ * are read as UTF-8.  The constructor without a filename, which shows a file dialog in Duke's
+ * library, instead takes the first file named by the <code>duke.files</code> system property.
+ *
+ * <P>
+ * Example usage:
+ *
+ * <PRE>
+ * FileResource fr = new FileResource("us_babynames_test/yob2012short.csv");
+ * for (CSVRecord rec : fr.getCSVParser(false)) {
+ *     // process rec
+ * }
+ * </PRE>
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class FileResource {
+    private String myPath;
+    private String mySource;
+
+    /**
+     * Create a <code>FileResource</code> for the first file named by <code>duke.files</code>.
+     *
+     * @throws ResourceException if no file is named or it can't be read
+     */
+    public FileResource () {
+        this(Selection.files("FileResource").get(0));
+    }
+
+    /**
+     * Create a <code>FileResource</code> for the named file.
+     *
+     * @param filename the file, relative to the current directory or absolute
+     * @throws ResourceException if the file can't be read
+     */
+    public FileResource (String filename) {
+        this(new File(filename));
+    }
+
+    /**
+     * Create a <code>FileResource</code> for a file.
+     *
+     * @param file the file
+     * @throws ResourceException if the file can't be read
+     */
+    public FileResource (File file) {
+        myPath = file.getPath();
+        try {
+            mySource = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            throw new ResourceException("FileResource: cannot access " + myPath, e);
+        }
+    }
+
+    /**
+     * Allow access to this opened file one line at a time.
+     *
+     * @return an <code>Iterable</code> that will allow access to contents of opened file one line
+     *         at a time.
+     */
+    public Iterable<String> lines () {
+        return Text.lines(mySource);
+    }
+
+    /**
+     * Allow access to this opened file one word at a time, where words are separated by
+     * white-space.
+     *
+     * @return an <code>Iterable</code> that will allow access to contents of opened file one word
+     *         at a time.
+     */
+    public Iterable<String> words () {
+        return Text.words(mySource);
+    }
+
+    /**
+     * Return entire contents of this opened file as one string.
+     *
+     * @return a <code>String</code> that is the contents of the open file
+     */
+    public String asString () {
+        return mySource;
+    }
+
+    /**
+     * Returns a <code>CSVParser</code> object to access the contents of an open file, with the
+     * first row as a header row naming the columns.
+     *
+     * @return a <code>CSVParser</code> that can provide access to the records in the file one at a
+     *         time
+     * @throws ResourceException if this file does not represent CSV data
+     */
+    public CSVParser getCSVParser () {
+        return getCSVParser(true);
+    }
+
+    /**
+     * Returns a <code>CSVParser</code> object to access the contents of an open file, possibly
+     * without a header row.
+     *
+     * @param withHeader uses first row of data as a header row only if true
+     * @return a <code>CSVParser</code> that can provide access to the records in the file one at a
+     *         time
+     * @throws ResourceException if this file does not represent CSV data
+     */
+    public CSVParser getCSVParser (boolean withHeader) {
+        return getCSVParser(withHeader, ",");
+    }
+
+    /**
+     * Returns a <code>CSVParser</code> object to access the contents of an open file, possibly
+     * without a header row and a different data delimiter than a comma.
+     *
+     * @param withHeader uses first row of data as a header row only if true
+     * @param delimiter a single character that separates one field of data from another
+     * @return a <code>CSVParser</code> that can provide access to the records in the file one at a
+     *         time
+     * @throws ResourceException if this file does not represent CSV data
+     * @throws ResourceException if <code>delimiter.length() != 1</code>
+     */
+    public CSVParser getCSVParser (boolean withHeader, String delimiter) {
+        return Text.csvParser(mySource, withHeader, delimiter, "FileResource: " + myPath);
+    }
+
+    /**
+     * Allows access to the column names of the header row of a CSV file (the first line in the
+     * file) one at a time.  If the CSV file did not have a header row, then an empty
+     * <code>Iterator</code> is returned.
+     *
+     * @param parser the <code>CSVParser</code> that has been created for the file
+     * @return an <code>Iterable</code> that allows access one header name at a time
+     */
+    public Iterable<String> getCSVHeaders (CSVParser parser) {
+        return parser.getHeaderMap().keySet();
+    }
+
+}  // FileResource
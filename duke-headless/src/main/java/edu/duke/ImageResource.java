@@ -0,0 +1,261 @@
+package edu.duke;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+
+/**
+ * The <code>ImageResource</code> class represents an image as a grid of <code>Pixel</code> objects
+ * and allows access to all of them one at a time, or to any one by its location.  An image can be
+ * read from a file, made blank, changed pixel by pixel and saved.
+ *
+ * <P>
+ * This is a headless stand-in for the class of the same name in Duke's course library.  With no
+ * display, <code>draw</code> shows nothing, and the constructor without a filename, which shows a
+ * file dialog in Duke's library, instead reads the first file named by the <code>duke.files</code>
+ * system property.  Images are read and saved with <code>javax.imageio</code>, in the format their
+ * filename ends with, such as .png or .jpg.
+ *
+ * <P>
+ * Example usage:
+ *
+ * <PRE>
+ * ImageResource image = new ImageResource("images/cat.png");
+ * for (Pixel p : image.pixels()) {
+ *     int average = (p.getRed() + p.getGreen() + p.getBlue()) / 3;
+ *     p.setRed(average);
+ *     p.setGreen(average);
+ *     p.setBlue(average);
+ * }
+ * image.setFileName("images/gray-cat.png");
+ * image.save();
+ * </PRE>
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class ImageResource {
+    private int myWidth;
+    private int myHeight;
+    private Pixel[] myPixels;   // row by row:  (x, y) is at y * myWidth + x
+    private String myPath;
+    private String myTitle;
+
+    /**
+     * Create an <code>ImageResource</code> from the first file named by <code>duke.files</code>.
+     *
+     * @throws ResourceException if no file is named or it isn't an image
+     */
+    public ImageResource () {
+        this(Selection.files("ImageResource").get(0));
+    }
+
+    /**
+     * Create a blank <code>ImageResource</code> of the given size, with every pixel solid black.
+     * It has no filename until one is set.
+     *
+     * @param width the width of the image in pixels
+     * @param height the height of the image in pixels
+     * @throws ResourceException if either size is less than 1
+     */
+    public ImageResource (int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new ResourceException("ImageResource: size must be at least 1 by 1: " + width + " by " + height);
+        }
+        myPath = "";
+        myTitle = "";
+        setPixels(width, height, null);
+    }
+
+    /**
+     * Create an <code>ImageResource</code> from the named image file.
+     *
+     * @param filename the image file, relative to the current directory or absolute
+     * @throws ResourceException if the file can't be read or isn't an image
+     */
+    public ImageResource (String filename) {
+        this(new File(filename));
+    }
+
+    /**
+     * Create an <code>ImageResource</code> from an image file.
+     *
+     * @param file the image file
+     * @throws ResourceException if the file can't be read or isn't an image
+     */
+    public ImageResource (File file) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(file);
+        }
+        catch (IOException e) {
+            throw new ResourceException("ImageResource: cannot access " + file, e);
+        }
+        if (image == null) {
+            throw new ResourceException("ImageResource: not an image file " + file);
+        }
+        myPath = file.getPath();
+        myTitle = file.getName();
+        setPixels(image.getWidth(), image.getHeight(), image);
+    }
+
+    /**
+     * Create an <code>ImageResource</code> that is a copy of another one, with its own pixels.
+     *
+     * @param other the image being copied
+     */
+    public ImageResource (ImageResource other) {
+        myWidth = other.myWidth;
+        myHeight = other.myHeight;
+        myPath = other.myPath;
+        myTitle = other.myTitle;
+        myPixels = new Pixel[other.myPixels.length];
+        for (int i = 0; i < myPixels.length; i++) {
+            myPixels[i] = new Pixel(other.myPixels[i]);
+        }
+    }
+
+    // Make the pixels, copying their values from `image` or solid black if it is null.
+    private void setPixels (int width, int height, BufferedImage image) {
+        myWidth = width;
+        myHeight = height;
+        myPixels = new Pixel[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int argb = (image == null) ? 0xff000000 : image.getRGB(x, y);
+                myPixels[y * width + x] = new Pixel(x, y, argb);
+            }
+        }
+    }
+
+    /** @return the width of this image in pixels */
+    public int getWidth () {
+        return myWidth;
+    }
+
+    /** @return the height of this image in pixels */
+    public int getHeight () {
+        return myHeight;
+    }
+
+    /**
+     * Allows access to every pixel of this image one at a time, row by row from the top left.
+     *
+     * @return an <code>Iterable</code> over the pixels of this image
+     */
+    public Iterable<Pixel> pixels () {
+        return Arrays.asList(myPixels);
+    }
+
+    /**
+     * Returns the pixel at (<code>x</code>, <code>y</code>).  Changing it changes this image.
+     *
+     * @param x the x-coordinate, from 0 at the left
+     * @param y the y-coordinate, from 0 at the top
+     * @return the pixel at that location
+     * @throws ResourceException if the location is outside this image
+     */
+    public Pixel getPixel (int x, int y) {
+        if (x < 0 || x >= myWidth || y < 0 || y >= myHeight) {
+            throw new ResourceException("ImageResource: (" + x + ", " + y + ") is outside the " + myWidth + " by " + myHeight + " image");
+        }
+        return myPixels[y * myWidth + x];
+    }
+
+    /**
+     * Sets the pixel at (<code>x</code>, <code>y</code>) to the values of <code>p</code>.
+     *
+     * @param x the x-coordinate, from 0 at the left
+     * @param y the y-coordinate, from 0 at the top
+     * @param p the pixel whose red, green, blue and alpha values are copied
+     * @throws ResourceException if the location is outside this image
+     */
+    public void setPixel (int x, int y, Pixel p) {
+        Pixel target = getPixel(x, y);
+        target.setRed(p.getRed());
+        target.setGreen(p.getGreen());
+        target.setBlue(p.getBlue());
+        target.setAlpha(p.getAlpha());
+    }
+
+    /**
+     * Returns the name of the file this image was read from or will be saved to, without its
+     * directory.
+     *
+     * @return the filename, or an empty string if there is none
+     */
+    public String getFileName () {
+        return myPath.isEmpty() ? "" : new File(myPath).getName();
+    }
+
+    /**
+     * Sets the file this image will be saved to.
+     *
+     * @param name the filename, relative to the current directory or absolute
+     */
+    public void setFileName (String name) {
+        myPath = name;
+        myTitle = new File(name).getName();
+    }
+
+    /** @return the title of this image, which is its filename unless set otherwise */
+    public String getTitle () {
+        return myTitle;
+    }
+
+    /**
+     * Sets the title of this image.
+     *
+     * @param title the new title
+     */
+    public void setTitle (String title) {
+        myTitle = title;
+    }
+
+    /**
+     * Would show this image in a window, but there is no display, so it does nothing.  Use
+     * <code>save</code> to see the result.
+     */
+    public void draw () {
+    }
+
+    /**
+     * Saves this image to its file, in the format the filename ends with, like .png or .jpg.
+     *
+     * @throws ResourceException if there is no filename, no writer for its format, or the file
+     *         can't be written
+     */
+    public void save () {
+        if (myPath.isEmpty()) {
+            throw new ResourceException("ImageResource: no filename to save to;  call setFileName first");
+        }
+        int dot = myPath.lastIndexOf('.');
+        String format = (dot < 0) ? "png" : myPath.substring(dot + 1).toLowerCase();
+        // JPEG has no alpha, and ImageIO won't write an image that has one as JPEG.
+        boolean alpha = ! (format.equals("jpg") || format.equals("jpeg"));
+        BufferedImage image = new BufferedImage(myWidth, myHeight, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        for (Pixel p : myPixels) {
+            image.setRGB(p.getX(), p.getY(), p.getARGB());
+        }
+        try {
+            if (! ImageIO.write(image, format, new File(myPath))) {
+                throw new ResourceException("ImageResource: cannot save images as " + format + ": " + myPath);
+            }
+        }
+        catch (IOException e) {
+            throw new ResourceException("ImageResource: cannot save " + myPath, e);
+        }
+    }
+
+    /**
+     * Returns a short description of this image.
+     *
+     * @return the title and size of this image
+     */
+    public String toString () {
+        return "ImageResource " + myTitle + " (" + myWidth + " by " + myHeight + ")";
+    }
+
+}  // ImageResource
@@ -0,0 +1,138 @@
+package edu.duke;
+
+/**
+ * The <code>Pixel</code> class represents one pixel of an <code>ImageResource</code>:  its
+ * location and its red, green, blue and alpha (transparency) values, each from 0 to 255.
+ *
+ * <P>
+ * This is a headless stand-in for the class of the same name in Duke's course library.  Changing
+ * a pixel got from an image changes that image.
+ *
+ * <P>
+ * Example usage:
+ *
+ * <PRE>
+ * ImageResource image = new ImageResource("images/cat.png");
+ * for (Pixel p : image.pixels()) {
+ *     p.setRed(255 - p.getRed());
+ * }
+ * </PRE>
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class Pixel {
+    private final int myX;
+    private final int myY;
+    private int myRed;
+    private int myGreen;
+    private int myBlue;
+    private int myAlpha;
+
+    /**
+     * Create a <code>Pixel</code> at (<code>x</code>, <code>y</code>) from a packed ARGB value, as
+     * <code>BufferedImage.getRGB</code> returns it.
+     */
+    Pixel (int x, int y, int argb) {
+        myX = x;
+        myY = y;
+        myAlpha = (argb >>> 24) & 0xff;
+        myRed = (argb >>> 16) & 0xff;
+        myGreen = (argb >>> 8) & 0xff;
+        myBlue = argb & 0xff;
+    }
+
+    /**
+     * Create a <code>Pixel</code> that is a copy of another one, with the same location and values.
+     *
+     * @param other the pixel being copied
+     */
+    public Pixel (Pixel other) {
+        this(other.myX, other.myY, other.getARGB());
+    }
+
+    /** @return the x-coordinate of this pixel in its image */
+    public int getX () {
+        return myX;
+    }
+
+    /** @return the y-coordinate of this pixel in its image */
+    public int getY () {
+        return myY;
+    }
+
+    /** @return the red value of this pixel, from 0 to 255 */
+    public int getRed () {
+        return myRed;
+    }
+
+    /** @return the green value of this pixel, from 0 to 255 */
+    public int getGreen () {
+        return myGreen;
+    }
+
+    /** @return the blue value of this pixel, from 0 to 255 */
+    public int getBlue () {
+        return myBlue;
+    }
+
+    /** @return the alpha value of this pixel, from 0 (clear) to 255 (solid) */
+    public int getAlpha () {
+        return myAlpha;
+    }
+
+    /**
+     * Sets the red value of this pixel.
+     *
+     * @param value the new value, which is clamped to 0 through 255
+     */
+    public void setRed (int value) {
+        myRed = clamp(value);
+    }
+
+    /**
+     * Sets the green value of this pixel.
+     *
+     * @param value the new value, which is clamped to 0 through 255
+     */
+    public void setGreen (int value) {
+        myGreen = clamp(value);
+    }
+
+    /**
+     * Sets the blue value of this pixel.
+     *
+     * @param value the new value, which is clamped to 0 through 255
+     */
+    public void setBlue (int value) {
+        myBlue = clamp(value);
+    }
+
+    /**
+     * Sets the alpha value of this pixel.
+     *
+     * @param value the new value, which is clamped to 0 through 255
+     */
+    public void setAlpha (int value) {
+        myAlpha = clamp(value);
+    }
+
+    private static int clamp (int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    // This pixel's values packed the way BufferedImage.setRGB takes them.
+    int getARGB () {
+        return (myAlpha << 24) | (myRed << 16) | (myGreen << 8) | myBlue;
+    }
+
+    /**
+     * Returns this pixel's values as a <code>String</code>.
+     *
+     * @return the location and color values of this pixel
+     */
+    public String toString () {
+        return "Pixel (" + myX + ", " + myY + ") R: " + myRed + " G: " + myGreen + " B: " + myBlue + " A: " + myAlpha;
+    }
+
+}  // Pixel
@@ -0,0 +1,73 @@
+package edu.duke;
+
+/**
+ * The <code>Point</code> class represents a two-dimensional location with integer coordinates.
+ *
+ * <P>
+ * This is a headless stand-in for the class of the same name in Duke's course library.
+ *
+ * <P>
+ * Example usage:
+ *
+ * <PRE>
+ * Point a = new Point(3, 4);
+ * Point b = new Point(0, 0);
+ * System.out.println(a.distance(b));   // prints 5.0
+ * </PRE>
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class Point {
+    private final int myX;
+    private final int myY;
+
+    /**
+     * Create a <code>Point</code> object with the given coordinates.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     */
+    public Point (int x, int y) {
+        myX = x;
+        myY = y;
+    }
+
+    /**
+     * Returns the x-coordinate of this point.
+     *
+     * @return the x-coordinate
+     */
+    public int getX () {
+        return myX;
+    }
+
+    /**
+     * Returns the y-coordinate of this point.
+     *
+     * @return the y-coordinate
+     */
+    public int getY () {
+        return myY;
+    }
+
+    /**
+     * Returns the straight line distance from this point to another.
+     *
+     * @param otherPt the other point
+     * @return the distance between the two points
+     */
+    public double distance (Point otherPt) {
+        return Math.hypot(myX - otherPt.myX, myY - otherPt.myY);
+    }
+
+    /**
+     * Returns this point as a <code>String</code>, like "(3, 4)".
+     *
+     * @return the coordinates of this point
+     */
+    public String toString () {
+        return "(" + myX + ", " + myY + ")";
+    }
+
+}  // Point
@@ -0,0 +1,36 @@
+package edu.duke;
+
+/**
+ * The exception thrown by the <code>edu.duke</code> resource classes when something goes wrong,
+ * such as a file that can't be read or text that isn't CSV data.
+ *
+ * <P>
+ * Like the rest of this package, it is a headless stand-in for the class of the same name in
+ * Duke's course library, so the projects build and run without BlueJ or a display.
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class ResourceException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Create an exception with a message saying what went wrong.
+     *
+     * @param message what went wrong, starting with the class it went wrong in
+     */
+    public ResourceException (String message) {
+        super(message);
+    }
+
+    /**
+     * Create an exception with a message saying what went wrong and the exception that caused it.
+     *
+     * @param message what went wrong, starting with the class it went wrong in
+     * @param cause the exception that caused this one
+     */
+    public ResourceException (String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}  // ResourceException
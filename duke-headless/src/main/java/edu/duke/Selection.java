@@ -0,0 +1,63 @@
+package edu.duke;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stands in for the file dialogs of Duke's course library.  Without a display nobody can pick
+ * files, so the files "picked" are named up front in the system property <code>duke.files</code>:
+ * paths separated by the platform's path separator (':' on Linux and macOS, ';' on Windows).  A
+ * directory stands for every file directly inside it, in name order.  For example
+ *
+ * <PRE>
+ * java -Dduke.files=images/cat.png:images/dinos.png -jar target/BatchGrayscale.jar
+ * </PRE>
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+final class Selection {
+    static final String PROPERTY = "duke.files";
+
+    private Selection () {
+    }
+
+    /**
+     * Returns the files named by <code>duke.files</code>.
+     *
+     * @param who the class asking, for error messages
+     * @return the files, in the order named, never empty
+     * @throws ResourceException if the property is missing or names something that doesn't exist
+     */
+    static List<File> files (String who) {
+        String names = System.getProperty(PROPERTY);
+        if (names == null || names.trim().isEmpty()) {
+            throw new ResourceException(who + ": no display to choose files with;  name them with -D" + PROPERTY + "=<files or directories>");
+        }
+        List<File> files = new ArrayList<File>();
+        for (String name : names.split(File.pathSeparator)) {
+            if (name.trim().isEmpty()) {
+                continue;
+            }
+            File f = new File(name.trim());
+            if (f.isDirectory()) {
+                File[] inside = f.listFiles(File::isFile);
+                Arrays.sort(inside);
+                files.addAll(Arrays.asList(inside));
+            }
+            else if (f.isFile()) {
+                files.add(f);
+            }
+            else {
+                throw new ResourceException(who + ": cannot access " + name);
+            }
+        }
+        if (files.isEmpty()) {
+            throw new ResourceException(who + ": " + PROPERTY + " names no files: " + names);
+        }
+        return files;
+    }
+
+}  // Selection
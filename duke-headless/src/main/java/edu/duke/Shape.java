@@ -0,0 +1,99 @@
+package edu.duke;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The <code>Shape</code> class represents a closed shape as the list of its corner points, in order.
+ * The last point joins back up with the first.
+ *
+ * <P>
+ * This is a headless stand-in for the class of the same name in Duke's course library.  Like that
+ * class, it can read its points from a file with one point per line, written as "x, y".
+ *
+ * <P>
+ * Example usage:
+ *
+ * <PRE>
+ * Shape s = new Shape(new FileResource("example1.txt"));
+ * for (Point p : s.getPoints()) {
+ *     System.out.println(p);
+ * }
+ * </PRE>
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class Shape {
+    private List<Point> myPoints;
+
+    /**
+     * Create a <code>Shape</code> with no points yet.
+     */
+    public Shape () {
+        myPoints = new ArrayList<Point>();
+    }
+
+    /**
+     * Create a <code>Shape</code> from the points in a file, one "x, y" per line.  Blank lines are
+     * skipped.
+     *
+     * @param file the file holding the points
+     * @throws ResourceException if a line isn't two integers separated by a comma
+     */
+    public Shape (FileResource file) {
+        this();
+        for (String line : file.lines()) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String[] coordinates = line.split(",");
+            try {
+                if (coordinates.length != 2) {
+                    throw new NumberFormatException();
+                }
+                addPoint(new Point(Integer.parseInt(coordinates[0].trim()), Integer.parseInt(coordinates[1].trim())));
+            }
+            catch (NumberFormatException e) {
+                throw new ResourceException("Shape: a point must be two integers like \"3, 4\": " + line);
+            }
+        }
+    }
+
+    /**
+     * Adds a point to the end of this shape.
+     *
+     * @param p the point added
+     */
+    public void addPoint (Point p) {
+        myPoints.add(p);
+    }
+
+    /**
+     * Allows access to the points of this shape one at a time, in the order they were added.
+     *
+     * @return an <code>Iterable</code> over the points of this shape
+     */
+    public Iterable<Point> getPoints () {
+        return myPoints;
+    }
+
+    /**
+     * Returns the last point added to this shape, the one that joins back up with the first.
+     *
+     * @return the last point, or null if this shape has no points
+     */
+    public Point getLastPoint () {
+        return myPoints.isEmpty() ? null : myPoints.get(myPoints.size() - 1);
+    }
+
+    /**
+     * Returns the points of this shape as a <code>String</code>.
+     *
+     * @return the points, in order
+     */
+    public String toString () {
+        return myPoints.toString();
+    }
+
+}  // Shape
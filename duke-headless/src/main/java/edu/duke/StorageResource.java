@@ -0,0 +1,107 @@
+package edu.duke;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The <code>StorageResource</code> class stores any number of <code>String</code> objects and
+ * allows access to these stored values one at a time, using the method <code>data</code>. These
+ * strings can then be iterated over in the order they were added using a <code>for</code> loop.
+ *
+ * <P>
+ * This is a headless stand-in for the class of the same name in Duke's course library, with the
+ * same methods and no others.  In particular it has no <code>getCSVParser</code>;  a project
+ * that parses stored strings as CSV data brings its own class for that, like BabyBirths'
+ * <code>StorageResource</code>, which streams the strings to the parser through a
+ * <code>Reader</code>.
+ *
+ * <P>
+ * Example usage:
+ *
+ * <PRE>
+ * FileResource fr = new FileResource("dna/brca1line.fa");
+ * StorageResource store = new StorageResource();
+ * for (String s : fr.words()) {
+ *     store.add(s);
+ * }
+ * int x = store.size();
+ * for (String s : store.data()) {
+ *     // print or process s
+ * }
+ * </PRE>
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class StorageResource {
+    private List<String> myStrings;
+
+    /**
+     * Create an empty <code>StorageResource</code> object
+     */
+    public StorageResource () {
+        myStrings = new ArrayList<String>();
+    }
+
+    /**
+     * Create a <code>StorageResource</code> object, loaded with the Strings passed as parameters.
+     */
+    StorageResource (String... data) {
+        myStrings = new ArrayList<String>(Arrays.asList(data));
+    }
+
+    /**
+     * Create a <code>StorageResource</code> object that is a copy of another one.
+     *
+     * @param other the original being copied
+     */
+    public StorageResource (StorageResource other) {
+        myStrings = new ArrayList<String>(other.myStrings);
+    }
+
+    /**
+     * Remove all strings from this object so that <code>.size() == 0</code>.
+     */
+    public void clear () {
+        myStrings.clear();
+    }
+
+    /**
+     * Adds a string to this storage object.
+     *
+     * @param s the value added
+     */
+    public void add (String s) {
+        myStrings.add(s);
+    }
+
+    /**
+     * Returns the number of strings added/stored in this object.
+     *
+     * @return the number of strings stored in the object
+     */
+    public int size () {
+        return myStrings.size();
+    }
+
+    /**
+     * Determines if a string is stored in this object.
+     *
+     * @param s string searched for
+     * @return true if and only if s is stored in this object
+     */
+    public boolean contains (String s) {
+        return myStrings.contains(s);
+    }
+
+    /**
+     * Create and return an iterable for all strings in this object.
+     *
+     * @return an <code>Iterable</code> that allows access to each string in the order stored
+     */
+    public Iterable<String> data () {
+        return myStrings;
+    }
+
+}  // StorageResource
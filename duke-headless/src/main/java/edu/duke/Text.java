@@ -0,0 +1,69 @@
+package edu.duke;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+
+/**
+ * What <code>FileResource</code> and <code>URLResource</code> do with the text they hold:  split it into lines or words, or parse it as CSV data.
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+final class Text {
+
+    private Text () {
+    }
+
+    /** @return the lines of <code>text</code>, without their line endings */
+    static Iterable<String> lines (String text) {
+        List<String> lines = new ArrayList<String>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+            }
+        }
+        catch (IOException e) {
+            throw new ResourceException("Text: cannot read lines", e);   // a StringReader never does this
+        }
+        return lines;
+    }
+
+    /** @return the words of <code>text</code>, which are separated by any amount of white space */
+    static Iterable<String> words (String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return new ArrayList<String>();
+        }
+        return Arrays.asList(trimmed.split("\\s+"));
+    }
+
+    /**
+     * Returns a <code>CSVParser</code> over <code>text</code>.
+     *
+     * @param text the CSV data
+     * @param withHeader uses first row of data as a header row only if true
+     * @param delimiter a single character that separates one field of data from another
+     * @param who the class asking, for error messages
+     * @return a <code>CSVParser</code> over the records of <code>text</code>
+     * @throws ResourceException if <code>delimiter.length() != 1</code> or the text isn't CSV data
+     */
+    static CSVParser csvParser (String text, boolean withHeader, String delimiter, String who) {
+        if (delimiter == null || delimiter.length() != 1) {
+            throw new ResourceException(who + ": CSV delimiter must be a single character: " + delimiter);
+        }
+        try {
+            CSVFormat format = CSVFormat.EXCEL.withDelimiter(delimiter.charAt(0));
+            return new CSVParser(new StringReader(text), withHeader ? format.withHeader() : format);
+        }
+        catch (Exception e) {
+            throw new ResourceException(who + ": not CSV data", e);
+        }
+    }
+
+}  // Text
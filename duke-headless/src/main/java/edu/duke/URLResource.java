@@ -0,0 +1,143 @@
+package edu.duke;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.csv.CSVParser;
+
+/**
+ * The <code>URLResource</code> class opens a connection to a URL and allows access to the contents
+ * of the web page a line at a time, a word at a time, all at once as a <code>String</code>, or as
+ * CSV records.
+ *
+ * <P>
+ * This is a headless stand-in for the class of the same name in Duke's course library.  The
+ * page is read as UTF-8 when the object is created.
+ *
+ * <P>
+ * Example usage:
+ *
+ * <PRE>
+ * URLResource ur = new URLResource("http://www.dukelearntoprogram.com/course2/data/manylinks.html");
+ * for (String word : ur.words()) {
+ *     // process each word in turn
+ * }
+ * </PRE>
+ *
+ * @author Jeff Brown
+ * @version 1
+ */
+public class URLResource {
+    private String myPath;
+    private String mySource;
+
+    /**
+     * Create a <code>URLResource</code> object bound to the web page whose URL is given as the
+     * parameter.
+     *
+     * @param name the URL, which must start with http or https
+     * @throws ResourceException if the URL does not start with http or https, or can't be read
+     */
+    public URLResource (String name) {
+        if (name == null || ! (name.startsWith("http://") || name.startsWith("https://"))) {
+            throw new ResourceException("URLResource: name must start with http:// or https:// " + name);
+        }
+        myPath = name;
+        try (InputStream in = new URL(name).openStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+                bytes.write(buffer, 0, n);
+            }
+            mySource = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            throw new ResourceException("URLResource: unable to load URL " + name, e);
+        }
+    }
+
+    /**
+     * Allow access to this opened page one line at a time.
+     *
+     * @return an <code>Iterable</code> that will allow access to contents of opened page one line
+     *         at a time.
+     */
+    public Iterable<String> lines () {
+        return Text.lines(mySource);
+    }
+
+    /**
+     * Allow access to this opened page one word at a time, where words are separated by
+     * white-space.
+     *
+     * @return an <code>Iterable</code> that will allow access to contents of opened page one word
+     *         at a time.
+     */
+    public Iterable<String> words () {
+        return Text.words(mySource);
+    }
+
+    /**
+     * Return entire contents of this opened page as one string.
+     *
+     * @return a <code>String</code> that is the contents of the open page
+     */
+    public String asString () {
+        return mySource;
+    }
+
+    /**
+     * Returns a <code>CSVParser</code> object to access the contents of an open web page, with the
+     * first row as a header row naming the columns.
+     *
+     * @return a <code>CSVParser</code> that can provide access to the records in the page one at a
+     *         time
+     * @throws ResourceException if this page does not represent CSV data
+     */
+    public CSVParser getCSVParser () {
+        return getCSVParser(true);
+    }
+
+    /**
+     * Returns a <code>CSVParser</code> object to access the contents of an open web page, possibly
+     * without a header row.
+     *
+     * @param withHeader uses first row of data as a header row only if true
+     * @return a <code>CSVParser</code> that can provide access to the records in the page one at a
+     *         time
+     * @throws ResourceException if this page does not represent CSV data
+     */
+    public CSVParser getCSVParser (boolean withHeader) {
+        return getCSVParser(withHeader, ",");
+    }
+
+    /**
+     * Returns a <code>CSVParser</code> object to access the contents of an open web page, possibly
+     * without a header row and a different data delimiter than a comma.
+     *
+     * @param withHeader uses first row of data as a header row only if true
+     * @param delimiter a single character that separates one field of data from another
+     * @return a <code>CSVParser</code> that can provide access to the records in the page one at a
+     *         time
+     * @throws ResourceException if this page does not represent CSV data
+     * @throws ResourceException if <code>delimiter.length() != 1</code>
+     */
+    public CSVParser getCSVParser (boolean withHeader, String delimiter) {
+        return Text.csvParser(mySource, withHeader, delimiter, "URLResource: " + myPath);
+    }
+
+    /**
+     * Allows access to the column names of the header row of a CSV page (the first line in the
+     * page) one at a time.  If the CSV page did not have a header row, then an empty
+     * <code>Iterator</code> is returned.
+     *
+     * @param parser the <code>CSVParser</code> that has been created for the page
+     * @return an <code>Iterable</code> that allows access one header name at a time
+     */
+    public Iterable<String> getCSVHeaders (CSVParser parser) {
+        return parser.getHeaderMap().keySet();
+    }
+
+}  // URLResource